@@ -1,41 +1,124 @@
 package org.example.app;
 
 
-import org.example.repository.NotaFileRepository;
-import org.example.repository.StudentFileRepository;
-import org.example.repository.StudentXMLRepo;
-import org.example.repository.TemaXMLRepo;
-import org.example.repository.NotaXMLRepo;
-import org.example.repository.TemaFileRepository;
+import org.example.repository.IstoricNote;
+import org.example.repository.Stocare;
+import org.example.service.FeedbackWriter;
 import org.example.service.Service;
+import org.example.validation.RaportIntegritate;
 import org.example.validation.NotaValidator;
 import org.example.validation.StudentValidator;
 import org.example.validation.TemaValidator;
+import org.example.validation.ValidationException;
 import org.example.view.UI;
 
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
+/**
+ * Backend-ul de stocare se alege din ./stocare.properties sau din proprietatile de sistem
+ * (ex. -Dstocare=text); implicit se folosesc fisierele XML cu scriere asincrona
+ */
 public class MainApplication {
 
     public static void main(String[] args) {
         StudentValidator studentValidator = new StudentValidator();
         TemaValidator temaValidator = new TemaValidator();
-        String filenameStudent = "./fisiere/Studenti.xml";
-        String filenameTema = "./fisiere/Teme.xml";
-        String filenameNota = "./fisiere/Note.xml";
-
-       //StudentFileRepository studentFileRepository = new StudentFileRepository(filenameStudent);
-        //TemaFileRepository temaFileRepository = new TemaFileRepository(filenameTema);
-        //NotaValidator notaValidator = new NotaValidator(studentFileRepository, temaFileRepository);
-        //NotaFileRepository notaFileRepository = new NotaFileRepository(filenameNota);
-
-        StudentXMLRepo studentXMLRepository = new StudentXMLRepo(filenameStudent);
-        TemaXMLRepo temaXMLRepository = new TemaXMLRepo(filenameTema);
-        NotaValidator notaValidator = new NotaValidator(studentXMLRepository, temaXMLRepository);
-        NotaXMLRepo notaXMLRepository = new NotaXMLRepo(filenameNota);
-        Service service = new Service(studentXMLRepository, studentValidator, temaXMLRepository, temaValidator, notaXMLRepository, notaValidator);
-        UI ui = new UI(service);
-        ui.run();
+        Properties configurare = configurare();
+        Stocare stocare;
+        try {
+            stocare = Stocare.deschide(configurare);
+        } catch (ValidationException exception) {
+            // un fisier XML invalid nu mai e ignorat la pornire: memoria goala ar fi scrisa peste el
+            System.out.println("Datele nu au putut fi incarcate: " + exception.getMessage());
+            System.out.println("Fisierele nu au fost modificate; corectati-le sau restaurati o copie si reporniti aplicatia.");
+            return;
+        }
+        NotaValidator notaValidator = new NotaValidator(stocare.getStudenti(), stocare.getTeme());
+        Service service = new Service(stocare.getStudenti(), studentValidator, stocare.getTeme(), temaValidator, stocare.getNote(), notaValidator);
+        FeedbackWriter feedbackWriter = new FeedbackWriter("./fisiere", 10000, 64, 512);
+        service.setFeedbackWriter(feedbackWriter);
+        IstoricNote istoricNote = deschideIstoric(configurare);
+        if (istoricNote != null) {
+            service.setIstoricNote(istoricNote);
+        }
+        RaportIntegritate raport = service.verificaIntegritate();
+        if (!raport.esteConsistent()) {
+            System.out.println(raport);
+        }
+        // modificarile nescrise inca (write-behind, feedback) sunt scrise si la o exceptie sau la Ctrl-C
+        AtomicBoolean inchis = new AtomicBoolean();
+        Runnable inchide = () -> {
+            if (inchis.compareAndSet(false, true)) {
+                try {
+                    feedbackWriter.close();
+                } finally {
+                    try {
+                        stocare.close();
+                    } finally {
+                        if (istoricNote != null) {
+                            istoricNote.close();
+                        }
+                    }
+                }
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(new Thread(inchide, "inchidere"));
+        try {
+            UI ui = new UI(service);
+            ui.run();
+        } finally {
+            inchide.run();
+        }
+    }
+
+    /**
+     * Istoricul e scris doar de procesul care il deschide; cu fisiere partajate intre procese nu e pastrat,
+     * pentru ca fiecare proces ar vedea (si ar inregistra) si modificarile celorlalte, la reincarcare
+     * @return istoricul notelor sau null daca nu poate fi folosit
+     */
+    private static IstoricNote deschideIstoric(Properties configurare) {
+        if (Boolean.parseBoolean(configurare.getProperty("xml.partajat"))) {
+            System.out.println("Istoricul notelor nu este pastrat cand fisierele sunt partajate intre procese.");
+            return null;
+        }
+        try {
+            return new IstoricNote("./fisiere/IstoricNote.bin");
+        } catch (ValidationException exception) {
+            System.out.println("Istoricul notelor nu poate fi deschis: " + exception.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return configurarea stocarii; proprietatile de sistem au prioritate fata de fisier
+     */
+    private static Properties configurare() {
+        Properties configurare = new Properties();
+        configurare.setProperty("xml.writeBehind", "1000");
+        configurare.setProperty("xml.reincarcare", "true");
+        Path fisier = Path.of("./stocare.properties");
+        if (Files.exists(fisier)) {
+            try (Reader reader = new FileReader(fisier.toFile())) {
+                configurare.load(reader);
+            } catch (IOException exception) {
+                System.out.println("Configurarea nu a putut fi citita: " + exception.getMessage());
+            }
+        }
+        if (Boolean.getBoolean("partajat")) {
+            // mai multe procese folosesc aceleasi fisiere: scriere sincrona sub lock
+            configurare.setProperty("xml.partajat", "true");
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(cheie -> cheie.startsWith("stocare") || cheie.startsWith("xml.") || cheie.startsWith("h2."))
+                .forEach(cheie -> configurare.setProperty(cheie, System.getProperty(cheie)));
+        return configurare;
     }
 
 }
@@ -0,0 +1,42 @@
+package org.example.app;
+
+import org.example.repository.MigrareFormat;
+
+import java.nio.file.Path;
+
+/**
+ * Converteste fisierele repository-urilor intre formatul text si XML
+ * Utilizare: MigrareApplication studenti|teme|note text-xml|xml-text sursa destinatie [dimensiuneLot]
+ */
+public class MigrareApplication {
+
+    public static void main(String[] args) {
+        if (args.length != 4 && args.length != 5) {
+            System.out.println("Utilizare: MigrareApplication studenti|teme|note text-xml|xml-text sursa destinatie [dimensiuneLot]");
+            return;
+        }
+        MigrareFormat.Tip<?> tip;
+        switch (args[0]) {
+            case "studenti" -> tip = MigrareFormat.STUDENTI;
+            case "teme" -> tip = MigrareFormat.TEME;
+            case "note" -> tip = MigrareFormat.NOTE;
+            default -> {
+                System.out.println("Tip necunoscut: " + args[0]);
+                return;
+            }
+        }
+        Path sursa = Path.of(args[2]);
+        Path destinatie = Path.of(args[3]);
+        int dimensiuneLot = args.length == 5 ? Integer.parseInt(args[4]) : 10000;
+        MigrareFormat.Raport raport;
+        switch (args[1]) {
+            case "text-xml" -> raport = MigrareFormat.textInXML(tip, sursa, destinatie, dimensiuneLot);
+            case "xml-text" -> raport = MigrareFormat.xmlInText(tip, sursa, destinatie, dimensiuneLot);
+            default -> {
+                System.out.println("Directie necunoscuta: " + args[1]);
+                return;
+            }
+        }
+        System.out.println("Conversie terminata: " + raport);
+    }
+}
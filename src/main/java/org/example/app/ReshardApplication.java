@@ -0,0 +1,33 @@
+package org.example.app;
+
+import org.example.repository.NotaXMLRepo;
+import org.example.repository.ShardedRepository;
+import org.example.repository.StudentXMLRepo;
+import org.example.repository.TemaXMLRepo;
+
+/**
+ * Redistribuie un fisier XML impartit pe shard-uri pe un alt numar de shard-uri
+ * Utilizare: ReshardApplication studenti|teme|note fisier numarVechi numarNou
+ */
+public class ReshardApplication {
+
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            System.out.println("Utilizare: ReshardApplication studenti|teme|note fisier numarVechi numarNou");
+            return;
+        }
+        String filename = args[1];
+        int numarVechi = Integer.parseInt(args[2]);
+        int numarNou = Integer.parseInt(args[3]);
+        switch (args[0]) {
+            case "studenti" -> ShardedRepository.reshard(filename, numarVechi, numarNou, StudentXMLRepo::new);
+            case "teme" -> ShardedRepository.reshard(filename, numarVechi, numarNou, TemaXMLRepo::new);
+            case "note" -> ShardedRepository.reshard(filename, numarVechi, numarNou, NotaXMLRepo::new);
+            default -> {
+                System.out.println("Tip necunoscut: " + args[0]);
+                return;
+            }
+        }
+        System.out.println("Redistribuire terminata: " + numarVechi + " -> " + numarNou + " shard-uri");
+    }
+}
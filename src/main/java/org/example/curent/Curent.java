@@ -14,9 +14,16 @@ public class Curent {
      * @return the current week from the starting of university
      */
     public static int getCurrentWeek(){
-        LocalDate startDate = Curent.getStartDate();
-        LocalDate today = LocalDate.now();
-        long days = DAYS.between(startDate, today);
+        return getSaptamana(Curent.getStartDate(), LocalDate.now());
+    }
+
+    /**
+     * @param startDate - the date when university have started
+     * @param data - the date
+     * @return the week of the given date, counted from startDate
+     */
+    public static int getSaptamana(LocalDate startDate, LocalDate data){
+        long days = DAYS.between(startDate, data);
         double diff = Math.ceil((double)days/7);
         return (int)diff;
     }
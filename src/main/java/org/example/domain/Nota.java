@@ -1,15 +1,18 @@
 package org.example.domain;
 
 import org.example.repository.HasID;
+import org.example.repository.HasVersion;
 
 import java.time.LocalDate;
 
-public class Nota implements HasID<String> {
+public class Nota implements HasID<String>, HasVersion {
     private String id;
     private String idStudent;
     private String idTema;
     private double nota;
+    private double notaInitiala;
     private LocalDate data;
+    private long versiune;
 
     /**
      * Class Constructor
@@ -24,9 +27,27 @@ public class Nota implements HasID<String> {
         this.idStudent = idStudent;
         this.idTema = idTema;
         this.nota = nota;
+        this.notaInitiala = nota;
         this.data = data;
     }
 
+    /**
+     * @return versiunea obiectului
+     */
+    @Override
+    public long getVersiune() {
+        return versiune;
+    }
+
+    /**
+     * modifica versiunea obiectului
+     * @param versiune - noua versiune
+     */
+    @Override
+    public void setVersiune(long versiune) {
+        this.versiune = versiune;
+    }
+
     /**
      * @return id-ul studentului
      */
@@ -48,6 +69,28 @@ public class Nota implements HasID<String> {
         return nota;
     }
 
+    /**
+     * @return valoarea notei data de profesor, inainte de penalizari, sau Double.NaN daca nu se cunoaste
+     */
+    public double getNotaInitiala() {
+        return notaInitiala;
+    }
+
+    /**
+     * @return true daca se cunoaste nota data de profesor (lipseste la notele salvate fara ea)
+     */
+    public boolean isNotaInitialaCunoscuta() {
+        return !Double.isNaN(notaInitiala);
+    }
+
+    /**
+     * Modifica valoarea notei data de profesor (nu si nota finala)
+     * @param notaInitiala - noua valoare sau Double.NaN daca nu se cunoaste
+     */
+    public void setNotaInitiala(double notaInitiala) {
+        this.notaInitiala = notaInitiala;
+    }
+
     /**
      * Modifica valoarea unei note
      * @param nota - noua valoarea a notei
@@ -63,9 +106,13 @@ public class Nota implements HasID<String> {
         return data;
     }
 
+    /**
+     * @return nota in formatul fisierului text; nota data de profesor e ultimul camp, daca se cunoaste
+     */
     @Override
     public String toString() {
-        return idStudent + "," + idTema + "," + nota + "," + data;
+        String linie = idStudent + "," + idTema + "," + nota + "," + data;
+        return isNotaInitialaCunoscuta() ? linie + "," + notaInitiala : linie;
     }
 
     /**
@@ -1,12 +1,14 @@
 package org.example.domain;
 
 import org.example.repository.HasID;
+import org.example.repository.HasVersion;
 
-public class Student implements HasID<String> {
+public class Student implements HasID<String>, HasVersion {
     private String idStudent;
     private String nume;
     private int grupa;
     private String email;
+    private long versiune;
 
     /**
      * Class Constructor
@@ -22,6 +24,23 @@ public class Student implements HasID<String> {
         this.email = email;
     }
 
+    /**
+     * @return versiunea obiectului
+     */
+    @Override
+    public long getVersiune() {
+        return versiune;
+    }
+
+    /**
+     * modifica versiunea obiectului
+     * @param versiune - noua versiune
+     */
+    @Override
+    public void setVersiune(long versiune) {
+        this.versiune = versiune;
+    }
+
     /**
      * @return id-ul unui student
      */
@@ -2,13 +2,15 @@ package org.example.domain;
 
 
 import org.example.repository.HasID;
+import org.example.repository.HasVersion;
 
 
-public class Tema implements HasID<String> {
+public class Tema implements HasID<String>, HasVersion {
     private String nrTema;
     private String descriere;
     private int deadline;
     private int primire;
+    private long versiune;
 
     /**
      *
@@ -25,6 +27,23 @@ public class Tema implements HasID<String> {
         this.primire = primire;
     }
 
+    /**
+     * @return versiunea obiectului
+     */
+    @Override
+    public long getVersiune() {
+        return versiune;
+    }
+
+    /**
+     * modifica versiunea obiectului
+     * @param versiune - noua versiune
+     */
+    @Override
+    public void setVersiune(long versiune) {
+        this.versiune = versiune;
+    }
+
     /**
      * @return descrierea unei teme
      */
@@ -0,0 +1,735 @@
+package org.example.repository;
+
+import org.example.validation.ConflictVersiuneException;
+import org.example.validation.ValidationException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Repository stocat intr-un fisier organizat ca B+tree pe pagini de dimensiune fixa
+ * Doar paginile atinse de o operatie sunt citite sau scrise, printr-un buffer pool
+ * Cheile sunt id-urile entitatilor, valorile sunt entitatile in formatul text (toString),
+ * precedate de versiune pentru entitatile cu versiune
+ * Fiecare operatie scrie mai intai paginile modificate si header-ul intr-un jurnal (fisier + ".jurnal"),
+ * sincronizat pe disc, si abia apoi le scrie pe loc; la deschidere jurnalul este reaplicat, deci o cadere
+ * in timpul unei divizari pe mai multe pagini nu lasa arborele pe jumatate modificat
+ * @param <E> - tipul entitatilor
+ */
+public abstract class AbstractBTreeRepository<E extends HasID<String>> implements CrudRepository<String, E>, Closeable {
+
+    static final int PAGE_SIZE = 4096;
+    private static final int MAGIC = 0x42545245;
+    private static final int MAX_INREGISTRARE = PAGE_SIZE / 4;
+    private static final byte FRUNZA = 0;
+    private static final byte INTERN = 1;
+    private static final int MAGIC_JURNAL = 0x4A524E4C;
+    private static final long DIMENSIUNE_MAXIMA_JURNAL = 1024L * PAGE_SIZE;
+
+    private final FileChannel channel;
+    private final Path fisierJurnal;
+    private final FileChannel jurnal;
+    private long lungimeJurnal;
+    private final BufferPool pool;
+    private int radacina;
+    private int numarPagini;
+    private final List<Index<String, E>> indexuri = new CopyOnWriteArrayList<>();
+    private final SubmissionPublisher<EvenimentModificare<String, E>> evenimente = new SubmissionPublisher<>();
+    private long secventa;
+    private final AtomicLong evenimentePierdute = new AtomicLong();
+
+    /**
+     * Class constructor; reaplica jurnalul ramas de la o oprire brusca
+     * @param filename - numele fisierului
+     * @param capacitatePool - numarul maxim de pagini tinute in memorie
+     */
+    AbstractBTreeRepository(String filename, int capacitatePool) {
+        this.pool = new BufferPool(capacitatePool);
+        this.fisierJurnal = Path.of(filename + ".jurnal");
+        try {
+            this.channel = FileChannel.open(Path.of(filename),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.jurnal = FileChannel.open(fisierJurnal,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            reaplicaJurnal();
+            if (channel.size() == 0) {
+                numarPagini = 1;
+                Nod nod = new Nod(numarPagini++, true);
+                radacina = nod.pagina;
+                pool.marcheazaMurdar(nod);
+                flush();
+            } else {
+                citesteHeader();
+            }
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+    }
+
+    /**
+     * Extrage un obiect dintr-un String
+     * @param linie - String-ul din care extrage obiectul
+     * @return - obiectul
+     */
+    public abstract E extractEntity(String linie);
+
+    /**
+     * @param id - id-ul obiectului
+     * @return obiectul cu id-ul respectiv sau null daca obiectul nu exista
+     */
+    @Override
+    public synchronized E findOne(String id) {
+        Nod frunza = cautaFrunza(id);
+        int index = Collections.binarySearch(frunza.chei, id);
+        return index >= 0 ? entitate(id, frunza.valori.get(index)) : null;
+    }
+
+    /**
+     * @return toate obiectele, in ordinea id-urilor, citite frunza cu frunza
+     */
+    @Override
+    public Iterable<E> findAll() {
+        return () -> new IteratorFrunze(null, null);
+    }
+
+    /**
+     * Parcurge in ordine obiectele cu id-ul intre doua limite
+     * @param deLa - id-ul minim, inclusiv (null pentru inceput)
+     * @param panaLa - id-ul maxim, inclusiv (null pentru sfarsit)
+     * @return obiectele din interval
+     */
+    public Iterable<E> findRange(String deLa, String panaLa) {
+        return () -> new IteratorFrunze(deLa, panaLa);
+    }
+
+    /**
+     * Inregistreaza un index secundar, tinut in memorie; acesta primeste obiectele existente
+     * (parcurgand frunzele) si apoi fiecare modificare
+     * @param index - indexul
+     * @return indexul inregistrat
+     */
+    @Override
+    public synchronized <I extends Index<String, E>> I adaugaIndex(I index) {
+        indexuri.add(index);
+        findAll().forEach(index::adauga);
+        return index;
+    }
+
+    /**
+     * Fluxul ordonat al modificarilor (creare, modificare, stergere), ca la celelalte backend-uri
+     * Fiecare abonat are propriul buffer; daca bufferul unui abonat e plin, evenimentul e pierdut pentru el
+     * @return publisher-ul de evenimente
+     */
+    public Flow.Publisher<EvenimentModificare<String, E>> getEvenimente() {
+        return evenimente;
+    }
+
+    /**
+     * @return numarul de evenimente pierdute din cauza abonatilor prea lenti
+     */
+    public long getEvenimentePierdute() {
+        return evenimentePierdute.get();
+    }
+
+    /**
+     * Salveaza un obiect
+     * @param entity - obiectul pe care il salveaza
+     * @return null daca obiectul s-a salvat cu succes sau obiectul daca acesta exista deja
+     */
+    @Override
+    public synchronized E save(E entity) {
+        if (findOne(entity.getID()) != null) {
+            return entity;
+        }
+        scrie(entity);
+        flush();
+        indexuri.forEach(index -> index.adauga(entity));
+        publica(EvenimentModificare.Tip.CREAT, entity.getID(), null, entity);
+        return null;
+    }
+
+    /**
+     * Sterge un obiect; paginile golite nu sunt recuperate
+     * @param id - id-ul obiectului
+     * @return obiectul sters sau null daca obiectul nu exista
+     */
+    @Override
+    public synchronized E delete(String id) {
+        Nod frunza = cautaFrunza(id);
+        int index = Collections.binarySearch(frunza.chei, id);
+        if (index < 0) {
+            return null;
+        }
+        frunza.chei.remove(index);
+        String valoare = frunza.valori.remove(index);
+        pool.marcheazaMurdar(frunza);
+        flush();
+        E sters = entitate(id, valoare);
+        indexuri.forEach(i -> i.sterge(sters));
+        publica(EvenimentModificare.Tip.STERS, id, sters, null);
+        return sters;
+    }
+
+    /**
+     * Modifica un obiect pe loc, in pagina lui
+     * @param entity - noul obiect
+     * @return null daca obiectul a fost modificat sau obiectul, daca acesta nu exista
+     */
+    @Override
+    public synchronized E update(E entity) {
+        E existent = modifica(entity);
+        if (existent == null) {
+            return entity;
+        }
+        flush();
+        notifica(existent, entity);
+        return null;
+    }
+
+    /**
+     * Modifica mai multe obiecte; paginile atinse sunt scrise (si jurnalizate) o singura data, la final
+     * @param entities - noile obiecte
+     * @return obiectele nemodificate (inexistente sau modificate intre timp de altcineva)
+     */
+    @Override
+    public synchronized List<E> updateAll(Iterable<E> entities) {
+        List<E> nemodificate = new ArrayList<>();
+        List<E> inainte = new ArrayList<>();
+        List<E> dupa = new ArrayList<>();
+        try {
+            for (E entity : entities) {
+                try {
+                    E existent = modifica(entity);
+                    if (existent == null) {
+                        nemodificate.add(entity);
+                    } else {
+                        inainte.add(existent);
+                        dupa.add(entity);
+                    }
+                } catch (ConflictVersiuneException exception) {
+                    nemodificate.add(entity);
+                }
+            }
+        } finally {
+            flush();
+        }
+        for (int i = 0; i < dupa.size(); i++) {
+            notifica(inainte.get(i), dupa.get(i));
+        }
+        return nemodificate;
+    }
+
+    /**
+     * Inlocuieste un obiect in pagina lui, fara sa scrie paginile pe disc
+     * @return obiectul vechi sau null daca obiectul nu exista
+     */
+    private E modifica(E entity) {
+        E existent = findOne(entity.getID());
+        if (existent == null) {
+            return null;
+        }
+        if (entity instanceof HasVersion) {
+            HasVersion nou = (HasVersion) entity;
+            long versiune = ((HasVersion) existent).getVersiune();
+            if (nou.getVersiune() != versiune) {
+                throw new ConflictVersiuneException("Obiectul a fost modificat intre timp! Reincercati.");
+            }
+            nou.setVersiune(versiune + 1);
+        }
+        scrie(entity);
+        return existent;
+    }
+
+    private void notifica(E inainte, E dupa) {
+        indexuri.forEach(index -> index.actualizeaza(inainte, dupa));
+        publica(EvenimentModificare.Tip.MODIFICAT, dupa.getID(), inainte, dupa);
+    }
+
+    /**
+     * Scrie paginile modificate, sincronizeaza fisierul si sterge jurnalul
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            flush();
+            channel.force(true);
+            channel.close();
+            jurnal.close();
+            Files.deleteIfExists(fisierJurnal);
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        evenimente.close();
+    }
+
+    private void publica(EvenimentModificare.Tip tip, String id, E inainte, E dupa) {
+        if (!evenimente.hasSubscribers()) {
+            return;
+        }
+        evenimente.offer(new EvenimentModificare<>(++secventa, tip, id, inainte, dupa), (abonat, e) -> {
+            evenimentePierdute.incrementAndGet();
+            return false;
+        });
+    }
+
+    private void scrie(E entity) {
+        String cheie = entity.getID();
+        String valoare = entity instanceof HasVersion
+                ? ((HasVersion) entity).getVersiune() + "|" + entity
+                : entity.toString();
+        if (lungime(cheie) + lungime(valoare) > MAX_INREGISTRARE) {
+            throw new ValidationException("Obiectul este prea mare pentru o pagina!");
+        }
+        Divizare divizare = insereaza(citestePagina(radacina), cheie, valoare);
+        if (divizare != null) {
+            Nod nouaRadacina = new Nod(numarPagini++, false);
+            nouaRadacina.copii.add(radacina);
+            nouaRadacina.chei.add(divizare.cheie);
+            nouaRadacina.copii.add(divizare.pagina);
+            radacina = nouaRadacina.pagina;
+            pool.marcheazaMurdar(nouaRadacina);
+        }
+    }
+
+    private Divizare insereaza(Nod nod, String cheie, String valoare) {
+        if (nod.frunza) {
+            int index = Collections.binarySearch(nod.chei, cheie);
+            if (index >= 0) {
+                nod.valori.set(index, valoare);
+            } else {
+                nod.chei.add(-index - 1, cheie);
+                nod.valori.add(-index - 1, valoare);
+            }
+            pool.marcheazaMurdar(nod);
+            return nod.dimensiune() > PAGE_SIZE ? divideFrunza(nod) : null;
+        }
+        int index = indexCopil(nod, cheie);
+        Divizare divizare = insereaza(citestePagina(nod.copii.get(index)), cheie, valoare);
+        if (divizare == null) {
+            return null;
+        }
+        nod.chei.add(index, divizare.cheie);
+        nod.copii.add(index + 1, divizare.pagina);
+        pool.marcheazaMurdar(nod);
+        return nod.dimensiune() > PAGE_SIZE ? divideIntern(nod) : null;
+    }
+
+    private Divizare divideFrunza(Nod nod) {
+        int mijloc = mijlocDupaOcteti(nod);
+        Nod dreapta = new Nod(numarPagini++, true);
+        dreapta.chei.addAll(nod.chei.subList(mijloc, nod.chei.size()));
+        dreapta.valori.addAll(nod.valori.subList(mijloc, nod.valori.size()));
+        nod.chei.subList(mijloc, nod.chei.size()).clear();
+        nod.valori.subList(mijloc, nod.valori.size()).clear();
+        dreapta.urmator = nod.urmator;
+        nod.urmator = dreapta.pagina;
+        pool.marcheazaMurdar(dreapta);
+        return new Divizare(dreapta.chei.get(0), dreapta.pagina);
+    }
+
+    private Divizare divideIntern(Nod nod) {
+        int mijloc = mijlocDupaOcteti(nod);
+        Nod dreapta = new Nod(numarPagini++, false);
+        String separator = nod.chei.get(mijloc);
+        dreapta.chei.addAll(nod.chei.subList(mijloc + 1, nod.chei.size()));
+        dreapta.copii.addAll(nod.copii.subList(mijloc + 1, nod.copii.size()));
+        nod.chei.subList(mijloc, nod.chei.size()).clear();
+        nod.copii.subList(mijloc + 1, nod.copii.size()).clear();
+        pool.marcheazaMurdar(dreapta);
+        return new Divizare(separator, dreapta.pagina);
+    }
+
+    private int mijlocDupaOcteti(Nod nod) {
+        int jumatate = nod.dimensiune() / 2;
+        int acumulat = 0;
+        for (int i = 0; i < nod.chei.size() - 1; i++) {
+            acumulat += nod.dimensiuneIntrare(i);
+            if (acumulat >= jumatate) {
+                return Math.max(1, i);
+            }
+        }
+        return nod.chei.size() / 2;
+    }
+
+    private Nod cautaFrunza(String cheie) {
+        Nod nod = citestePagina(radacina);
+        while (!nod.frunza) {
+            nod = citestePagina(nod.copii.get(indexCopil(nod, cheie)));
+        }
+        return nod;
+    }
+
+    private Nod frunzaStanga() {
+        Nod nod = citestePagina(radacina);
+        while (!nod.frunza) {
+            nod = citestePagina(nod.copii.get(0));
+        }
+        return nod;
+    }
+
+    private static int indexCopil(Nod nod, String cheie) {
+        int index = Collections.binarySearch(nod.chei, cheie);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private E entitate(String id, String valoare) {
+        int separator = valoare.indexOf('|');
+        E entity = extractEntity(separator < 0 ? valoare : valoare.substring(separator + 1));
+        entity.setID(id);
+        if (separator >= 0 && entity instanceof HasVersion) {
+            ((HasVersion) entity).setVersiune(Long.parseLong(valoare.substring(0, separator)));
+        }
+        return entity;
+    }
+
+    private Nod citestePagina(int pagina) {
+        Nod nod = pool.get(pagina);
+        if (nod != null) {
+            return nod;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+            channel.read(buffer, (long) pagina * PAGE_SIZE);
+            buffer.flip();
+            nod = Nod.decodeaza(pagina, buffer);
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        pool.put(nod);
+        return nod;
+    }
+
+    private void scriePagina(Nod nod) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+            nod.codeaza(buffer);
+            buffer.flip();
+            channel.write(buffer, (long) nod.pagina * PAGE_SIZE);
+            nod.murdar = false;
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+    }
+
+    private void citesteHeader() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        channel.read(buffer, 0);
+        buffer.flip();
+        if (buffer.getInt() != MAGIC) {
+            throw new ValidationException("Fisierul nu este un B+tree valid!");
+        }
+        radacina = buffer.getInt();
+        numarPagini = buffer.getInt();
+    }
+
+    /**
+     * Incheie o operatie: paginile murdare si header-ul sunt adaugate in jurnal, care e sincronizat pe disc,
+     * apoi sunt scrise pe loc; cand jurnalul devine prea mare fisierul e sincronizat si jurnalul golit
+     */
+    private void flush() {
+        List<Nod> murdare = pool.murdare();
+        try {
+            jurnalizeaza(murdare);
+            for (Nod nod : murdare) {
+                scriePagina(nod);
+            }
+            scrieHeader(radacina, numarPagini);
+            if (lungimeJurnal > DIMENSIUNE_MAXIMA_JURNAL) {
+                channel.force(true);
+                jurnal.truncate(0);
+                lungimeJurnal = 0;
+            }
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        pool.ajusteaza();
+    }
+
+    /**
+     * O inregistrare din jurnal: magic, numarul de pagini, (pagina, continut) pentru fiecare pagina,
+     * radacina, numarul de pagini al fisierului si CRC32-ul celor de dinainte
+     */
+    private void jurnalizeaza(List<Nod> murdare) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + murdare.size() * (4 + PAGE_SIZE) + 8 + 8);
+        buffer.putInt(MAGIC_JURNAL).putInt(murdare.size());
+        for (Nod nod : murdare) {
+            buffer.putInt(nod.pagina);
+            int start = buffer.position();
+            nod.codeaza(buffer);
+            buffer.position(start + PAGE_SIZE);
+        }
+        buffer.putInt(radacina).putInt(numarPagini);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue()).flip();
+        while (buffer.hasRemaining()) {
+            lungimeJurnal += jurnal.write(buffer, lungimeJurnal);
+        }
+        jurnal.force(false);
+    }
+
+    /**
+     * Reaplica inregistrarile complete din jurnal; o inregistrare incompleta sau cu CRC gresit
+     * apartine unei operatii neterminate, care nu a atins inca fisierul, si este ignorata
+     */
+    private void reaplicaJurnal() throws IOException {
+        long lungime = jurnal.size();
+        long pozitie = 0;
+        while (pozitie + 8 <= lungime) {
+            ByteBuffer antet = citesteJurnal(pozitie, 8);
+            if (antet.getInt() != MAGIC_JURNAL) {
+                break;
+            }
+            long numar = antet.getInt();
+            long dimensiune = 8 + numar * (4 + PAGE_SIZE) + 8 + 8;
+            if (numar < 0 || pozitie + dimensiune > lungime) {
+                break;
+            }
+            ByteBuffer inregistrare = citesteJurnal(pozitie, (int) dimensiune);
+            CRC32 crc = new CRC32();
+            crc.update(inregistrare.array(), 0, (int) dimensiune - 8);
+            if (crc.getValue() != inregistrare.getLong((int) dimensiune - 8)) {
+                break;
+            }
+            inregistrare.position(8);
+            for (int i = 0; i < numar; i++) {
+                long pagina = inregistrare.getInt();
+                ByteBuffer continut = inregistrare.slice(inregistrare.position(), PAGE_SIZE);
+                inregistrare.position(inregistrare.position() + PAGE_SIZE);
+                while (continut.hasRemaining()) {
+                    channel.write(continut, pagina * PAGE_SIZE + continut.position());
+                }
+            }
+            scrieHeader(inregistrare.getInt(), inregistrare.getInt());
+            pozitie += dimensiune;
+        }
+        if (lungime > 0) {
+            channel.force(true);
+            jurnal.truncate(0);
+            jurnal.force(true);
+        }
+    }
+
+    private ByteBuffer citesteJurnal(long pozitie, int dimensiune) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(dimensiune);
+        while (buffer.hasRemaining() && jurnal.read(buffer, pozitie + buffer.position()) >= 0) {
+            // citeste pana la umplerea buffer-ului
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private void scrieHeader(int radacina, int numarPagini) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putInt(MAGIC).putInt(radacina).putInt(numarPagini).flip();
+        channel.write(buffer, 0);
+    }
+
+    private static int lungime(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static final class Divizare {
+        final String cheie;
+        final int pagina;
+
+        Divizare(String cheie, int pagina) {
+            this.cheie = cheie;
+            this.pagina = pagina;
+        }
+    }
+
+    /**
+     * O pagina decodificata: frunzele tin perechi cheie-valoare si legatura spre frunza urmatoare,
+     * nodurile interne tin chei separatoare si paginile copiilor
+     */
+    private static final class Nod {
+        final int pagina;
+        final boolean frunza;
+        final List<String> chei = new ArrayList<>();
+        final List<String> valori = new ArrayList<>();
+        final List<Integer> copii = new ArrayList<>();
+        int urmator = -1;
+        boolean murdar;
+
+        Nod(int pagina, boolean frunza) {
+            this.pagina = pagina;
+            this.frunza = frunza;
+        }
+
+        int dimensiune() {
+            int total = 7;
+            for (int i = 0; i < chei.size(); i++) {
+                total += dimensiuneIntrare(i);
+            }
+            return total;
+        }
+
+        int dimensiuneIntrare(int i) {
+            int cheie = 2 + lungime(chei.get(i));
+            return frunza ? cheie + 2 + lungime(valori.get(i)) : cheie + 4;
+        }
+
+        void codeaza(ByteBuffer buffer) {
+            buffer.put(frunza ? FRUNZA : INTERN);
+            buffer.putShort((short) chei.size());
+            buffer.putInt(frunza ? urmator : copii.get(0));
+            for (int i = 0; i < chei.size(); i++) {
+                scrieText(buffer, chei.get(i));
+                if (frunza) {
+                    scrieText(buffer, valori.get(i));
+                } else {
+                    buffer.putInt(copii.get(i + 1));
+                }
+            }
+        }
+
+        static Nod decodeaza(int pagina, ByteBuffer buffer) {
+            Nod nod = new Nod(pagina, buffer.get() == FRUNZA);
+            int numar = buffer.getShort() & 0xFFFF;
+            if (nod.frunza) {
+                nod.urmator = buffer.getInt();
+            } else {
+                nod.copii.add(buffer.getInt());
+            }
+            for (int i = 0; i < numar; i++) {
+                nod.chei.add(citesteText(buffer));
+                if (nod.frunza) {
+                    nod.valori.add(citesteText(buffer));
+                } else {
+                    nod.copii.add(buffer.getInt());
+                }
+            }
+            return nod;
+        }
+
+        private static void scrieText(ByteBuffer buffer, String text) {
+            byte[] octeti = text.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) octeti.length);
+            buffer.put(octeti);
+        }
+
+        private static String citesteText(ByteBuffer buffer) {
+            byte[] octeti = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(octeti);
+            return new String(octeti, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Cache LRU de pagini; paginile murdare raman in cache pana la flush, ca sa nu ajunga pe disc inaintea jurnalului
+     */
+    private static final class BufferPool {
+        private final LinkedHashMap<Integer, Nod> pagini;
+        private final int capacitate;
+
+        BufferPool(int capacitate) {
+            this.capacitate = capacitate;
+            this.pagini = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Nod> eldest) {
+                    return size() > capacitate && !eldest.getValue().murdar;
+                }
+            };
+        }
+
+        /**
+         * Scoate cele mai vechi pagini curate cat timp cache-ul depaseste capacitatea
+         */
+        void ajusteaza() {
+            Iterator<Nod> it = pagini.values().iterator();
+            while (pagini.size() > capacitate && it.hasNext()) {
+                if (!it.next().murdar) {
+                    it.remove();
+                }
+            }
+        }
+
+        Nod get(int pagina) {
+            return pagini.get(pagina);
+        }
+
+        void put(Nod nod) {
+            pagini.put(nod.pagina, nod);
+        }
+
+        void marcheazaMurdar(Nod nod) {
+            nod.murdar = true;
+            pagini.put(nod.pagina, nod);
+        }
+
+        List<Nod> murdare() {
+            List<Nod> rezultat = new ArrayList<>();
+            for (Nod nod : pagini.values()) {
+                if (nod.murdar) {
+                    rezultat.add(nod);
+                }
+            }
+            return rezultat;
+        }
+    }
+
+    /**
+     * Parcurge frunzele in ordine, pornind de la prima cheie mai mare sau egala cu limita inferioara
+     */
+    private final class IteratorFrunze implements Iterator<E> {
+        private final String panaLa;
+        private Nod frunza;
+        private int index;
+
+        IteratorFrunze(String deLa, String panaLa) {
+            this.panaLa = panaLa;
+            synchronized (AbstractBTreeRepository.this) {
+                if (deLa == null) {
+                    frunza = frunzaStanga();
+                    index = 0;
+                } else {
+                    frunza = cautaFrunza(deLa);
+                    int pozitie = Collections.binarySearch(frunza.chei, deLa);
+                    index = pozitie >= 0 ? pozitie : -pozitie - 1;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            synchronized (AbstractBTreeRepository.this) {
+                while (frunza != null && index >= frunza.chei.size()) {
+                    frunza = frunza.urmator < 0 ? null : citestePagina(frunza.urmator);
+                    index = 0;
+                }
+                return frunza != null && (panaLa == null || frunza.chei.get(index).compareTo(panaLa) <= 0);
+            }
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            synchronized (AbstractBTreeRepository.this) {
+                E entity = entitate(frunza.chei.get(index), frunza.valori.get(index));
+                index++;
+                return entity;
+            }
+        }
+    }
+}
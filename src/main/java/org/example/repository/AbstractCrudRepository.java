@@ -1,17 +1,127 @@
 package org.example.repository;
 
-import java.util.HashMap;
+import org.example.validation.ConflictVersiuneException;
+
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 public abstract class AbstractCrudRepository <ID, E extends HasID<ID>> implements CrudRepository<ID, E> {
     private Map<ID, E> elemente;
+    private final SubmissionPublisher<EvenimentModificare<ID, E>> evenimente;
+    private long secventa;
+    private final AtomicLong evenimentePierdute = new AtomicLong();
+    private final List<Index<ID, E>> indexuri = new CopyOnWriteArrayList<>();
+    private final List<ID> duplicateLaIncarcare = new CopyOnWriteArrayList<>();
 
 
     /**
      * Class constructor
+     * Map-ul e concurent ca scrierea asincrona a fisierelor sa poata parcurge obiectele in timp ce acestea se modifica
+     * Fiecare modificare actualizeaza indexurile si publica evenimentul in interiorul operatiei atomice pe id
+     * (compute), deci pentru acelasi id indexurile si evenimentele urmeaza ordinea din map
      */
     AbstractCrudRepository(){
-        this.elemente = new HashMap<>();
+        this.elemente = new ConcurrentHashMap<>();
+        this.evenimente = new SubmissionPublisher<>();
+    }
+
+    /**
+     * @return id-urile care apareau de mai multe ori in fisier la ultima incarcare (doar prima aparitie e pastrata)
+     */
+    public List<ID> getDuplicateLaIncarcare() {
+        return List.copyOf(duplicateLaIncarcare);
+    }
+
+    /**
+     * Retine un id gasit de mai multe ori la incarcarea fisierului
+     * @param id - id-ul duplicat
+     */
+    protected void inregistreazaDuplicat(ID id) {
+        duplicateLaIncarcare.add(id);
+    }
+
+    /**
+     * Uita duplicatele gasite la o incarcare anterioara
+     */
+    protected void resetDuplicate() {
+        duplicateLaIncarcare.clear();
+    }
+
+    /**
+     * Inregistreaza un index secundar; acesta primeste obiectele existente si apoi fiecare modificare
+     * @param index - indexul
+     * @return indexul inregistrat
+     */
+    @Override
+    public <I extends Index<ID, E>> I adaugaIndex(I index) {
+        indexuri.add(index);
+        elemente.values().forEach(index::adauga);
+        return index;
+    }
+
+    private void indexeaza(E inainte, E dupa) {
+        for (Index<ID, E> index : indexuri) {
+            if (inainte != null && dupa != null) {
+                index.actualizeaza(inainte, dupa);
+            } else if (inainte != null) {
+                index.sterge(inainte);
+            } else if (dupa != null) {
+                index.adauga(dupa);
+            }
+        }
+    }
+
+    /**
+     * Executa o interogare: filtru, ordine, deplasament, limita si paginare cu cursor
+     * @param interogare - interogarea
+     * @return pagina ceruta
+     */
+    public Pagina<E> interogheaza(Interogare<ID, E> interogare) {
+        return interogare.executa(this);
+    }
+
+    /**
+     * Fluxul ordonat al modificarilor (creare, modificare, stergere)
+     * Fiecare abonat are propriul buffer si primeste evenimente doar cat cere (request),
+     * pe alt fir de executie; daca bufferul unui abonat e plin, evenimentul e pierdut pentru el,
+     * iar golul se vede in secventa
+     * @return publisher-ul de evenimente
+     */
+    public Flow.Publisher<EvenimentModificare<ID, E>> getEvenimente() {
+        return evenimente;
+    }
+
+    /**
+     * @return numarul de evenimente pierdute din cauza abonatilor prea lenti
+     */
+    public long getEvenimentePierdute() {
+        return evenimentePierdute.get();
+    }
+
+    /**
+     * Publica o modificare fara sa astepte abonatii
+     * @param tip - tipul modificarii
+     * @param id - id-ul entitatii
+     * @param inainte - entitatea inainte de modificare
+     * @param dupa - entitatea dupa modificare
+     */
+    protected void publica(EvenimentModificare.Tip tip, ID id, E inainte, E dupa) {
+        if (!evenimente.hasSubscribers()) {
+            return;
+        }
+        synchronized (evenimente) {
+            EvenimentModificare<ID, E> eveniment = new EvenimentModificare<>(++secventa, tip, id, inainte, dupa);
+            evenimente.offer(eveniment, (abonat, e) -> {
+                evenimentePierdute.incrementAndGet();
+                return false;
+            });
+        }
     }
 
     /**
@@ -49,9 +159,17 @@ public abstract class AbstractCrudRepository <ID, E extends HasID<ID>> implement
             }
         }
         */
-        E el = this.findOne(entity.getID());
-        if (el==null){
-            this.elemente.put(entity.getID(), entity);
+        AtomicReference<E> el = new AtomicReference<>();
+        this.elemente.compute(entity.getID(), (id, existent) -> {
+            if (existent != null) {
+                el.set(existent);
+                return existent;
+            }
+            indexeaza(null, entity);
+            publica(EvenimentModificare.Tip.CREAT, id, null, entity);
+            return entity;
+        });
+        if (el.get()==null){
             return null;
         }
         else return entity;
@@ -66,21 +184,63 @@ public abstract class AbstractCrudRepository <ID, E extends HasID<ID>> implement
      */
     @Override
     public E delete(ID id) {
-        return this.elemente.remove(id);
+        AtomicReference<E> sters = new AtomicReference<>();
+        this.elemente.computeIfPresent(id, (cheie, entity) -> {
+            indexeaza(entity, null);
+            publica(EvenimentModificare.Tip.STERS, cheie, entity, null);
+            sters.set(entity);
+            return null;
+        });
+        return sters.get();
+    }
+
+    /**
+     * Inlocuieste un obiect existent fara verificarea versiunii (la reincarcarea datelor din fisier)
+     * @param entity - noul obiect
+     * @return obiectul inlocuit sau null daca acesta nu exista in memorie
+     */
+    protected E inlocuieste(E entity) {
+        AtomicReference<E> inlocuit = new AtomicReference<>();
+        this.elemente.computeIfPresent(entity.getID(), (id, vechi) -> {
+            indexeaza(vechi, entity);
+            publica(EvenimentModificare.Tip.MODIFICAT, id, vechi, entity);
+            inlocuit.set(vechi);
+            return entity;
+        });
+        return inlocuit.get();
     }
 
     /**
      * modifica un obiect
+     * Pentru obiectele cu versiune, modificarea reuseste doar daca versiunea noului obiect este cea din memorie
+     * (compare-and-set, atomic pentru id-ul respectiv); dupa modificare versiunea creste cu 1
      * @param entity - noul obiect
      * entity must not be null
      * @return null daca obiectul a fost modificat sau obiectul daca acesta nu exista in memorie
+     * @throws ConflictVersiuneException daca obiectul a fost modificat intre timp de altcineva
      */
     @Override
     public E update(E entity) {
-        if(this.elemente.get(entity.getID()) == null){
-            return entity;
+        if (!(entity instanceof HasVersion)) {
+            E vechi = inlocuieste(entity);
+            if(vechi == null){
+                return entity;
+            }
+            return null;
         }
-        this.elemente.replace(entity.getID(), entity);
-        return null;
+        HasVersion nou = (HasVersion) entity;
+        AtomicReference<E> modificat = new AtomicReference<>();
+        this.elemente.computeIfPresent(entity.getID(), (id, vechi) -> {
+            long versiune = ((HasVersion) vechi).getVersiune();
+            if (nou.getVersiune() != versiune) {
+                throw new ConflictVersiuneException("Obiectul a fost modificat intre timp! Reincercati.");
+            }
+            nou.setVersiune(versiune + 1);
+            indexeaza(vechi, entity);
+            publica(EvenimentModificare.Tip.MODIFICAT, id, vechi, entity);
+            modificat.set(vechi);
+            return entity;
+        });
+        return modificat.get() == null ? entity : null;
     }
 }
@@ -1,7 +1,10 @@
 package org.example.repository;
 
+import org.example.validation.ConflictVersiuneException;
 import org.example.validation.ValidationException;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class AbstractFileRepository<ID, E extends HasID<ID>> extends AbstractCrudRepository<ID, E> implements FileRepository<ID, E> {
 
@@ -27,11 +30,17 @@ public abstract class AbstractFileRepository<ID, E extends HasID<ID>> extends Ab
      * Incarca datele din fisier
      */
     public void loadFromFile(){
+        if (!new File(filename).exists()) {
+            return;
+        }
+        resetDuplicate();
         try (BufferedReader bufferedReader = new BufferedReader(new FileReader(filename))) {
             String linie;
             while ((linie = bufferedReader.readLine()) != null) {
                 E entity = extractEntity(linie);
-                super.save(entity);
+                if (super.save(entity) != null) {
+                    inregistreazaDuplicat(entity.getID());
+                }
             }
         } catch (IOException exception) {
             throw new ValidationException(exception.getMessage());
@@ -80,6 +89,30 @@ public abstract class AbstractFileRepository<ID, E extends HasID<ID>> extends Ab
         return entity1;
     }
 
+    /**
+     * Salveaza mai multe obiecte, adaugandu-le in fisier la o singura deschidere a acestuia
+     * @param entities - obiectele pe care le salveaza
+     * @return obiectele care existau deja in memorie
+     */
+    @Override
+    public List<E> saveAll(Iterable<E> entities) {
+        List<E> existente = new ArrayList<>();
+        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(filename, true))) {
+            for (E entity : entities) {
+                E entity1 = super.save(entity);
+                if (entity1 == null) {
+                    bufferedWriter.write(entity.toString());
+                    bufferedWriter.newLine();
+                } else {
+                    existente.add(entity1);
+                }
+            }
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        return existente;
+    }
+
     /**
      * Sterge un obiect
      * @param id - id-ul obiectului
@@ -94,6 +127,26 @@ public abstract class AbstractFileRepository<ID, E extends HasID<ID>> extends Ab
         return entity;
     }
 
+    /**
+     * Sterge mai multe obiecte, rescriind fisierul o singura data
+     * @param ids - id-urile obiectelor
+     * @return obiectele sterse
+     */
+    @Override
+    public List<E> deleteAll(Iterable<ID> ids) {
+        List<E> sterse = new ArrayList<>();
+        for (ID id : ids) {
+            E entity = super.delete(id);
+            if (entity != null) {
+                sterse.add(entity);
+            }
+        }
+        if (!sterse.isEmpty()) {
+            writeToFile();
+        }
+        return sterse;
+    }
+
     /**
      * Modifica un obiect
      * @param entity - noul obiect
@@ -102,9 +155,35 @@ public abstract class AbstractFileRepository<ID, E extends HasID<ID>> extends Ab
     @Override
     public E update(E entity) {
         E entity1 = super.update(entity);
-        if(entity == null){
+        if(entity1 == null){
             writeToFile();
         }
         return entity1;
     }
+
+    /**
+     * Modifica mai multe obiecte, rescriind fisierul o singura data
+     * @param entities - noile obiecte
+     * @return obiectele nemodificate (inexistente sau modificate intre timp de altcineva)
+     */
+    @Override
+    public List<E> updateAll(Iterable<E> entities) {
+        List<E> nemodificate = new ArrayList<>();
+        boolean modificat = false;
+        for (E entity : entities) {
+            try {
+                if (super.update(entity) == null) {
+                    modificat = true;
+                } else {
+                    nemodificate.add(entity);
+                }
+            } catch (ConflictVersiuneException exception) {
+                nemodificate.add(entity);
+            }
+        }
+        if (modificat) {
+            writeToFile();
+        }
+        return nemodificate;
+    }
 }
@@ -0,0 +1,361 @@
+package org.example.repository;
+
+import org.example.validation.ConflictVersiuneException;
+import org.example.validation.ValidationException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Repository stocat intr-un tabel al unei baze de date embedded (ex. H2), accesat prin JDBC
+ * Conexiunile vin dintr-un pool (DataSource); salvarile, modificarile si stergerile multiple
+ * se fac in loturi de prepared statements, intr-o singura tranzactie
+ * Modificarea compara versiunea in clauza WHERE, deci doua modificari concurente nu se pot suprascrie
+ * @param <E> - tipul entitatilor
+ */
+public abstract class AbstractJdbcRepository<E extends HasID<String> & HasVersion> implements CrudRepository<String, E> {
+
+    private static final int DIMENSIUNE_LOT = 500;
+    private static final int INCERCARI_SALVARE = 5;
+
+    private final DataSource dataSource;
+    private final String tabel;
+    private final String[] coloane;
+    private final String select;
+    private final String insert;
+    private final String update;
+    private final String delete;
+    private final List<Index<String, E>> indexuri = new CopyOnWriteArrayList<>();
+
+    /**
+     * Class constructor; creeaza tabelul si indexurile lui daca nu exista
+     * @param dataSource - pool-ul de conexiuni
+     * @param tabel - numele tabelului
+     * @param definitie - coloanele, fara id si versiune, cu tipurile lor (ex. "nume VARCHAR(255), grupa INT")
+     * @param indexate - coloanele pe care se creeaza indexuri
+     */
+    protected AbstractJdbcRepository(DataSource dataSource, String tabel, String definitie, String... indexate) {
+        this.dataSource = dataSource;
+        this.tabel = tabel;
+        String[] parti = definitie.split(",");
+        this.coloane = new String[parti.length];
+        for (int i = 0; i < parti.length; i++) {
+            coloane[i] = parti[i].trim().split("\\s+")[0];
+        }
+        String lista = String.join(", ", coloane);
+        this.select = "SELECT id, versiune, " + lista + " FROM " + tabel;
+        this.insert = "INSERT INTO " + tabel + " (id, versiune, " + lista + ") VALUES (?, ?" + ", ?".repeat(coloane.length) + ")";
+        this.update = "UPDATE " + tabel + " SET " + String.join(" = ?, ", coloane) + " = ?, versiune = versiune + 1"
+                + " WHERE id = ? AND versiune = ?";
+        this.delete = "DELETE FROM " + tabel + " WHERE id = ?";
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + tabel
+                    + " (id VARCHAR(255) PRIMARY KEY, versiune BIGINT NOT NULL, " + definitie + ")");
+            for (String coloana : indexate) {
+                statement.execute("CREATE INDEX IF NOT EXISTS " + tabel + "_" + coloana + " ON " + tabel + " (" + coloana + ")");
+            }
+        } catch (SQLException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+    }
+
+    /**
+     * Construieste un obiect din randul curent; coloanele sunt id, versiune si apoi cele din definitie, in ordine
+     * @param resultSet - randul
+     * @return obiectul
+     * @throws SQLException daca citirea esueaza
+     */
+    protected abstract E citeste(ResultSet resultSet) throws SQLException;
+
+    /**
+     * Completeaza parametrii coloanelor din definitie, in ordine
+     * @param statement - statement-ul
+     * @param start - indexul primului parametru
+     * @param entity - obiectul
+     * @throws SQLException daca scrierea esueaza
+     */
+    protected abstract void completeaza(PreparedStatement statement, int start, E entity) throws SQLException;
+
+    /**
+     * @return pool-ul de conexiuni, pentru interogarile proprii subclaselor
+     */
+    protected DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * @return numele tabelului
+     */
+    protected String getTabel() {
+        return tabel;
+    }
+
+    @Override
+    public <I extends Index<String, E>> I adaugaIndex(I index) {
+        indexuri.add(index);
+        findAll().forEach(index::adauga);
+        return index;
+    }
+
+    @Override
+    public E findOne(String id) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(select + " WHERE id = ?")) {
+            statement.setString(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? citeste(resultSet) : null;
+            }
+        } catch (SQLException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+    }
+
+    @Override
+    public Iterable<E> findAll() {
+        List<E> toate = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(select)) {
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    toate.add(citeste(resultSet));
+                }
+            }
+        } catch (SQLException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        return toate;
+    }
+
+    @Override
+    public E save(E entity) {
+        List<E> existente = saveAll(List.of(entity));
+        return existente.isEmpty() ? null : entity;
+    }
+
+    /**
+     * Salveaza mai multe obiecte intr-o singura tranzactie, in loturi de insert-uri
+     * Daca alt client insereaza intre timp unul dintre id-uri, cheia primara respinge lotul;
+     * tranzactia se reia atunci de la cautarea id-urilor, iar obiectul apare printre cele existente
+     * @param entities - obiectele pe care le salveaza
+     * @return obiectele al caror id exista deja (in tabel sau mai devreme in lista)
+     */
+    @Override
+    public List<E> saveAll(Iterable<E> entities) {
+        List<E> existente = new ArrayList<>();
+        List<E> noi = new ArrayList<>();
+        List<E> toate = new ArrayList<>();
+        entities.forEach(toate::add);
+        try (Connection connection = dataSource.getConnection()) {
+            for (int incercare = 1; ; incercare++) {
+                try {
+                    insereaza(connection, toate, existente, noi);
+                    break;
+                } catch (SQLException exception) {
+                    if (!incalcareConstrangere(exception) || incercare == INCERCARI_SALVARE) {
+                        throw exception;
+                    }
+                }
+            }
+        } catch (SQLException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        for (E entity : noi) {
+            indexuri.forEach(index -> index.adauga(entity));
+        }
+        return existente;
+    }
+
+    private void insereaza(Connection connection, List<E> toate, List<E> existente, List<E> noi) throws SQLException {
+        existente.clear();
+        noi.clear();
+        inTranzactie(connection, () -> {
+            Set<String> inTabel = cautaId(connection, toate);
+            Set<String> vazute = new HashSet<>();
+            for (E entity : toate) {
+                if (inTabel.contains(entity.getID()) || !vazute.add(entity.getID())) {
+                    existente.add(entity);
+                } else {
+                    noi.add(entity);
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(insert)) {
+                int inLot = 0;
+                for (E entity : noi) {
+                    statement.setString(1, entity.getID());
+                    statement.setLong(2, entity.getVersiune());
+                    completeaza(statement, 3, entity);
+                    statement.addBatch();
+                    if (++inLot == DIMENSIUNE_LOT) {
+                        statement.executeBatch();
+                        inLot = 0;
+                    }
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * @return true daca eroarea vine dintr-o constrangere de integritate (SQLSTATE clasa 23, ex. cheie primara duplicata)
+     */
+    private static boolean incalcareConstrangere(SQLException exception) {
+        for (SQLException curenta = exception; curenta != null; curenta = curenta.getNextException()) {
+            if (curenta instanceof SQLIntegrityConstraintViolationException
+                    || (curenta.getSQLState() != null && curenta.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public E delete(String id) {
+        List<E> sterse = deleteAll(List.of(id));
+        return sterse.isEmpty() ? null : sterse.get(0);
+    }
+
+    /**
+     * Sterge mai multe obiecte intr-o singura tranzactie
+     * @param ids - id-urile obiectelor
+     * @return obiectele sterse
+     */
+    @Override
+    public List<E> deleteAll(Iterable<String> ids) {
+        List<E> sterse = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            inTranzactie(connection, () -> {
+                try (PreparedStatement cautare = connection.prepareStatement(select + " WHERE id = ? FOR UPDATE");
+                     PreparedStatement stergere = connection.prepareStatement(delete)) {
+                    for (String id : ids) {
+                        cautare.setString(1, id);
+                        try (ResultSet resultSet = cautare.executeQuery()) {
+                            if (resultSet.next()) {
+                                sterse.add(citeste(resultSet));
+                                stergere.setString(1, id);
+                                stergere.addBatch();
+                            }
+                        }
+                    }
+                    stergere.executeBatch();
+                }
+            });
+        } catch (SQLException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        for (E entity : sterse) {
+            indexuri.forEach(index -> index.sterge(entity));
+        }
+        return sterse;
+    }
+
+    /**
+     * Modifica un obiect, daca versiunea lui e cea din tabel
+     * @param entity - noul obiect
+     * @return null daca obiectul a fost modificat sau obiectul daca acesta nu exista
+     * @throws ConflictVersiuneException daca obiectul a fost modificat intre timp
+     */
+    @Override
+    public E update(E entity) {
+        if (!updateAll(List.of(entity)).isEmpty()) {
+            if (findOne(entity.getID()) == null) {
+                return entity;
+            }
+            throw new ConflictVersiuneException("Obiectul a fost modificat intre timp! Reincercati.");
+        }
+        return null;
+    }
+
+    /**
+     * Modifica mai multe obiecte intr-o singura tranzactie, printr-un lot de update-uri conditionate de versiune
+     * @param entities - noile obiecte
+     * @return obiectele nemodificate (inexistente sau modificate intre timp)
+     */
+    @Override
+    public List<E> updateAll(Iterable<E> entities) {
+        List<E> toate = new ArrayList<>();
+        entities.forEach(toate::add);
+        List<E> nemodificate = new ArrayList<>();
+        Map<String, E> vechi = new HashMap<>();
+        if (!indexuri.isEmpty()) {
+            for (E entity : toate) {
+                E existent = findOne(entity.getID());
+                if (existent != null) {
+                    vechi.put(entity.getID(), existent);
+                }
+            }
+        }
+        List<E> modificate = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            inTranzactie(connection, () -> {
+                try (PreparedStatement statement = connection.prepareStatement(update)) {
+                    for (E entity : toate) {
+                        completeaza(statement, 1, entity);
+                        statement.setString(coloane.length + 1, entity.getID());
+                        statement.setLong(coloane.length + 2, entity.getVersiune());
+                        statement.addBatch();
+                    }
+                    int[] randuri = statement.executeBatch();
+                    for (int i = 0; i < toate.size(); i++) {
+                        (randuri[i] == 0 ? nemodificate : modificate).add(toate.get(i));
+                    }
+                }
+            });
+        } catch (SQLException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        for (E entity : modificate) {
+            entity.setVersiune(entity.getVersiune() + 1);
+            E inainte = vechi.get(entity.getID());
+            if (inainte != null) {
+                indexuri.forEach(index -> index.actualizeaza(inainte, entity));
+            }
+        }
+        return nemodificate;
+    }
+
+    private Set<String> cautaId(Connection connection, List<E> entities) throws SQLException {
+        Set<String> gasite = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement("SELECT id FROM " + tabel + " WHERE id = ANY(?)")) {
+            for (int i = 0; i < entities.size(); i += DIMENSIUNE_LOT) {
+                List<E> lot = entities.subList(i, Math.min(entities.size(), i + DIMENSIUNE_LOT));
+                statement.setObject(1, lot.stream().map(HasID::getID).toArray(String[]::new));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        gasite.add(resultSet.getString(1));
+                    }
+                }
+            }
+        }
+        return gasite;
+    }
+
+    private static void inTranzactie(Connection connection, ActiuneSQL actiune) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            actiune.executa();
+            connection.commit();
+        } catch (SQLException | RuntimeException exception) {
+            connection.rollback();
+            throw exception;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ActiuneSQL {
+        void executa() throws SQLException;
+    }
+}
@@ -0,0 +1,473 @@
+package org.example.repository;
+
+import org.example.validation.ConflictVersiuneException;
+import org.example.validation.ValidationException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Repository stocat ca jurnal de segmente: fiecare modificare se adauga la sfarsitul segmentului activ,
+ * stergerile se marcheaza prin tombstone-uri, iar segmentele inchise sunt unite in fundal
+ * Valorile sunt entitatile in formatul text (toString), precedate de versiune pentru entitatile cu versiune
+ * @param <E> - tipul entitatilor
+ */
+public abstract class AbstractLogRepository<E extends HasID<String>> extends AbstractCrudRepository<String, E>
+        implements FileRepository<String, E>, Closeable {
+
+    private static final byte SEGMENT_NORMAL = 0;
+    private static final byte SEGMENT_BAZA = 1;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private final Path director;
+    private final long dimensiuneMaximaSegment;
+    private final int pragCompactare;
+    private final List<Integer> segmenteInchise = new ArrayList<>();
+    private final ExecutorService compactor;
+
+    private int segmentActiv;
+    private DataOutputStream scriere;
+    private long dimensiuneActiv;
+    private boolean compactareInCurs;
+
+    private final AtomicLong octetiScrisi = new AtomicLong();
+    private final AtomicLong octetiCompactare = new AtomicLong();
+    private final AtomicLong octetiCititiCompactare = new AtomicLong();
+    private final AtomicLong nanosCompactare = new AtomicLong();
+    private final AtomicLong compactari = new AtomicLong();
+
+    /**
+     * Class constructor
+     * @param director - directorul cu segmente
+     * @param dimensiuneMaximaSegment - dimensiunea in octeti dupa care segmentul activ este inchis
+     * @param pragCompactare - numarul de segmente inchise care declanseaza compactarea
+     */
+    AbstractLogRepository(String director, long dimensiuneMaximaSegment, int pragCompactare) {
+        this.director = Path.of(director);
+        this.dimensiuneMaximaSegment = dimensiuneMaximaSegment;
+        this.pragCompactare = pragCompactare;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "compactor-" + director);
+            thread.setDaemon(true);
+            return thread;
+        });
+        loadFromFile();
+    }
+
+    /**
+     * Extrage un obiect dintr-un String
+     * @param linie - String-ul din care extrage obiectul
+     * @return - obiectul
+     */
+    public abstract E extractEntity(String linie);
+
+    /**
+     * Reface starea din memorie citind segmentele in ordine, incepand cu ultimul segment de baza
+     */
+    @Override
+    public synchronized void loadFromFile() {
+        try {
+            Files.createDirectories(director);
+            stergeTemporare();
+            List<Integer> segmente = listeazaSegmente();
+            int start = 0;
+            for (int i = 0; i < segmente.size(); i++) {
+                if (esteBaza(segmente.get(i))) {
+                    start = i;
+                }
+            }
+            for (int i = start; i < segmente.size(); i++) {
+                citesteSegment(segmente.get(i), (op, id, valoare) -> {
+                    if (op == PUT) {
+                        E entity = entitate(id, valoare);
+                        if (inlocuieste(entity) == null) {
+                            super.save(entity);
+                        }
+                    } else {
+                        super.delete(id);
+                    }
+                });
+                segmenteInchise.add(segmente.get(i));
+            }
+            for (int i = 0; i < start; i++) {
+                Files.deleteIfExists(fisierSegment(segmente.get(i)));
+            }
+            segmentActiv = segmente.isEmpty() ? 1 : segmente.get(segmente.size() - 1) + 1;
+            deschideSegmentActiv(SEGMENT_NORMAL);
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+    }
+
+    /**
+     * Adauga un obiect in segmentul activ
+     * @param entity - obiectul pe care il scrie
+     */
+    @Override
+    public synchronized void saveToFile(E entity) {
+        adauga(PUT, entity.getID(), valoare(entity));
+    }
+
+    /**
+     * Scrie toate obiectele din memorie intr-un segment de baza nou si renunta la segmentele vechi
+     * Segmentul de baza e scris intr-un fisier temporar si mutat atomic la locul lui, ca o cadere
+     * in timpul scrierii sa nu lase un segment de baza partial care ar ascunde segmentele vechi
+     */
+    @Override
+    public synchronized void writeToFile() {
+        try {
+            scriere.close();
+            int baza = segmentActiv + 1;
+            Path temporar = director.resolve(String.format("segment-%06d.tmp", baza));
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporar.toFile())))) {
+                out.writeByte(SEGMENT_BAZA);
+                for (E entity : super.findAll()) {
+                    scrieInregistrare(out, PUT, entity.getID(), valoare(entity));
+                }
+                octetiScrisi.addAndGet(out.size());
+            }
+            Files.move(temporar, fisierSegment(baza), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (int segment : segmenteInchise) {
+                Files.deleteIfExists(fisierSegment(segment));
+            }
+            Files.deleteIfExists(fisierSegment(segmentActiv));
+            segmenteInchise.clear();
+            segmenteInchise.add(baza);
+            segmentActiv = baza + 1;
+            deschideSegmentActiv(SEGMENT_NORMAL);
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+    }
+
+    /**
+     * Salveaza un obiect
+     * @param entity - obiectul pe care il salveaza
+     * @return null daca obiectul s-a salvat cu succes sau obiectul daca acesta exista deja in memorie
+     */
+    @Override
+    public synchronized E save(E entity) {
+        E entity1 = super.save(entity);
+        if (entity1 == null) {
+            saveToFile(entity);
+        }
+        return entity1;
+    }
+
+    /**
+     * Sterge un obiect, scriind un tombstone
+     * @param id - id-ul obiectului
+     * @return obiectul daca s-a reusit stergerea sau null daca obiectul nu exista
+     */
+    @Override
+    public synchronized E delete(String id) {
+        E entity = super.delete(id);
+        if (entity != null) {
+            adauga(DELETE, id, null);
+        }
+        return entity;
+    }
+
+    /**
+     * Modifica un obiect
+     * @param entity - noul obiect
+     * @return null daca obiectul a fost modificat sau obiectul, daca acesta nu exista
+     */
+    @Override
+    public synchronized E update(E entity) {
+        E entity1 = super.update(entity);
+        if (entity1 == null) {
+            saveToFile(entity);
+        }
+        return entity1;
+    }
+
+    /**
+     * Modifica mai multe obiecte, adaugand toate inregistrarile in segmentul activ cu o singura golire a buffer-ului
+     * @param entities - noile obiecte
+     * @return obiectele nemodificate (inexistente sau modificate intre timp de altcineva)
+     */
+    @Override
+    public synchronized List<E> updateAll(Iterable<E> entities) {
+        List<E> nemodificate = new ArrayList<>();
+        List<E> modificate = new ArrayList<>();
+        for (E entity : entities) {
+            try {
+                if (super.update(entity) == null) {
+                    modificate.add(entity);
+                } else {
+                    nemodificate.add(entity);
+                }
+            } catch (ConflictVersiuneException exception) {
+                nemodificate.add(entity);
+            }
+        }
+        try {
+            int inainte = scriere.size();
+            for (E entity : modificate) {
+                scrieInregistrare(scriere, PUT, entity.getID(), valoare(entity));
+            }
+            scriere.flush();
+            inregistreazaScriere(scriere.size() - inainte);
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        return nemodificate;
+    }
+
+    /**
+     * Uneste segmentele inchise intr-un singur segment de baza
+     * Citirea si scrierea se fac fara blocarea repository-ului; doar inlocuirea listei de segmente e sincronizata
+     */
+    public void compacteaza() {
+        List<Integer> segmente;
+        synchronized (this) {
+            if (compactareInCurs || segmenteInchise.size() < 2) {
+                return;
+            }
+            compactareInCurs = true;
+            segmente = new ArrayList<>(segmenteInchise);
+        }
+        try {
+            long start = System.nanoTime();
+            Map<String, String> ultimele = new LinkedHashMap<>();
+            for (int segment : segmente) {
+                octetiCititiCompactare.addAndGet(Files.size(fisierSegment(segment)));
+                citesteSegment(segment, (op, id, valoare) -> {
+                    ultimele.remove(id);
+                    if (op == PUT) {
+                        ultimele.put(id, valoare);
+                    }
+                });
+            }
+            int tinta = segmente.get(segmente.size() - 1);
+            Path temporar = director.resolve(String.format("segment-%06d.tmp", tinta));
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporar.toFile())))) {
+                out.writeByte(SEGMENT_BAZA);
+                for (Map.Entry<String, String> intrare : ultimele.entrySet()) {
+                    scrieInregistrare(out, PUT, intrare.getKey(), intrare.getValue());
+                }
+                octetiCompactare.addAndGet(out.size());
+            }
+            synchronized (this) {
+                if (!segmenteInchise.containsAll(segmente)) {
+                    // writeToFile a rescris intre timp segmentele
+                    Files.deleteIfExists(temporar);
+                    return;
+                }
+                Files.move(temporar, fisierSegment(tinta), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                for (int segment : segmente) {
+                    if (segment != tinta) {
+                        Files.deleteIfExists(fisierSegment(segment));
+                    }
+                }
+                segmenteInchise.removeAll(segmente);
+                segmenteInchise.add(0, tinta);
+            }
+            nanosCompactare.addAndGet(System.nanoTime() - start);
+            compactari.incrementAndGet();
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        } finally {
+            synchronized (this) {
+                compactareInCurs = false;
+            }
+        }
+    }
+
+    /**
+     * Opreste compactorul si inchide segmentul activ
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                scriere.close();
+            } catch (IOException exception) {
+                throw new ValidationException(exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return octetii scrisi in total (modificari si compactare) raportat la octetii scrisi de modificari
+     */
+    public double getAmplificareScriere() {
+        long utilizator = octetiScrisi.get();
+        return utilizator == 0 ? 0.0 : (double) (utilizator + octetiCompactare.get()) / utilizator;
+    }
+
+    /**
+     * @return viteza compactarii, in MB cititi pe secunda
+     */
+    public double getDebitCompactare() {
+        long nanos = nanosCompactare.get();
+        return nanos == 0 ? 0.0 : octetiCititiCompactare.get() / 1e6 / (nanos / 1e9);
+    }
+
+    /**
+     * @return numarul de compactari terminate
+     */
+    public long getCompactari() {
+        return compactari.get();
+    }
+
+    /**
+     * @return numarul de segmente de pe disc, inclusiv cel activ
+     */
+    public synchronized int getNumarSegmente() {
+        return segmenteInchise.size() + 1;
+    }
+
+    private void adauga(byte op, String id, String valoare) {
+        try {
+            int inainte = scriere.size();
+            scrieInregistrare(scriere, op, id, valoare);
+            scriere.flush();
+            inregistreazaScriere(scriere.size() - inainte);
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+    }
+
+    private void inregistreazaScriere(int scrisi) throws IOException {
+        octetiScrisi.addAndGet(scrisi);
+        dimensiuneActiv += scrisi;
+        if (dimensiuneActiv >= dimensiuneMaximaSegment) {
+            inchideSegmentActiv();
+        }
+    }
+
+    private void inchideSegmentActiv() throws IOException {
+        scriere.close();
+        segmenteInchise.add(segmentActiv);
+        segmentActiv++;
+        deschideSegmentActiv(SEGMENT_NORMAL);
+        if (segmenteInchise.size() >= pragCompactare && !compactor.isShutdown()) {
+            compactor.execute(this::compacteaza);
+        }
+    }
+
+    private void deschideSegmentActiv(byte tip) throws IOException {
+        Path fisier = fisierSegment(segmentActiv);
+        boolean nou = !Files.exists(fisier) || Files.size(fisier) == 0;
+        scriere = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fisier.toFile(), true)));
+        if (nou) {
+            scriere.writeByte(tip);
+            scriere.flush();
+        }
+        dimensiuneActiv = Files.size(fisier);
+    }
+
+    private static void scrieInregistrare(DataOutputStream out, byte op, String id, String valoare) throws IOException {
+        out.writeByte(op);
+        out.writeUTF(id);
+        if (op == PUT) {
+            out.writeUTF(valoare);
+        }
+    }
+
+    private void citesteSegment(int segment, Inregistrare consumator) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fisierSegment(segment).toFile())))) {
+            if (in.read() < 0) {
+                return;
+            }
+            while (true) {
+                byte op;
+                String id;
+                String valoare;
+                try {
+                    op = in.readByte();
+                    id = in.readUTF();
+                    valoare = op == PUT ? in.readUTF() : null;
+                } catch (EOFException exception) {
+                    // sfarsitul segmentului sau o inregistrare scrisa partial inainte de o cadere
+                    return;
+                }
+                consumator.accepta(op, id, valoare);
+            }
+        }
+    }
+
+    private boolean esteBaza(int segment) throws IOException {
+        try (FileInputStream in = new FileInputStream(fisierSegment(segment).toFile())) {
+            return in.read() == SEGMENT_BAZA;
+        }
+    }
+
+    private void stergeTemporare() throws IOException {
+        List<Path> temporare;
+        try (Stream<Path> fisiere = Files.list(director)) {
+            temporare = fisiere.filter(p -> p.getFileName().toString().matches("segment-\\d+\\.tmp")).toList();
+        }
+        for (Path temporar : temporare) {
+            Files.deleteIfExists(temporar);
+        }
+    }
+
+    private List<Integer> listeazaSegmente() throws IOException {
+        List<Integer> segmente = new ArrayList<>();
+        try (Stream<Path> fisiere = Files.list(director)) {
+            fisiere.map(p -> p.getFileName().toString())
+                    .filter(nume -> nume.matches("segment-\\d+\\.log"))
+                    .map(nume -> Integer.parseInt(nume.substring(8, nume.length() - 4)))
+                    .sorted()
+                    .forEach(segmente::add);
+        }
+        return segmente;
+    }
+
+    private Path fisierSegment(int segment) {
+        return director.resolve(String.format("segment-%06d.log", segment));
+    }
+
+    private static String valoare(HasID<String> entity) {
+        return entity instanceof HasVersion
+                ? ((HasVersion) entity).getVersiune() + "|" + entity
+                : entity.toString();
+    }
+
+    /**
+     * Inregistrarile scrise inainte de pastrarea versiunii nu au prefixul "versiune|" si sunt citite cu versiunea 0
+     */
+    private E entitate(String id, String valoare) {
+        int separator = valoare.indexOf('|');
+        boolean cuVersiune = separator > 0 && valoare.chars().limit(separator).allMatch(Character::isDigit);
+        E entity = extractEntity(cuVersiune ? valoare.substring(separator + 1) : valoare);
+        entity.setID(id);
+        if (cuVersiune && entity instanceof HasVersion) {
+            ((HasVersion) entity).setVersiune(Long.parseLong(valoare.substring(0, separator)));
+        }
+        return entity;
+    }
+
+    private interface Inregistrare {
+        void accepta(byte op, String id, String valoare);
+    }
+}
@@ -1,10 +1,25 @@
 package org.example.repository;
 
 import org.example.domain.Student;
+import org.example.validation.ConflictVersiuneException;
 import org.example.validation.ValidationException;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 //import javafx.scene.input.DataFormat;
 import org.w3c.dom.Document;
@@ -22,13 +37,25 @@ import javax.xml.transform.stream.StreamResult;
 
 public abstract class AbstractXMLRepository<ID, E extends HasID<ID>> extends AbstractCrudRepository<ID, E> implements FileRepository<ID, E> {
 
+    private static final Object STERS = new Object();
+
     private String filename;
     private DocumentBuilderFactory builderFactory;
+    private WriteBehindWriter writeBehind;
+    private FileChannel canalLock;
+    private FileLock lockExclusiv;
+    private long secventaCunoscuta;
+    private volatile String amprentaCunoscuta;
+    // id-urile modificate in memorie si inca nescrise de writeBehind -> obiectul nou sau STERS
+    private final Map<ID, Object> nescrise = new ConcurrentHashMap<>();
 
     /**
      * Class constructor
+     * Un fisier care exista dar nu poate fi citit opreste deschiderea, in loc sa porneasca cu memoria goala,
+     * pe care prima scriere ar suprascrie-o peste fisier
      *
      * @param filename - numele fisierului
+     * @throws ValidationException daca fisierul exista dar nu poate fi citit (ex. XML invalid)
      */
     AbstractXMLRepository(String filename) {
         this.filename = filename;
@@ -42,6 +69,34 @@ public abstract class AbstractXMLRepository<ID, E extends HasID<ID>> extends Abs
      * Incarca datele din fisier
      */
     public void loadFromFile() {
+        String amprenta = amprentaFisier();
+        resetDuplicate();
+        for (E entity : citesteFisier()) {
+            if (super.save(entity) != null) {
+                inregistreazaDuplicat(entity.getID());
+            }
+        }
+        amprentaCunoscuta = amprenta;
+    }
+
+    /**
+     * @return numele fisierului
+     */
+    public String getFilename() {
+        return filename;
+    }
+
+    /**
+     * Citeste toate obiectele din fisier, fara sa modifice memoria
+     *
+     * @return obiectele, in ordinea din fisier
+     * @throws ValidationException daca fisierul exista dar nu poate fi citit (ex. XML invalid)
+     */
+    protected List<E> citesteFisier() {
+        List<E> entitati = new ArrayList<>();
+        if (!new File(this.filename).exists()) {
+            return entitati;
+        }
         try {
             Document document = DocumentBuilderFactory
                     .newInstance()
@@ -53,14 +108,211 @@ public abstract class AbstractXMLRepository<ID, E extends HasID<ID>> extends Abs
             for (int i = 0; i < children.getLength(); i++) {
                 Node entityElement = children.item(i);
                 if (entityElement.getNodeType() == Node.ELEMENT_NODE) {
-                    E entity = extractEntity((Element) entityElement);
-                    super.save(entity);
+                    entitati.add(extractEntity((Element) entityElement));
                 }
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            // o lista partiala ar sterge din memorie (si apoi din fisier) obiectele necitite
+            throw new ValidationException("Fisierul " + filename + " nu poate fi citit: " + e.getMessage());
+        }
+        return entitati;
+    }
+
+    /**
+     * Aduce memoria la continutul fisierului modificand doar obiectele care difera
+     */
+    protected void reincarca() {
+        aplicaDiferente(citesteFisier());
+    }
+
+    /**
+     * Reincarca fisierul daca a fost modificat de altcineva decat acest repository (ex. editat manual)
+     * Fisierul e citit si comparat cu memoria fara blocare; doar aplicarea diferentelor e sincronizata,
+     * iar fiecare obiect modificat e inlocuit atomic, deci cititorii nu asteapta niciodata
+     * Obiectele cu modificari inca nescrise de writeBehind nu sunt atinse
+     *
+     * @return true daca fisierul a fost reincarcat
+     * @throws ValidationException daca fisierul nu poate fi citit; memoria ramane neschimbata
+     */
+    public boolean reincarcaDacaModificatExtern() {
+        String amprenta = amprentaFisier();
+        if (amprenta == null || amprenta.equals(amprentaCunoscuta)) {
+            return false;
+        }
+        List<E> continut = citesteFisier();
+        return modifica(() -> {
+            synchronized (this) {
+                // intre timp fisierul a fost rescris chiar de acest repository
+                if (!amprenta.equals(amprentaFisier()) || amprenta.equals(amprentaCunoscuta)) {
+                    return false;
+                }
+                aplicaDiferente(continut);
+                amprentaCunoscuta = amprenta;
+                return true;
+            }
+        });
+    }
+
+    private void aplicaDiferente(List<E> continut) {
+        Map<ID, E> noi = new LinkedHashMap<>();
+        for (E entity : continut) {
+            noi.putIfAbsent(entity.getID(), entity);
+        }
+        List<ID> sterse = new ArrayList<>();
+        for (E entity : super.findAll()) {
+            if (!noi.containsKey(entity.getID()) && !nescrise.containsKey(entity.getID())) {
+                sterse.add(entity.getID());
+            }
+        }
+        sterse.forEach(super::delete);
+        for (E entity : noi.values()) {
+            if (nescrise.containsKey(entity.getID())) {
+                continue;
+            }
+            E existent = super.findOne(entity.getID());
+            if (existent == null) {
+                super.save(entity);
+            } else if (!existent.toString().equals(entity.toString()) || versiune(existent) != versiune(entity)) {
+                inlocuieste(entity);
+            }
+        }
+    }
+
+    private static long versiune(Object entity) {
+        return entity instanceof HasVersion ? ((HasVersion) entity).getVersiune() : 0;
+    }
+
+    /**
+     * Citeste versiunea unui obiect din atributul "versiune"
+     *
+     * @param element - elementul XML al obiectului
+     * @return versiunea sau 0 pentru fisierele scrise inainte de versionare
+     */
+    protected long citesteVersiune(Element element) {
+        String versiune = element.getAttribute("versiune");
+        return versiune.isEmpty() ? 0 : Long.parseLong(versiune);
+    }
+
+    /**
+     * @return data ultimei modificari si dimensiunea fisierului, sau null daca fisierul nu exista
+     */
+    private String amprentaFisier() {
+        try {
+            Path path = Path.of(filename);
+            if (!Files.exists(path)) {
+                return null;
+            }
+            return Files.getLastModifiedTime(path).to(TimeUnit.NANOSECONDS) + ":" + Files.size(path);
+        } catch (IOException exception) {
+            return null;
         }
+    }
 
+    /**
+     * Activeaza accesul partajat cu alte procese: fiecare modificare se face sub un lock exclusiv
+     * pe fisierul filename.lock, iar un numar de secventa din acel fisier arata daca datele s-au schimbat
+     * In acest mod fisierul e scris mereu sincron, chiar daca exista un writeBehind
+     */
+    public synchronized void activeazaAccesPartajat() {
+        try {
+            canalLock = FileChannel.open(Path.of(filename + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            secventaCunoscuta = -1;
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+    }
+
+    /**
+     * @param id - id-ul obiectului
+     * @return obiectul cu id-ul respectiv sau null, dupa reincarcarea modificarilor altor procese
+     */
+    @Override
+    public E findOne(ID id) {
+        sincronizeaza();
+        return super.findOne(id);
+    }
+
+    /**
+     * @return toate obiectele, dupa reincarcarea modificarilor altor procese
+     */
+    @Override
+    public Iterable<E> findAll() {
+        sincronizeaza();
+        return super.findAll();
+    }
+
+    /**
+     * Reincarca fisierul doar daca alt proces l-a modificat de la ultima citire
+     */
+    private void sincronizeaza() {
+        if (canalLock == null) {
+            return;
+        }
+        synchronized (this) {
+            if (lockExclusiv != null) {
+                return;
+            }
+            try {
+                FileLock lock = canalLock.lock(0, Long.MAX_VALUE, true);
+                try {
+                    reincarcaDacaModificat();
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException exception) {
+                throw new ValidationException(exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Executa o modificare sub lock-ul exclusiv, dupa ce aduce memoria la zi
+     * Apelurile imbricate ruleaza sub acelasi lock
+     *
+     * @param operatie - modificarea
+     * @return rezultatul modificarii
+     */
+    protected <T> T modifica(Supplier<T> operatie) {
+        if (canalLock == null) {
+            return operatie.get();
+        }
+        synchronized (this) {
+            if (lockExclusiv != null) {
+                return operatie.get();
+            }
+            try (FileLock lock = canalLock.lock()) {
+                lockExclusiv = lock;
+                reincarcaDacaModificat();
+                return operatie.get();
+            } catch (IOException exception) {
+                throw new ValidationException(exception.getMessage());
+            } finally {
+                lockExclusiv = null;
+            }
+        }
+    }
+
+    private void reincarcaDacaModificat() throws IOException {
+        long secventa = citesteSecventa();
+        if (secventa != secventaCunoscuta) {
+            reincarca();
+            secventaCunoscuta = secventa;
+        }
+    }
+
+    private long citesteSecventa() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        if (canalLock.read(buffer, 0) < Long.BYTES) {
+            return 0;
+        }
+        return buffer.flip().getLong();
+    }
+
+    private void scrieSecventa(long secventa) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        buffer.putLong(secventa).flip();
+        canalLock.write(buffer, 0);
     }
 
     /**
@@ -91,20 +343,84 @@ public abstract class AbstractXMLRepository<ID, E extends HasID<ID>> extends Abs
      */
     @Override
     public E save(E entity) {
-        E entity1 = super.save(entity);
-        if (entity1 == null) {
-            //saveToFile(entity);
+        return modifica(() -> {
+            E entity1 = super.save(entity);
+            if (entity1 == null) {
+                marcheazaNescris(entity.getID(), entity);
+                //saveToFile(entity);
+                writeToFile();
+            }
+            return entity1;
+        });
+    }
+
+    /**
+     * Salveaza mai multe obiecte, rescriind fisierul o singura data
+     *
+     * @param entities - obiectele pe care le salveaza
+     * @return obiectele care existau deja in memorie
+     */
+    @Override
+    public List<E> saveAll(Iterable<E> entities) {
+        return modifica(() -> {
+            List<E> existente = new ArrayList<>();
+            for (E entity : entities) {
+                E entity1 = super.save(entity);
+                if (entity1 != null) {
+                    existente.add(entity1);
+                } else {
+                    marcheazaNescris(entity.getID(), entity);
+                }
+            }
             writeToFile();
-        }
+            return existente;
+        });
+    }
 
-        return entity1;
+    /**
+     * Activeaza scrierea asincrona: modificarile raman in memorie, iar fisierul e rescris de writeBehind
+     *
+     * @param writeBehind - scriitorul asincron sau null pentru scriere sincrona
+     */
+    public void setWriteBehind(WriteBehindWriter writeBehind) {
+        this.writeBehind = writeBehind;
     }
 
     /**
-     * Rescrie fisierul cu toate obiectele din memorie
+     * Retine o modificare din memorie care va fi scrisa asincron, ca reincarcarea sa nu o suprascrie
+     *
+     * @param id - id-ul obiectului modificat
+     * @param valoare - obiectul nou sau STERS
      */
+    private void marcheazaNescris(ID id, Object valoare) {
+        if (writeBehind != null && canalLock == null) {
+            nescrise.put(id, valoare);
+        }
+    }
 
+    /**
+     * Rescrie fisierul cu toate obiectele din memorie, imediat sau prin scriitorul asincron
+     */
     public void writeToFile() {
+        if (canalLock != null) {
+            modifica(() -> {
+                scrieFisier();
+                try {
+                    secventaCunoscuta = citesteSecventa() + 1;
+                    scrieSecventa(secventaCunoscuta);
+                } catch (IOException exception) {
+                    throw new ValidationException(exception.getMessage());
+                }
+                return null;
+            });
+        } else if (writeBehind != null) {
+            writeBehind.programeaza(this, this::scrieFisier);
+        } else {
+            scrieFisier();
+        }
+    }
+
+    private synchronized void scrieFisier() {
         try {
             Document document = DocumentBuilderFactory
                     .newInstance()
@@ -112,9 +428,11 @@ public abstract class AbstractXMLRepository<ID, E extends HasID<ID>> extends Abs
                     .newDocument();
             Element root = document.createElement("inbox");
             document.appendChild(root);
+            Map<ID, E> scrise = new HashMap<>();
             super.findAll().forEach(e -> {
                 Element elem = createElementfromEntity(document, e);
                 root.appendChild(elem);
+                scrise.put(e.getID(), e);
             });
 
             //write Document to file
@@ -122,9 +440,16 @@ public abstract class AbstractXMLRepository<ID, E extends HasID<ID>> extends Abs
                     newInstance().newTransformer();
             transformer.transform(new DOMSource(document),
                     new StreamResult(this.filename));
+            amprentaCunoscuta = amprentaFisier();
+            // raman marcate doar modificarile facute dupa ce obiectul a fost parcurs
+            nescrise.forEach((id, valoare) -> {
+                if (valoare == STERS ? !scrise.containsKey(id) : valoare == scrise.get(id)) {
+                    nescrise.remove(id, valoare);
+                }
+            });
 
         } catch (Exception e) {
-            e.printStackTrace();
+            throw new ValidationException("Fisierul " + filename + " nu poate fi scris: " + e.getMessage());
         }
     }
 
@@ -149,11 +474,68 @@ public abstract class AbstractXMLRepository<ID, E extends HasID<ID>> extends Abs
      */
     @Override
     public E delete(ID id) {
-        E entity = super.delete(id);
-        if (entity != null) {
-            writeToFile();
-        }
-        return entity;
+        return modifica(() -> {
+            E entity = super.delete(id);
+            if (entity != null) {
+                marcheazaNescris(id, STERS);
+                writeToFile();
+            }
+            return entity;
+        });
+    }
+
+    /**
+     * Modifica mai multe obiecte, rescriind fisierul o singura data
+     *
+     * @param entities - noile obiecte
+     * @return obiectele nemodificate (inexistente sau modificate intre timp de altcineva)
+     */
+    @Override
+    public List<E> updateAll(Iterable<E> entities) {
+        return modifica(() -> {
+            List<E> nemodificate = new ArrayList<>();
+            boolean modificat = false;
+            for (E entity : entities) {
+                try {
+                    if (super.update(entity) == null) {
+                        marcheazaNescris(entity.getID(), entity);
+                        modificat = true;
+                    } else {
+                        nemodificate.add(entity);
+                    }
+                } catch (ConflictVersiuneException exception) {
+                    nemodificate.add(entity);
+                }
+            }
+            if (modificat) {
+                writeToFile();
+            }
+            return nemodificate;
+        });
+    }
+
+    /**
+     * Sterge mai multe obiecte, rescriind fisierul o singura data
+     *
+     * @param ids - id-urile obiectelor
+     * @return obiectele sterse
+     */
+    @Override
+    public List<E> deleteAll(Iterable<ID> ids) {
+        return modifica(() -> {
+            List<E> sterse = new ArrayList<>();
+            for (ID id : ids) {
+                E entity = super.delete(id);
+                if (entity != null) {
+                    marcheazaNescris(id, STERS);
+                    sterse.add(entity);
+                }
+            }
+            if (!sterse.isEmpty()) {
+                writeToFile();
+            }
+            return sterse;
+        });
     }
 
     /**
@@ -164,10 +546,13 @@ public abstract class AbstractXMLRepository<ID, E extends HasID<ID>> extends Abs
      */
     @Override
     public E update(E entity) {
-        E entity1 = super.update(entity);
-        if (entity == null) {
-            writeToFile();
-        }
-        return entity1;
+        return modifica(() -> {
+            E entity1 = super.update(entity);
+            if (entity1 == null) {
+                marcheazaNescris(entity.getID(), entity);
+                writeToFile();
+            }
+            return entity1;
+        });
     }
 }
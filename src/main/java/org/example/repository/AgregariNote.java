@@ -0,0 +1,20 @@
+package org.example.repository;
+
+import java.util.Map;
+
+/**
+ * Repository de note care poate calcula singur mediile (ex. cu GROUP BY in baza de date),
+ * fara sa transfere toate notele
+ */
+public interface AgregariNote {
+
+    /**
+     * @return media notelor fiecarui student, dupa id-ul studentului
+     */
+    Map<String, Double> mediiPeStudent();
+
+    /**
+     * @return media notelor fiecarei teme, dupa id-ul temei
+     */
+    Map<String, Double> mediiPeTema();
+}
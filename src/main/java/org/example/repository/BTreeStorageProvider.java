@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import java.util.Properties;
+
+/**
+ * Backend "btree": fisiere binare cu pagini de dimensiune fixa, citite la nevoie (StudentBTreeRepo, ...)
+ */
+public class BTreeStorageProvider implements StorageProvider {
+
+    @Override
+    public String getNume() {
+        return "btree";
+    }
+
+    @Override
+    public Stocare deschide(Properties configurare) {
+        StudentBTreeRepo studenti = new StudentBTreeRepo(configurare.getProperty("stocare.studenti", "./fisiere/Studenti.btree"));
+        TemaBTreeRepo teme = new TemaBTreeRepo(configurare.getProperty("stocare.teme", "./fisiere/Teme.btree"));
+        NotaBTreeRepo note = new NotaBTreeRepo(configurare.getProperty("stocare.note", "./fisiere/Note.btree"));
+        return new Stocare(studenti, teme, note)
+                .inchideLaFinal(studenti)
+                .inchideLaFinal(teme)
+                .inchideLaFinal(note);
+    }
+}
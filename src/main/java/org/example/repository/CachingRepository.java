@@ -0,0 +1,376 @@
+package org.example.repository;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Decorator cu cache marginit peste un CrudRepository
+ * Citirile (findOne) trec prin cache; cache-ul e inregistrat ca index in repository-ul decorat,
+ * deci orice modificare (inclusiv o reincarcare a fisierului) invalideaza intrarea din cache
+ * @param <ID> - tipul id-ului
+ * @param <E> - tipul entitatilor
+ */
+public class CachingRepository<ID, E extends HasID<ID>> implements CrudRepository<ID, E> {
+
+    /**
+     * Politica de evictie a cache-ului
+     */
+    public enum Politica {
+        LRU,
+        TINY_LFU
+    }
+
+    private final CrudRepository<ID, E> repository;
+    private final Politica politica;
+    private final long capacitate;
+    private final ToIntFunction<E> greutate;
+
+    private final LinkedHashMap<ID, E> fereastra;
+    private final LinkedHashMap<ID, E> principal;
+    private final SchitaFrecventa schita;
+    private final long capacitateFereastra;
+    private long greutateFereastra;
+    private long greutatePrincipal;
+    private long invalidari;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictii = new AtomicLong();
+
+    /**
+     * Class constructor - cache marginit dupa numarul de entitati
+     * @param repository - repository-ul decorat
+     * @param politica - politica de evictie
+     * @param capacitate - numarul maxim de entitati din cache
+     */
+    public CachingRepository(CrudRepository<ID, E> repository, Politica politica, long capacitate) {
+        this(repository, politica, capacitate, e -> 1);
+    }
+
+    /**
+     * Class constructor - cache marginit dupa greutatea entitatilor
+     * @param repository - repository-ul decorat
+     * @param politica - politica de evictie
+     * @param capacitate - greutatea maxima a entitatilor din cache
+     * @param greutate - functia care calculeaza greutatea unei entitati
+     */
+    public CachingRepository(CrudRepository<ID, E> repository, Politica politica, long capacitate, ToIntFunction<E> greutate) {
+        if (capacitate <= 0) {
+            throw new IllegalArgumentException("Capacitatea cache-ului trebuie sa fie pozitiva!");
+        }
+        this.repository = repository;
+        this.politica = politica;
+        this.capacitate = capacitate;
+        this.greutate = greutate;
+        this.fereastra = new LinkedHashMap<>(16, 0.75f, true);
+        this.principal = new LinkedHashMap<>(16, 0.75f, true);
+        if (politica == Politica.TINY_LFU) {
+            this.capacitateFereastra = Math.max(1, capacitate / 100);
+            this.schita = new SchitaFrecventa(capacitate);
+        } else {
+            this.capacitateFereastra = capacitate;
+            this.schita = null;
+        }
+        repository.adaugaIndex(new Index<>() {
+            @Override
+            public void adauga(E entity) {
+                invalideaza(entity.getID());
+            }
+
+            @Override
+            public void sterge(E entity) {
+                invalideaza(entity.getID());
+            }
+        });
+    }
+
+    /**
+     * Cauta un obiect mai intai in cache, apoi in repository-ul decorat
+     * Repository-ul decorat e apelat in afara lock-ului cache-ului; rezultatul intra in cache
+     * doar daca intre timp nu a fost invalidat niciun obiect, altfel ar putea fi deja vechi
+     * @param id - id-ul obiectului
+     * @return obiectul sau null daca nu exista
+     */
+    @Override
+    public E findOne(ID id) {
+        long generatie;
+        synchronized (this) {
+            if (schita != null) {
+                schita.incrementeaza(id);
+            }
+            E entity = fereastra.get(id);
+            if (entity == null) {
+                entity = principal.get(id);
+            }
+            if (entity != null) {
+                hits.incrementAndGet();
+                return entity;
+            }
+            generatie = invalidari;
+        }
+        misses.incrementAndGet();
+        E entity = repository.findOne(id);
+        if (entity != null) {
+            synchronized (this) {
+                if (generatie == invalidari) {
+                    adaugaInCache(id, entity);
+                }
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * @return toate obiectele din repository-ul decorat
+     */
+    @Override
+    public Iterable<E> findAll() {
+        return repository.findAll();
+    }
+
+    /**
+     * Inregistreaza indexul in repository-ul decorat, prin care trec toate modificarile
+     * @param index - indexul
+     * @return indexul inregistrat
+     */
+    @Override
+    public <I extends Index<ID, E>> I adaugaIndex(I index) {
+        return repository.adaugaIndex(index);
+    }
+
+    /**
+     * Salveaza un obiect; intrarea din cache e invalidata de repository-ul decorat
+     * @param entity - obiectul pe care il salveaza
+     * @return null daca obiectul a fost salvat sau obiectul daca acesta exista deja
+     */
+    @Override
+    public E save(E entity) {
+        return repository.save(entity);
+    }
+
+    /**
+     * Salveaza mai multe obiecte prin operatia multipla a repository-ului decorat
+     * @param entities - obiectele pe care le salveaza
+     * @return obiectele care existau deja
+     */
+    @Override
+    public List<E> saveAll(Iterable<E> entities) {
+        return repository.saveAll(entities);
+    }
+
+    /**
+     * Sterge un obiect; intrarea din cache e invalidata de repository-ul decorat
+     * @param id - id-ul obiectului
+     * @return obiectul sters sau null daca acesta nu exista
+     */
+    @Override
+    public E delete(ID id) {
+        return repository.delete(id);
+    }
+
+    /**
+     * Sterge mai multe obiecte prin operatia multipla a repository-ului decorat
+     * @param ids - id-urile obiectelor
+     * @return obiectele sterse
+     */
+    @Override
+    public List<E> deleteAll(Iterable<ID> ids) {
+        return repository.deleteAll(ids);
+    }
+
+    /**
+     * Modifica un obiect; intrarea din cache e invalidata de repository-ul decorat
+     * @param entity - noul obiect
+     * @return null daca obiectul a fost modificat sau obiectul daca acesta nu exista
+     */
+    @Override
+    public E update(E entity) {
+        return repository.update(entity);
+    }
+
+    /**
+     * Modifica mai multe obiecte prin operatia multipla a repository-ului decorat
+     * @param entities - noile obiecte
+     * @return obiectele nemodificate
+     */
+    @Override
+    public List<E> updateAll(Iterable<E> entities) {
+        return repository.updateAll(entities);
+    }
+
+    /**
+     * Scoate un obiect din cache
+     * @param id - id-ul obiectului
+     */
+    public synchronized void invalideaza(ID id) {
+        invalidari++;
+        E entity = fereastra.remove(id);
+        if (entity != null) {
+            greutateFereastra -= greutate.applyAsInt(entity);
+        }
+        entity = principal.remove(id);
+        if (entity != null) {
+            greutatePrincipal -= greutate.applyAsInt(entity);
+        }
+    }
+
+    /**
+     * @return numarul de cautari servite din cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return numarul de cautari care au ajuns la repository-ul decorat
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return numarul de entitati scoase din cache din lipsa de spatiu
+     */
+    public long getEvictii() {
+        return evictii.get();
+    }
+
+    /**
+     * @return procentul de cautari servite din cache, intre 0 si 1
+     */
+    public double getRataSucces() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    /**
+     * @return numarul de entitati din cache
+     */
+    public synchronized int size() {
+        return fereastra.size() + principal.size();
+    }
+
+    private void adaugaInCache(ID id, E entity) {
+        int g = greutate.applyAsInt(entity);
+        if (g > capacitate) {
+            return;
+        }
+        fereastra.put(id, entity);
+        greutateFereastra += g;
+        if (politica == Politica.LRU) {
+            evictieLRU();
+        } else {
+            evictieTinyLFU();
+        }
+    }
+
+    private void evictieLRU() {
+        Iterator<Map.Entry<ID, E>> it = fereastra.entrySet().iterator();
+        while (greutateFereastra > capacitate && it.hasNext()) {
+            E victima = it.next().getValue();
+            it.remove();
+            greutateFereastra -= greutate.applyAsInt(victima);
+            evictii.incrementAndGet();
+        }
+    }
+
+    /**
+     * Intrarile noi stau intr-o fereastra LRU mica; la iesirea din fereastra
+     * candidatul intra in zona principala doar daca e mai frecvent decat victima
+     */
+    private void evictieTinyLFU() {
+        Iterator<Map.Entry<ID, E>> it = fereastra.entrySet().iterator();
+        while (greutateFereastra > capacitateFereastra && it.hasNext()) {
+            Map.Entry<ID, E> candidat = it.next();
+            it.remove();
+            int g = greutate.applyAsInt(candidat.getValue());
+            greutateFereastra -= g;
+            admite(candidat.getKey(), candidat.getValue(), g);
+        }
+    }
+
+    private void admite(ID id, E entity, int g) {
+        long capacitatePrincipal = capacitate - capacitateFereastra;
+        int frecventaCandidat = schita.frecventa(id);
+        Iterator<Map.Entry<ID, E>> it = principal.entrySet().iterator();
+        while (greutatePrincipal + g > capacitatePrincipal && it.hasNext()) {
+            Map.Entry<ID, E> victima = it.next();
+            if (frecventaCandidat <= schita.frecventa(victima.getKey())) {
+                evictii.incrementAndGet();
+                return;
+            }
+            it.remove();
+            greutatePrincipal -= greutate.applyAsInt(victima.getValue());
+            evictii.incrementAndGet();
+        }
+        if (greutatePrincipal + g > capacitatePrincipal) {
+            evictii.incrementAndGet();
+            return;
+        }
+        principal.put(id, entity);
+        greutatePrincipal += g;
+    }
+
+    /**
+     * Count-min sketch cu contoare saturate la 15, injumatatite periodic
+     * ca frecventele vechi sa nu domine admiterea
+     */
+    private static final class SchitaFrecventa {
+        private static final int RANDURI = 4;
+        private static final int MAXIM = 15;
+        private static final int[] SEMINTE = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final int[][] contoare;
+        private final int masca;
+        private final int pragInjumatatire;
+        private int adaugari;
+
+        SchitaFrecventa(long capacitate) {
+            int latime = Integer.highestOneBit((int) Math.min(Math.max(capacitate, 16), 1 << 24) - 1) << 1;
+            this.contoare = new int[RANDURI][latime];
+            this.masca = latime - 1;
+            this.pragInjumatatire = latime * 10;
+        }
+
+        void incrementeaza(Object cheie) {
+            int h = cheie.hashCode();
+            for (int i = 0; i < RANDURI; i++) {
+                int index = pozitie(h, i);
+                if (contoare[i][index] < MAXIM) {
+                    contoare[i][index]++;
+                }
+            }
+            if (++adaugari >= pragInjumatatire) {
+                injumatateste();
+            }
+        }
+
+        int frecventa(Object cheie) {
+            int h = cheie.hashCode();
+            int minim = MAXIM;
+            for (int i = 0; i < RANDURI; i++) {
+                minim = Math.min(minim, contoare[i][pozitie(h, i)]);
+            }
+            return minim;
+        }
+
+        private int pozitie(int h, int rand) {
+            int x = h * SEMINTE[rand];
+            x ^= x >>> 16;
+            return x & masca;
+        }
+
+        private void injumatateste() {
+            for (int[] rand : contoare) {
+                for (int i = 0; i < rand.length; i++) {
+                    rand[i] >>>= 1;
+                }
+            }
+            adaugari /= 2;
+        }
+    }
+}
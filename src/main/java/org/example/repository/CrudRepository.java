@@ -1,12 +1,16 @@
 package org.example.repository;
+import org.example.validation.ConflictVersiuneException;
 import org.example.validation.ValidationException;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * CRUD operations repository interface
  * @param <ID> - type E must have an attribute of type ID
  * @param <E> - type of entities saved in repository
  */
-public interface CrudRepository<ID, E> {
+public interface CrudRepository<ID, E extends HasID<ID>> {
     /**
      *
      * @param id -the id of the entity to be returned
@@ -55,4 +59,65 @@ public interface CrudRepository<ID, E> {
      * if the entity is not valid.
      */
     E update(E entity);
-}
\ No newline at end of file
+    /**
+     * registers a secondary index; the index receives the existing entities and then every change
+     * @param index
+     * index must not be null
+     * @return the registered index
+     */
+    <I extends Index<ID, E>> I adaugaIndex(I index);
+    /**
+     * saves several entities at once
+     * @param entities
+     * entities must not be null
+     * @return the entities that were not saved because their id already exists
+     * @throws ValidationException
+     * if an entity is not valid
+     */
+    default List<E> saveAll(Iterable<E> entities) {
+        List<E> existente = new ArrayList<>();
+        for (E entity : entities) {
+            E e = save(entity);
+            if (e != null) {
+                existente.add(e);
+            }
+        }
+        return existente;
+    }
+    /**
+     * updates several entities at once
+     * @param entities
+     * entities must not be null
+     * @return the entities that were not updated (id does not exist or the entity was changed meanwhile)
+     */
+    default List<E> updateAll(Iterable<E> entities) {
+        List<E> nemodificate = new ArrayList<>();
+        for (E entity : entities) {
+            try {
+                E e = update(entity);
+                if (e != null) {
+                    nemodificate.add(e);
+                }
+            } catch (ConflictVersiuneException exception) {
+                nemodificate.add(entity);
+            }
+        }
+        return nemodificate;
+    }
+    /**
+     * removes several entities at once
+     * @param ids
+     * ids must not be null
+     * @return the removed entities
+     */
+    default List<E> deleteAll(Iterable<ID> ids) {
+        List<E> sterse = new ArrayList<>();
+        for (ID id : ids) {
+            E e = delete(id);
+            if (e != null) {
+                sterse.add(e);
+            }
+        }
+        return sterse;
+    }
+}
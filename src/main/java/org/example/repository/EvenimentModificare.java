@@ -0,0 +1,81 @@
+package org.example.repository;
+
+/**
+ * O modificare a unui repository: entitatea dinainte si de dupa modificare
+ * Secventa creste strict, deci un abonat poate detecta evenimentele pierdute
+ * @param <ID> - tipul id-ului
+ * @param <E> - tipul entitatilor
+ */
+public class EvenimentModificare<ID, E> {
+
+    /**
+     * Tipul modificarii
+     */
+    public enum Tip {
+        CREAT,
+        MODIFICAT,
+        STERS
+    }
+
+    private final long secventa;
+    private final Tip tip;
+    private final ID id;
+    private final E inainte;
+    private final E dupa;
+
+    /**
+     * Class constructor
+     * @param secventa - numarul de ordine al evenimentului
+     * @param tip - tipul modificarii
+     * @param id - id-ul entitatii modificate
+     * @param inainte - entitatea inainte de modificare, null la creare
+     * @param dupa - entitatea dupa modificare, null la stergere
+     */
+    public EvenimentModificare(long secventa, Tip tip, ID id, E inainte, E dupa) {
+        this.secventa = secventa;
+        this.tip = tip;
+        this.id = id;
+        this.inainte = inainte;
+        this.dupa = dupa;
+    }
+
+    /**
+     * @return numarul de ordine al evenimentului
+     */
+    public long getSecventa() {
+        return secventa;
+    }
+
+    /**
+     * @return tipul modificarii
+     */
+    public Tip getTip() {
+        return tip;
+    }
+
+    /**
+     * @return id-ul entitatii modificate
+     */
+    public ID getId() {
+        return id;
+    }
+
+    /**
+     * @return entitatea inainte de modificare, null la creare
+     */
+    public E getInainte() {
+        return inainte;
+    }
+
+    /**
+     * @return entitatea dupa modificare, null la stergere
+     */
+    public E getDupa() {
+        return dupa;
+    }
+
+    @Override
+    public String toString() {
+        return secventa + "," + tip + "," + id;
+    }
+}
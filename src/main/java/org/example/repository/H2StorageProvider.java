@@ -0,0 +1,26 @@
+package org.example.repository;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.util.Properties;
+
+/**
+ * Backend "h2": baza de date H2 embedded, in acelasi proces (StudentJdbcRepo, ...)
+ * Chei proprii: "h2.url" (implicit un fisier in ./fisiere), "h2.conexiuni" (dimensiunea pool-ului)
+ */
+public class H2StorageProvider implements StorageProvider {
+
+    @Override
+    public String getNume() {
+        return "h2";
+    }
+
+    @Override
+    public Stocare deschide(Properties configurare) {
+        JdbcConnectionPool pool = JdbcConnectionPool.create(
+                configurare.getProperty("h2.url", "jdbc:h2:./fisiere/catalog"), "sa", "");
+        pool.setMaxConnections(Integer.parseInt(configurare.getProperty("h2.conexiuni", "8")));
+        return new Stocare(new StudentJdbcRepo(pool), new TemaJdbcRepo(pool), new NotaJdbcRepo(pool))
+                .inchideLaFinal(pool::dispose);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.repository;
+
+public interface HasVersion {
+
+    /**
+     *
+     * @return versiunea obiectului, incrementata la fiecare modificare salvata
+     */
+    long getVersiune();
+
+    /**
+     * Modifica versiunea unui obiect
+     * @param versiune - noua versiune
+     */
+    void setVersiune(long versiune);
+}
@@ -0,0 +1,30 @@
+package org.example.repository;
+
+/**
+ * Index secundar tinut la zi de repository la fiecare modificare
+ * @param <ID> - tipul id-ului
+ * @param <E> - tipul entitatilor
+ */
+public interface Index<ID, E extends HasID<ID>> {
+    /**
+     * Adauga un obiect in index
+     * @param entity - obiectul adaugat in repository
+     */
+    void adauga(E entity);
+
+    /**
+     * Scoate un obiect din index
+     * @param entity - obiectul scos din repository
+     */
+    void sterge(E entity);
+
+    /**
+     * Inlocuieste un obiect cu noua lui valoare
+     * @param inainte - obiectul vechi
+     * @param dupa - obiectul nou, cu acelasi id
+     */
+    default void actualizeaza(E inainte, E dupa) {
+        sterge(inainte);
+        adauga(dupa);
+    }
+}
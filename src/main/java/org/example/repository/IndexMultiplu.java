@@ -0,0 +1,73 @@
+package org.example.repository;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Index care asociaza unei chei (ex. id-ul studentului unei note) id-urile tuturor obiectelor cu acea cheie
+ * Folosit ca index de referinte inverse: gaseste obiectele care refera o entitate fara sa parcurga repository-ul
+ * @param <K> - tipul cheii
+ * @param <ID> - tipul id-ului
+ * @param <E> - tipul entitatilor
+ */
+public class IndexMultiplu<K, ID, E extends HasID<ID>> implements Index<ID, E> {
+
+    private final Function<E, K> cheie;
+    private final Map<K, Set<ID>> intrari = new ConcurrentHashMap<>();
+
+    /**
+     * Class constructor
+     * @param cheie - extrage cheia unui obiect; obiectele cu cheia null nu sunt indexate
+     */
+    public IndexMultiplu(Function<E, K> cheie) {
+        this.cheie = cheie;
+    }
+
+    /**
+     * @param entity - obiectul
+     * @return cheia dupa care e indexat obiectul
+     */
+    public K cheie(E entity) {
+        return cheie.apply(entity);
+    }
+
+    @Override
+    public void adauga(E entity) {
+        K k = cheie.apply(entity);
+        if (k != null) {
+            intrari.computeIfAbsent(k, x -> ConcurrentHashMap.newKeySet()).add(entity.getID());
+        }
+    }
+
+    @Override
+    public void sterge(E entity) {
+        K k = cheie.apply(entity);
+        if (k != null) {
+            intrari.computeIfPresent(k, (x, ids) -> {
+                ids.remove(entity.getID());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * @param k - cheia cautata
+     * @return id-urile obiectelor cu cheia respectiva (copie), multimea vida daca nu exista
+     */
+    public Set<ID> cauta(K k) {
+        Set<ID> ids = intrari.get(k);
+        return ids == null ? Collections.emptySet() : Set.copyOf(ids);
+    }
+
+    /**
+     * @param k - cheia cautata
+     * @return numarul de obiecte cu cheia respectiva
+     */
+    public int numar(K k) {
+        Set<ID> ids = intrari.get(k);
+        return ids == null ? 0 : ids.size();
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Index care tine id-urile obiectelor sortate dupa o cheie (la chei egale, dupa id)
+ * Permite parcurgerea in ordine pornind de la orice pozitie, fara sa sorteze tot repository-ul
+ * @param <K> - tipul cheii
+ * @param <ID> - tipul id-ului
+ * @param <E> - tipul entitatilor
+ */
+public class IndexOrdonat<K extends Comparable<? super K>, ID, E extends HasID<ID>> implements Index<ID, E> {
+
+    private final Function<E, K> cheie;
+    private final ConcurrentSkipListMap<Intrare<K>, ID> intrari = new ConcurrentSkipListMap<>();
+
+    /**
+     * Class constructor
+     * @param cheie - extrage cheia unui obiect; obiectele cu cheia null nu sunt indexate
+     */
+    public IndexOrdonat(Function<E, K> cheie) {
+        this.cheie = cheie;
+    }
+
+    /**
+     * @param entity - obiectul
+     * @return cheia dupa care e sortat obiectul
+     */
+    public K cheie(E entity) {
+        return cheie.apply(entity);
+    }
+
+    @Override
+    public void adauga(E entity) {
+        K k = cheie.apply(entity);
+        if (k != null) {
+            intrari.put(new Intrare<>(k, String.valueOf(entity.getID())), entity.getID());
+        }
+    }
+
+    @Override
+    public void sterge(E entity) {
+        K k = cheie.apply(entity);
+        if (k != null) {
+            intrari.remove(new Intrare<>(k, String.valueOf(entity.getID())));
+        }
+    }
+
+    /**
+     * Parcurge id-urile in ordinea cheilor, incepand imediat dupa pozitia data
+     * @param dupaCheie - cheia ultimului obiect deja parcurs sau null pentru a incepe de la capat
+     * @param dupaId - id-ul ultimului obiect deja parcurs
+     * @param descrescator - true pentru ordinea inversa
+     * @return id-urile, in ordine
+     */
+    public Iterator<ID> parcurge(K dupaCheie, String dupaId, boolean descrescator) {
+        NavigableMap<Intrare<K>, ID> ordine = descrescator ? intrari.descendingMap() : intrari;
+        if (dupaCheie != null) {
+            ordine = ordine.tailMap(new Intrare<>(dupaCheie, dupaId), false);
+        }
+        return ordine.values().iterator();
+    }
+
+    /**
+     * Parcurge id-urile in ordinea cheilor, incepand cu primul obiect cu cheia mai mare sau egala cu cea data
+     * @param cheie - cheia de start
+     * @return id-urile, in ordine
+     */
+    public Iterator<ID> parcurgeDeLa(K cheie) {
+        return intrari.tailMap(new Intrare<>(cheie, ""), true).values().iterator();
+    }
+
+    /**
+     * Returneaza id-urile obiectelor cu cheia intre doua valori, in ordinea cheilor
+     * Costul este O(log n + k), k fiind numarul de obiecte gasite
+     * @param de - cheia minima (inclusiv)
+     * @param pana - cheia maxima (inclusiv)
+     * @return id-urile gasite (vedere asupra indexului, nu copie)
+     */
+    public Collection<ID> interval(K de, K pana) {
+        if (de.compareTo(pana) > 0) {
+            return Collections.emptyList();
+        }
+        return intrari.subMap(new Intrare<>(de, ""), true, new Intrare<>(pana, null), true).values();
+    }
+
+    /**
+     * @return numarul de obiecte indexate
+     */
+    public int dimensiune() {
+        return intrari.size();
+    }
+
+    private static final class Intrare<K extends Comparable<? super K>> implements Comparable<Intrare<K>> {
+        final K cheie;
+        // null inseamna dupa toate id-urile cu aceeasi cheie, folosit doar ca limita de interval
+        final String id;
+
+        Intrare(K cheie, String id) {
+            this.cheie = cheie;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Intrare<K> other) {
+            int rezultat = cheie.compareTo(other.cheie);
+            if (rezultat != 0 || Objects.equals(id, other.id)) {
+                return rezultat;
+            }
+            if (id == null || other.id == null) {
+                return id == null ? 1 : -1;
+            }
+            return id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Intrare<?> other && cheie.equals(other.cheie) && Objects.equals(id, other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cheie, id);
+        }
+    }
+}
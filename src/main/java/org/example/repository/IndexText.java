@@ -0,0 +1,158 @@
+package org.example.repository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Index pentru cautarea dupa text (ex. numele studentului), fara diferente de majuscule si diacritice
+ * Cautarea dupa prefix parcurge un skip list sortat dupa textul normalizat; cautarea dupa subsir
+ * foloseste un index de trigrame si verifica doar obiectele care contin toate trigramele cautate
+ * @param <ID> - tipul id-ului
+ * @param <E> - tipul entitatilor
+ */
+public class IndexText<ID, E extends HasID<ID>> implements Index<ID, E> {
+
+    private static final int N = 3;
+
+    private final Function<E, String> text;
+    private final IndexOrdonat<String, ID, E> ordonat;
+    private final Map<ID, String> normalizate = new ConcurrentHashMap<>();
+    private final Map<String, Set<ID>> trigrame = new ConcurrentHashMap<>();
+
+    /**
+     * Class constructor
+     * @param text - extrage textul indexat; obiectele cu textul null nu sunt indexate
+     */
+    public IndexText(Function<E, String> text) {
+        this.text = text;
+        this.ordonat = new IndexOrdonat<>(e -> normalizeaza(text.apply(e)));
+    }
+
+    /**
+     * Aduce un text la forma folosita la comparare: litere mici, fara diacritice
+     * @param text - textul
+     * @return textul normalizat sau null daca textul e null
+     */
+    public static String normalizeaza(String text) {
+        if (text == null) {
+            return null;
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void adauga(E entity) {
+        String normalizat = normalizeaza(text.apply(entity));
+        if (normalizat == null) {
+            return;
+        }
+        ordonat.adauga(entity);
+        normalizate.put(entity.getID(), normalizat);
+        for (String trigrama : trigrame(normalizat)) {
+            trigrame.computeIfAbsent(trigrama, x -> ConcurrentHashMap.newKeySet()).add(entity.getID());
+        }
+    }
+
+    @Override
+    public void sterge(E entity) {
+        String normalizat = normalizeaza(text.apply(entity));
+        if (normalizat == null) {
+            return;
+        }
+        ordonat.sterge(entity);
+        normalizate.remove(entity.getID(), normalizat);
+        for (String trigrama : trigrame(normalizat)) {
+            trigrame.computeIfPresent(trigrama, (x, ids) -> {
+                ids.remove(entity.getID());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Cauta obiectele al caror text incepe cu prefixul dat
+     * @param prefix - prefixul
+     * @param k - numarul maxim de rezultate
+     * @return id-urile primelor k obiecte, in ordinea textului
+     */
+    public List<ID> cautaPrefix(String prefix, int k) {
+        String cautat = normalizeaza(prefix);
+        List<ID> rezultat = new ArrayList<>();
+        Iterator<ID> ids = ordonat.parcurgeDeLa(cautat);
+        while (ids.hasNext() && rezultat.size() < k) {
+            ID id = ids.next();
+            String normalizat = normalizate.get(id);
+            if (normalizat == null) {
+                continue;
+            }
+            if (!normalizat.startsWith(cautat)) {
+                break;
+            }
+            rezultat.add(id);
+        }
+        return rezultat;
+    }
+
+    /**
+     * Cauta obiectele al caror text contine subsirul dat
+     * @param subsir - subsirul
+     * @param k - numarul maxim de rezultate
+     * @return id-urile primelor k obiecte, in ordinea textului
+     */
+    public List<ID> cautaSubsir(String subsir, int k) {
+        String cautat = normalizeaza(subsir);
+        Iterable<ID> candidati = cautat.length() < N ? normalizate.keySet() : candidati(cautat);
+        Comparator<ID> ordine = Comparator.<ID, String>comparing(id -> normalizate.getOrDefault(id, ""))
+                .thenComparing(String::valueOf);
+        PriorityQueue<ID> primele = new PriorityQueue<>(ordine.reversed());
+        for (ID id : candidati) {
+            String normalizat = normalizate.get(id);
+            if (normalizat != null && normalizat.contains(cautat)) {
+                primele.add(id);
+                if (primele.size() > k) {
+                    primele.poll();
+                }
+            }
+        }
+        List<ID> rezultat = new ArrayList<>(primele);
+        rezultat.sort(ordine);
+        return rezultat;
+    }
+
+    /**
+     * @return id-urile din cea mai mica lista de trigrame a textului cautat
+     */
+    private Set<ID> candidati(String cautat) {
+        Set<ID> minim = null;
+        for (String trigrama : trigrame(cautat)) {
+            Set<ID> ids = trigrame.get(trigrama);
+            if (ids == null) {
+                return Set.of();
+            }
+            if (minim == null || ids.size() < minim.size()) {
+                minim = ids;
+            }
+        }
+        return minim;
+    }
+
+    private static Set<String> trigrame(String text) {
+        Set<String> rezultat = new HashSet<>();
+        for (int i = 0; i + N <= text.length(); i++) {
+            rezultat.add(text.substring(i, i + N));
+        }
+        return rezultat;
+    }
+}
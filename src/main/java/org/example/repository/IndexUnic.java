@@ -0,0 +1,143 @@
+package org.example.repository;
+
+import org.example.validation.ValidationException;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Index cu chei unice (ex. emailul studentului): fiecarei chei ii corespunde cel mult un obiect
+ * Unicitatea se verifica prin rezerva inainte de modificare; rezervarea e un putIfAbsent atomic,
+ * deci doua salvari concurente cu aceeasi cheie nu pot reusi amandoua
+ * Obiectele incarcate din fisier cu o cheie deja folosita sunt retinute separat; cand titularul cheii
+ * dispare, unul dintre ele devine titular, ca cheia sa nu poata fi rezervata cat timp mai e folosita
+ * @param <K> - tipul cheii
+ * @param <ID> - tipul id-ului
+ * @param <E> - tipul entitatilor
+ */
+public class IndexUnic<K, ID, E extends HasID<ID>> implements Index<ID, E> {
+
+    private final Function<E, K> cheie;
+    private final String mesaj;
+    private final Map<K, ID> intrari = new ConcurrentHashMap<>();
+    // ceilalti detinatori ai unei chei; modificati doar in compute pe cheia respectiva din intrari
+    private final Map<K, Set<ID>> altiDetinatori = new ConcurrentHashMap<>();
+
+    /**
+     * Class constructor
+     * @param cheie - extrage cheia (deja normalizata) a unui obiect; obiectele cu cheia null nu sunt indexate
+     * @param mesaj - mesajul erorii cand cheia e deja folosita
+     */
+    public IndexUnic(Function<E, K> cheie, String mesaj) {
+        this.cheie = cheie;
+        this.mesaj = mesaj;
+    }
+
+    /**
+     * Rezerva cheia unui obiect inainte de salvare sau modificare
+     * @param entity - obiectul
+     * @return true daca cheia a fost rezervata acum, false daca era deja a acestui obiect
+     * @throws ValidationException daca cheia apartine altui obiect
+     */
+    public boolean rezerva(E entity) {
+        K k = cheie.apply(entity);
+        if (k == null) {
+            return false;
+        }
+        ID existent = intrari.putIfAbsent(k, entity.getID());
+        if (existent == null) {
+            return true;
+        }
+        if (existent.equals(entity.getID())) {
+            return false;
+        }
+        throw new ValidationException(mesaj);
+    }
+
+    /**
+     * Anuleaza o rezervare facuta pentru o modificare care nu a reusit
+     * @param entity - obiectul pentru care s-a facut rezervarea
+     */
+    public void elibereaza(E entity) {
+        K k = cheie.apply(entity);
+        if (k != null) {
+            intrari.remove(k, entity.getID());
+        }
+    }
+
+    /**
+     * @param k - cheia cautata
+     * @return id-ul obiectului cu cheia respectiva sau null
+     */
+    public ID cauta(K k) {
+        return k == null ? null : intrari.get(k);
+    }
+
+    /**
+     * Adauga un obiect; daca cheia apartine deja altui obiect (date vechi, incarcate din fisier),
+     * primul ramane titular, iar acesta e retinut printre ceilalti detinatori
+     * @param entity - obiectul adaugat in repository
+     */
+    @Override
+    public void adauga(E entity) {
+        K k = cheie.apply(entity);
+        if (k == null) {
+            return;
+        }
+        ID id = entity.getID();
+        intrari.compute(k, (c, titular) -> {
+            if (titular == null || titular.equals(id)) {
+                return id;
+            }
+            altiDetinatori.computeIfAbsent(c, x -> ConcurrentHashMap.newKeySet()).add(id);
+            return titular;
+        });
+    }
+
+    /**
+     * Scoate un obiect; daca era titularul cheii, unul dintre ceilalti detinatori ii ia locul
+     * @param entity - obiectul scos din repository
+     */
+    @Override
+    public void sterge(E entity) {
+        K k = cheie.apply(entity);
+        if (k == null) {
+            return;
+        }
+        ID id = entity.getID();
+        intrari.compute(k, (c, titular) -> {
+            Set<ID> altii = altiDetinatori.get(c);
+            if (titular == null || !titular.equals(id)) {
+                if (altii != null && altii.remove(id) && altii.isEmpty()) {
+                    altiDetinatori.remove(c);
+                }
+                return titular;
+            }
+            if (altii == null) {
+                return null;
+            }
+            Iterator<ID> it = altii.iterator();
+            ID urmator = it.next();
+            it.remove();
+            if (altii.isEmpty()) {
+                altiDetinatori.remove(c);
+            }
+            return urmator;
+        });
+    }
+
+    /**
+     * Daca cheia nu s-a schimbat, intrarea ramane neatinsa, ca nimeni sa nu o poata rezerva intre timp
+     */
+    @Override
+    public void actualizeaza(E inainte, E dupa) {
+        if (Objects.equals(cheie.apply(inainte), cheie.apply(dupa))) {
+            return;
+        }
+        Index.super.actualizeaza(inainte, dupa);
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Interogare asupra unui repository: filtru, ordine, deplasament, limita si paginare cu cursor
+ * Daca ordinea vine dintr-un IndexOrdonat, obiectele sunt citite in ordinea indexului si parcurgerea se opreste
+ * cand pagina e plina; o conditie pe un IndexMultiplu sau un interval pe un IndexOrdonat restrange cautarea
+ * la obiectele gasite in index.
+ * Altfel repository-ul e parcurs o data, pastrand doar primele deplasament + limita obiecte (fara sortare completa)
+ * @param <ID> - tipul id-ului
+ * @param <E> - tipul entitatilor
+ */
+public class Interogare<ID, E extends HasID<ID>> {
+
+    private Predicate<E> filtru = e -> true;
+    private Comparator<E> ordine;
+    private IndexOrdonat<?, ID, E> indexOrdine;
+    private boolean descrescator;
+    private Supplier<Iterable<ID>> candidati;
+    private Predicate<E> conditieCandidati;
+    private int deplasament;
+    private int limita = Integer.MAX_VALUE;
+    private Pagina.Cursor<E> cursor;
+
+    /**
+     * Pastreaza doar obiectele care respecta conditia; se poate apela de mai multe ori
+     * @param conditie - conditia
+     * @return aceasta interogare
+     */
+    public Interogare<ID, E> filtru(Predicate<E> conditie) {
+        this.filtru = this.filtru.and(conditie);
+        return this;
+    }
+
+    /**
+     * Pastreaza doar obiectele cu cheia data, cautate direct in index
+     * @param index - indexul, inregistrat pe repository-ul interogat
+     * @param cheie - cheia cautata
+     * @return aceasta interogare
+     */
+    public <K> Interogare<ID, E> egal(IndexMultiplu<K, ID, E> index, K cheie) {
+        this.candidati = () -> index.cauta(cheie);
+        this.conditieCandidati = e -> Objects.equals(index.cheie(e), cheie);
+        return this;
+    }
+
+    /**
+     * Pastreaza doar obiectele cu cheia intre doua valori, cautate direct in index in O(log n + k);
+     * se poate combina cu filtre (ex. pe student sau tema)
+     * @param index - indexul, inregistrat pe repository-ul interogat
+     * @param de - cheia minima (inclusiv)
+     * @param pana - cheia maxima (inclusiv)
+     * @return aceasta interogare
+     */
+    public <K extends Comparable<? super K>> Interogare<ID, E> interval(IndexOrdonat<K, ID, E> index, K de, K pana) {
+        this.candidati = () -> index.interval(de, pana);
+        this.conditieCandidati = e -> {
+            K cheie = index.cheie(e);
+            return cheie != null && cheie.compareTo(de) >= 0 && cheie.compareTo(pana) <= 0;
+        };
+        return this;
+    }
+
+    /**
+     * Sorteaza rezultatul; la elemente egale ordinea e data de id
+     * @param comparator - ordinea
+     * @return aceasta interogare
+     */
+    public Interogare<ID, E> ordonataDupa(Comparator<E> comparator) {
+        this.ordine = comparator;
+        this.indexOrdine = null;
+        return this;
+    }
+
+    /**
+     * Sorteaza rezultatul dupa cheia unui index ordonat, citind obiectele direct in ordinea indexului
+     * @param index - indexul, inregistrat pe repository-ul interogat
+     * @param descrescator - true pentru ordinea inversa
+     * @return aceasta interogare
+     */
+    public Interogare<ID, E> ordonataDupa(IndexOrdonat<?, ID, E> index, boolean descrescator) {
+        this.indexOrdine = index;
+        this.descrescator = descrescator;
+        this.ordine = null;
+        return this;
+    }
+
+    /**
+     * @param deplasament - numarul de obiecte sarite de la inceputul rezultatului (sau de la cursor)
+     * @return aceasta interogare
+     */
+    public Interogare<ID, E> deplasament(int deplasament) {
+        this.deplasament = deplasament;
+        return this;
+    }
+
+    /**
+     * @param limita - numarul maxim de obiecte din pagina
+     * @return aceasta interogare
+     */
+    public Interogare<ID, E> limita(int limita) {
+        this.limita = limita;
+        return this;
+    }
+
+    /**
+     * Continua dupa ultima pagina citita
+     * @param cursor - cursorul paginii anterioare sau null pentru prima pagina
+     * @return aceasta interogare
+     */
+    public Interogare<ID, E> dupa(Pagina.Cursor<E> cursor) {
+        this.cursor = cursor;
+        return this;
+    }
+
+    /**
+     * Executa interogarea
+     * @param repository - repository-ul interogat
+     * @return pagina ceruta
+     */
+    public Pagina<E> executa(CrudRepository<ID, E> repository) {
+        long necesar = (long) deplasament + limita + 1;
+        List<E> rezultat;
+        if (candidati == null && indexOrdine != null) {
+            rezultat = parcurgeIndex(repository, necesar);
+        } else {
+            Iterable<E> sursa = candidati == null ? repository.findAll() : cautaCandidati(repository);
+            rezultat = primele(sursa, necesar);
+        }
+        if (rezultat.size() <= deplasament) {
+            return new Pagina<>(Collections.emptyList(), null);
+        }
+        boolean maiSunt = rezultat.size() > deplasament + (long) limita;
+        List<E> pagina = rezultat.subList(deplasament, (int) Math.min(rezultat.size(), deplasament + (long) limita));
+        Pagina.Cursor<E> urmatoarea = null;
+        if (maiSunt && !pagina.isEmpty()) {
+            E ultim = pagina.get(pagina.size() - 1);
+            urmatoarea = new Pagina.Cursor<>(ultim, indexOrdine == null ? null : indexOrdine.cheie(ultim));
+        }
+        return new Pagina<>(pagina, urmatoarea);
+    }
+
+    private List<E> cautaCandidati(CrudRepository<ID, E> repository) {
+        List<E> gasite = new ArrayList<>();
+        for (ID id : candidati.get()) {
+            E entity = repository.findOne(id);
+            // obiectul poate fi modificat intre citirea indexului si findOne
+            if (entity != null && conditieCandidati.test(entity)) {
+                gasite.add(entity);
+            }
+        }
+        return gasite;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<E> parcurgeIndex(CrudRepository<ID, E> repository, long necesar) {
+        IndexOrdonat index = indexOrdine;
+        Iterator<ID> ids = cursor == null
+                ? index.parcurge(null, null, descrescator)
+                : index.parcurge((Comparable) cursor.getCheie(), String.valueOf(cursor.getUltim().getID()), descrescator);
+        List<E> rezultat = new ArrayList<>();
+        while (ids.hasNext() && rezultat.size() < necesar) {
+            E entity = repository.findOne(ids.next());
+            if (entity != null && filtru.test(entity)) {
+                rezultat.add(entity);
+            }
+        }
+        return rezultat;
+    }
+
+    private List<E> primele(Iterable<E> sursa, long necesar) {
+        Comparator<E> comparator = comparator();
+        // heap cu cel mai "mare" obiect in varf, marginit la necesar obiecte
+        PriorityQueue<E> primele = new PriorityQueue<>(comparator.reversed());
+        for (E entity : sursa) {
+            if (!filtru.test(entity) || (cursor != null && comparator.compare(entity, cursor.getUltim()) <= 0)) {
+                continue;
+            }
+            primele.add(entity);
+            if (primele.size() > necesar) {
+                primele.poll();
+            }
+        }
+        List<E> rezultat = new ArrayList<>(primele);
+        rezultat.sort(comparator);
+        return rezultat;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<E> comparator() {
+        Comparator<E> dupaId = Comparator.comparing(e -> String.valueOf(e.getID()));
+        if (indexOrdine != null) {
+            IndexOrdonat index = indexOrdine;
+            Comparator<E> dupaCheie = (a, b) -> index.cheie(a).compareTo(index.cheie(b));
+            Comparator<E> crescator = dupaCheie.thenComparing(dupaId);
+            return descrescator ? crescator.reversed() : crescator;
+        }
+        return ordine == null ? dupaId : ordine.thenComparing(dupaId);
+    }
+}
@@ -0,0 +1,825 @@
+package org.example.repository;
+
+import org.example.domain.Nota;
+import org.example.validation.ValidationException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+/**
+ * Istoricul notelor, pastrat ca sir de evenimente imuabile (adaugare, modificare, stergere) intr-un fisier append-only
+ * Se inregistreaza ca index pe repository-ul notelor, deci primeste fiecare modificare, indiferent de backend;
+ * modificarea doar pune evenimentul in asteptare, iar scrierea pe disc se face de un fir separat, in afara
+ * operatiei repository-ului (citirile scriu intai evenimentele in asteptare)
+ * Fisierul evenimentelor e blocat exclusiv cat timp istoricul e deschis, deci un singur proces il poate folosi
+ * Starea curenta e o proiectie tinuta in memorie; evenimentele raman doar pe disc si sunt citite din fisier la cerere
+ * Snapshot-urile starii sunt scrise in fisierul fisier.snapshot, in memorie ramanand doar pozitia lor; un snapshot nou
+ * se face dupa cel putin max(intervalSnapshot, numarul de note) evenimente, deci snapshot-urile ocupa cel mult
+ * cat evenimentele, iar starea de la un moment dat se obtine din ultimul snapshot anterior plus evenimentele de dupa el
+ * Evenimentele sunt codificate compact: timpul ca diferenta fata de evenimentul anterior, numerele ca varint,
+ * notele in sutimi de punct
+ */
+public class IstoricNote implements Index<String, Nota>, Closeable {
+
+    /**
+     * Tipul unui eveniment
+     */
+    public enum Tip {
+        ADAUGATA, MODIFICATA, STEARSA
+    }
+
+    /**
+     * O schimbare a unei note; pentru STEARSA valorile sunt cele ale notei sterse
+     */
+    public static final class Eveniment {
+        private final Tip tip;
+        private final long timp;
+        private final String idNota;
+        private final String idStudent;
+        private final String idTema;
+        private final double nota;
+        private final double notaInitiala;
+        private final LocalDate data;
+
+        Eveniment(Tip tip, long timp, String idNota, String idStudent, String idTema, double nota, double notaInitiala, LocalDate data) {
+            this.tip = tip;
+            this.timp = timp;
+            this.idNota = idNota;
+            this.idStudent = idStudent;
+            this.idTema = idTema;
+            this.nota = nota;
+            this.notaInitiala = notaInitiala;
+            this.data = data;
+        }
+
+        /**
+         * @return tipul schimbarii
+         */
+        public Tip getTip() {
+            return tip;
+        }
+
+        /**
+         * @return momentul schimbarii
+         */
+        public Instant getMoment() {
+            return Instant.ofEpochMilli(timp);
+        }
+
+        /**
+         * @return id-ul notei
+         */
+        public String getIdNota() {
+            return idNota;
+        }
+
+        /**
+         * @return nota finala dupa schimbare
+         */
+        public double getNota() {
+            return nota;
+        }
+
+        /**
+         * @return nota data de profesor sau Double.NaN daca nu se cunoaste
+         */
+        public double getNotaInitiala() {
+            return notaInitiala;
+        }
+
+        /**
+         * @return nota descrisa de eveniment, ca obiect nou
+         */
+        public Nota toNota() {
+            Nota rezultat = new Nota(idNota, idStudent, idTema, notaInitiala, data);
+            rezultat.setNota(nota);
+            return rezultat;
+        }
+
+        boolean aceleasiValori(Nota entity) {
+            return idStudent.equals(entity.getIdStudent()) && idTema.equals(entity.getIdTema())
+                    && sutimi(nota) == sutimi(entity.getNota()) && sutimi(notaInitiala) == sutimi(entity.getNotaInitiala())
+                    && Objects.equals(data, entity.getData());
+        }
+
+        @Override
+        public String toString() {
+            return getMoment() + " " + tip + " " + idNota + " (student " + idStudent + ", tema " + idTema
+                    + "): " + nota + " (initial " + notaInitiala + ")";
+        }
+    }
+
+    /**
+     * Pozitia unui snapshot in fisierul snapshot-urilor
+     */
+    private static final class Snapshot {
+        final long timp;
+        final long pozitieLog;
+        final long numarEvenimente;
+        final long pozitie;
+        final long lungime;
+
+        Snapshot(long timp, long pozitieLog, long numarEvenimente, long pozitie, long lungime) {
+            this.timp = timp;
+            this.pozitieLog = pozitieLog;
+            this.numarEvenimente = numarEvenimente;
+            this.pozitie = pozitie;
+            this.lungime = lungime;
+        }
+    }
+
+    /**
+     * Pozitiile evenimentelor unei note si timpul evenimentului anterior fiecaruia, fata de care e codificat
+     */
+    private static final class PozitiiNota {
+        long[] valori = new long[2];
+        int numar;
+
+        void adauga(long pozitie, long timpAnterior) {
+            if (2 * numar + 2 > valori.length) {
+                valori = Arrays.copyOf(valori, valori.length * 2);
+            }
+            valori[2 * numar] = pozitie;
+            valori[2 * numar + 1] = timpAnterior;
+            numar++;
+        }
+    }
+
+    // nota initiala necunoscuta (note salvate fara ea) sau nota fara data
+    private static final long NECUNOSCUTA = Long.MIN_VALUE;
+    // antetul unui snapshot: timpul, pozitia in fisierul evenimentelor, numarul de evenimente, lungimea intrarilor
+    private static final int ANTET_SNAPSHOT = 4 * Long.BYTES;
+    private static final int DIMENSIUNE_BUFFER = 64 * 1024;
+
+    private final FileChannel channel;
+    private final FileLock lacat;
+    private final FileChannel canalSnapshoturi;
+    private final int intervalSnapshot;
+    private final LongSupplier ceas;
+
+    private long lungime;
+    private long lungimeSnapshoturi;
+    private long numarEvenimente;
+    private long ultimulTimp;
+    private final Map<String, Eveniment> stare = new HashMap<>();
+    private final Map<String, PozitiiNota> pozitiiDupaNota = new HashMap<>();
+    private final List<Snapshot> snapshoturi = new ArrayList<>();
+    private long durataIncarcareNanos;
+
+    // evenimentele inca nescrise si ultima stare a fiecarei note, inclusiv acestea; protejate de lock-ul pe inAsteptare
+    private final List<Eveniment> inAsteptare = new ArrayList<>();
+    private final Map<String, Eveniment> ultimele;
+    private boolean programat;
+    private boolean inchis;
+    private final ExecutorService scriitor;
+
+    /**
+     * Class constructor; un snapshot la cel putin 10000 de evenimente, timpul sistemului
+     * @param fisier - fisierul evenimentelor
+     */
+    public IstoricNote(String fisier) {
+        this(fisier, 10000, System::currentTimeMillis);
+    }
+
+    /**
+     * Class constructor; citeste evenimentele existente si reconstruieste proiectia
+     * Un eveniment sau un snapshot scris partial la final (ex. oprire in timpul scrierii) e ignorat si taiat din fisier
+     * @param fisier - fisierul evenimentelor
+     * @param intervalSnapshot - numarul minim de evenimente dintre doua snapshot-uri
+     * @param ceas - momentul curent, in milisecunde
+     * @throws ValidationException daca istoricul e deschis de alt proces sau fisierul e corupt
+     */
+    public IstoricNote(String fisier, int intervalSnapshot, LongSupplier ceas) {
+        this.intervalSnapshot = intervalSnapshot;
+        this.ceas = ceas;
+        try {
+            this.channel = FileChannel.open(Path.of(fisier),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        FileChannel snapshoturiDeschise = null;
+        try {
+            this.lacat = blocheaza(channel, fisier);
+            snapshoturiDeschise = FileChannel.open(Path.of(fisier + ".snapshot"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.canalSnapshoturi = snapshoturiDeschise;
+            incarcaSnapshoturi();
+            long inceput = System.nanoTime();
+            incarca();
+            durataIncarcareNanos = System.nanoTime() - inceput;
+            // snapshot-uri de dupa evenimente taiate din fisier
+            while (!snapshoturi.isEmpty() && snapshoturi.get(snapshoturi.size() - 1).pozitieLog > lungime) {
+                Snapshot snapshot = snapshoturi.remove(snapshoturi.size() - 1);
+                lungimeSnapshoturi = snapshot.pozitie - ANTET_SNAPSHOT;
+            }
+            if (canalSnapshoturi.size() > lungimeSnapshoturi) {
+                canalSnapshoturi.truncate(lungimeSnapshoturi);
+            }
+        } catch (IOException | RuntimeException exception) {
+            inchideDupaEroare(channel, exception);
+            if (snapshoturiDeschise != null) {
+                inchideDupaEroare(snapshoturiDeschise, exception);
+            }
+            if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+            throw new ValidationException(exception.getMessage());
+        }
+        this.ultimele = new HashMap<>(stare);
+        this.scriitor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "istoric-" + fisier);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void adauga(Nota entity) {
+        synchronized (inAsteptare) {
+            Eveniment curent = ultimele.get(entity.getID());
+            if (curent != null && curent.aceleasiValori(entity)) {
+                // nota exista deja in istoric (ex. la inregistrarea indexului peste un repository existent)
+                return;
+            }
+            pune(curent == null ? Tip.ADAUGATA : Tip.MODIFICATA, entity);
+        }
+    }
+
+    @Override
+    public void sterge(Nota entity) {
+        synchronized (inAsteptare) {
+            if (ultimele.containsKey(entity.getID())) {
+                pune(Tip.STEARSA, entity);
+            }
+        }
+    }
+
+    @Override
+    public void actualizeaza(Nota inainte, Nota dupa) {
+        adauga(dupa);
+    }
+
+    /**
+     * @param idNota - id-ul notei
+     * @return toate schimbarile notei, in ordine
+     */
+    public synchronized List<Eveniment> istoric(String idNota) {
+        scrieInAsteptare();
+        PozitiiNota pozitii = pozitiiDupaNota.get(idNota);
+        if (pozitii == null) {
+            return Collections.emptyList();
+        }
+        List<Eveniment> evenimente = new ArrayList<>(pozitii.numar);
+        Cititor cititor = new Cititor(channel, lungime, 256);
+        try {
+            for (int i = 0; i < pozitii.numar; i++) {
+                evenimente.add(cititor.citeste(pozitii.valori[2 * i], pozitii.valori[2 * i + 1]));
+            }
+        } catch (UncheckedIOException exception) {
+            throw new ValidationException(exception.getCause().getMessage());
+        }
+        return evenimente;
+    }
+
+    /**
+     * @param idNota - id-ul notei
+     * @param moment - momentul
+     * @return nota asa cum era la momentul dat sau null daca atunci nu exista
+     */
+    public synchronized Nota notaLa(String idNota, Instant moment) {
+        long timp = moment.toEpochMilli();
+        Eveniment ultimul = null;
+        for (Eveniment eveniment : istoric(idNota)) {
+            if (eveniment.timp > timp) {
+                break;
+            }
+            ultimul = eveniment;
+        }
+        return ultimul == null || ultimul.tip == Tip.STEARSA ? null : ultimul.toNota();
+    }
+
+    /**
+     * Reconstruieste toate notele de la un moment dat, din ultimul snapshot anterior momentului si evenimentele de dupa el
+     * Atat snapshot-ul cat si evenimentele sunt citite din fisiere
+     * @param moment - momentul
+     * @return notele existente la momentul dat, dupa id
+     */
+    public synchronized Map<String, Nota> stareLa(Instant moment) {
+        scrieInAsteptare();
+        try {
+            return reconstruieste(moment.toEpochMilli());
+        } catch (UncheckedIOException exception) {
+            throw new ValidationException(exception.getCause().getMessage());
+        }
+    }
+
+    private Map<String, Nota> reconstruieste(long timp) {
+        Map<String, Eveniment> reconstruita = new HashMap<>();
+        long pozitie = 0;
+        long timpInceput = 0;
+        for (int i = snapshoturi.size() - 1; i >= 0; i--) {
+            Snapshot snapshot = snapshoturi.get(i);
+            if (snapshot.timp <= timp) {
+                Cititor intrari = new Cititor(canalSnapshoturi, snapshot.pozitie + snapshot.lungime, DIMENSIUNE_BUFFER);
+                intrari.muta(snapshot.pozitie, 0);
+                while (intrari.pozitie < snapshot.pozitie + snapshot.lungime) {
+                    Eveniment eveniment = intrari.urmatorul();
+                    reconstruita.put(eveniment.idNota, eveniment);
+                }
+                pozitie = snapshot.pozitieLog;
+                timpInceput = snapshot.timp;
+                break;
+            }
+        }
+        Cititor cititor = new Cititor(channel, lungime, DIMENSIUNE_BUFFER);
+        cititor.muta(pozitie, timpInceput);
+        while (cititor.pozitie < lungime) {
+            Eveniment eveniment = cititor.urmatorul();
+            if (eveniment.timp > timp) {
+                break;
+            }
+            aplica(reconstruita, eveniment);
+        }
+        Map<String, Nota> note = new HashMap<>();
+        reconstruita.forEach((id, eveniment) -> note.put(id, eveniment.toNota()));
+        return note;
+    }
+
+    /**
+     * @return numarul de evenimente
+     */
+    public synchronized long getNumarEvenimente() {
+        scrieInAsteptare();
+        return numarEvenimente;
+    }
+
+    /**
+     * @return dimensiunea evenimentelor codificate, in octeti
+     */
+    public synchronized long getOcteti() {
+        scrieInAsteptare();
+        return lungime;
+    }
+
+    /**
+     * @return dimensiunea snapshot-urilor, in octeti
+     */
+    public synchronized long getOctetiSnapshoturi() {
+        scrieInAsteptare();
+        return lungimeSnapshoturi;
+    }
+
+    /**
+     * @return numarul mediu de octeti pe eveniment
+     */
+    public synchronized double getOctetiPeEveniment() {
+        scrieInAsteptare();
+        return numarEvenimente == 0 ? 0 : (double) lungime / numarEvenimente;
+    }
+
+    /**
+     * @return numarul de snapshot-uri
+     */
+    public synchronized int getNumarSnapshoturi() {
+        scrieInAsteptare();
+        return snapshoturi.size();
+    }
+
+    /**
+     * @return viteza citirii evenimentelor la deschidere, in evenimente pe secunda
+     */
+    public synchronized double getEvenimentePeSecundaLaIncarcare() {
+        return durataIncarcareNanos == 0 ? 0 : numarEvenimente / (durataIncarcareNanos / 1e9);
+    }
+
+    /**
+     * Scrie evenimentele in asteptare si inchide fisierele istoricului
+     * @throws ValidationException daca evenimentele nu au putut fi scrise
+     */
+    @Override
+    public synchronized void close() {
+        synchronized (inAsteptare) {
+            if (inchis) {
+                return;
+            }
+            inchis = true;
+        }
+        scriitor.shutdown();
+        try {
+            scrieInAsteptare();
+        } finally {
+            try {
+                channel.force(true);
+                lacat.release();
+                channel.close();
+                canalSnapshoturi.force(true);
+                canalSnapshoturi.close();
+            } catch (IOException exception) {
+                throw new ValidationException(exception.getMessage());
+            }
+        }
+    }
+
+    private static FileLock blocheaza(FileChannel channel, String fisier) throws IOException {
+        FileLock lacat;
+        try {
+            lacat = channel.tryLock();
+        } catch (OverlappingFileLockException exception) {
+            lacat = null;
+        }
+        if (lacat == null) {
+            throw new ValidationException("Istoricul notelor " + fisier + " este deschis de alt proces!");
+        }
+        return lacat;
+    }
+
+    private static void inchideDupaEroare(FileChannel canal, Exception exception) {
+        try {
+            canal.close();
+        } catch (IOException inchidere) {
+            exception.addSuppressed(inchidere);
+        }
+    }
+
+    /**
+     * Pune un eveniment in asteptare si programeaza scrierea lui; se apeleaza cu lock-ul pe inAsteptare
+     */
+    private void pune(Tip tip, Nota entity) {
+        if (inchis) {
+            throw new ValidationException("Istoricul notelor este inchis!");
+        }
+        Eveniment eveniment = new Eveniment(tip, ceas.getAsLong(), entity.getID(), entity.getIdStudent(),
+                entity.getIdTema(), entity.getNota(), entity.getNotaInitiala(), entity.getData());
+        aplica(ultimele, eveniment);
+        inAsteptare.add(eveniment);
+        if (!programat) {
+            programat = true;
+            scriitor.execute(this::scrieInFundal);
+        }
+    }
+
+    private void scrieInFundal() {
+        try {
+            synchronized (this) {
+                scrieInAsteptare();
+            }
+        } catch (ValidationException exception) {
+            // evenimentele raman in asteptare si se reincearca la urmatoarea modificare, citire sau la inchidere
+            System.err.println(exception.getMessage());
+        }
+    }
+
+    /**
+     * Scrie in fisier evenimentele in asteptare, in ordine; se apeleaza cu lock-ul pe istoric
+     * La o eroare, evenimentele nescrise raman in asteptare
+     */
+    private void scrieInAsteptare() {
+        List<Eveniment> lot;
+        synchronized (inAsteptare) {
+            programat = false;
+            if (inAsteptare.isEmpty()) {
+                return;
+            }
+            lot = new ArrayList<>(inAsteptare);
+            inAsteptare.clear();
+        }
+        for (int i = 0; i < lot.size(); i++) {
+            try {
+                inregistreaza(lot.get(i));
+            } catch (ValidationException exception) {
+                synchronized (inAsteptare) {
+                    inAsteptare.addAll(0, lot.subList(i, lot.size()));
+                }
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Citeste antetele snapshot-urilor; intrarile raman pe disc
+     */
+    private void incarcaSnapshoturi() throws IOException {
+        long dimensiune = canalSnapshoturi.size();
+        ByteBuffer antet = ByteBuffer.allocate(ANTET_SNAPSHOT);
+        long pozitie = 0;
+        while (pozitie + ANTET_SNAPSHOT <= dimensiune) {
+            antet.clear();
+            while (antet.hasRemaining()) {
+                canalSnapshoturi.read(antet, pozitie + antet.position());
+            }
+            antet.flip();
+            long timp = antet.getLong();
+            long pozitieLog = antet.getLong();
+            long numar = antet.getLong();
+            long lungimeIntrari = antet.getLong();
+            if (lungimeIntrari < 0 || pozitie + ANTET_SNAPSHOT + lungimeIntrari > dimensiune) {
+                break;
+            }
+            snapshoturi.add(new Snapshot(timp, pozitieLog, numar, pozitie + ANTET_SNAPSHOT, lungimeIntrari));
+            pozitie += ANTET_SNAPSHOT + lungimeIntrari;
+        }
+        lungimeSnapshoturi = pozitie;
+    }
+
+    /**
+     * Citeste evenimentele din fisier, in ordine, si taie un eventual eveniment incomplet de la final
+     */
+    private void incarca() throws IOException {
+        long limita = channel.size();
+        Cititor cititor = new Cititor(channel, limita, DIMENSIUNE_BUFFER);
+        while (cititor.pozitie < limita) {
+            long pozitie = cititor.pozitie;
+            long timpAnterior = cititor.timp;
+            Eveniment eveniment;
+            try {
+                eveniment = cititor.urmatorul();
+            } catch (UncheckedIOException exception) {
+                // o eroare de citire nu inseamna un eveniment incomplet
+                throw exception.getCause();
+            } catch (EvenimentIncomplet exception) {
+                // doar sfarsitul fisierului in mijlocul unui eveniment e taiat; alta coruptie e raportata
+                lungime = pozitie;
+                channel.truncate(lungime);
+                return;
+            }
+            lungime = cititor.pozitie;
+            retine(eveniment, pozitie, timpAnterior);
+        }
+        lungime = limita;
+    }
+
+    private void inregistreaza(Eveniment eveniment) {
+        long pozitie = lungime;
+        Scriitor scriitor = new Scriitor();
+        scriitor.scrie(eveniment, eveniment.timp - ultimulTimp);
+        try {
+            scrieLa(channel, scriitor, pozitie);
+        } catch (IOException exception) {
+            // octetii scrisi partial ar ascunde toate evenimentele de dupa ei la urmatoarea deschidere
+            try {
+                channel.truncate(pozitie);
+            } catch (IOException trunchiere) {
+                exception.addSuppressed(trunchiere);
+            }
+            throw new ValidationException("Istoricul notei nu a putut fi salvat: " + exception.getMessage());
+        }
+        lungime += scriitor.lungime;
+        retine(eveniment, pozitie, ultimulTimp);
+    }
+
+    private void retine(Eveniment eveniment, long pozitie, long timpAnterior) {
+        ultimulTimp = eveniment.timp;
+        aplica(stare, eveniment);
+        pozitiiDupaNota.computeIfAbsent(eveniment.idNota, id -> new PozitiiNota()).adauga(pozitie, timpAnterior);
+        numarEvenimente++;
+        Snapshot ultimul = snapshoturi.isEmpty() ? null : snapshoturi.get(snapshoturi.size() - 1);
+        long deLaUltimul = numarEvenimente - (ultimul == null ? 0 : ultimul.numarEvenimente);
+        if (deLaUltimul >= Math.max(intervalSnapshot, stare.size()) && (ultimul == null || lungime > ultimul.pozitieLog)) {
+            scrieSnapshot();
+        }
+    }
+
+    /**
+     * Scrie starea curenta ca snapshot: antetul si apoi notele, codificate ca evenimente
+     */
+    private void scrieSnapshot() {
+        Scriitor scriitor = new Scriitor();
+        scriitor.octeti = new byte[Math.max(64, ANTET_SNAPSHOT + 32 * stare.size())];
+        scriitor.lungime = ANTET_SNAPSHOT;
+        long timpAnterior = 0;
+        for (Eveniment eveniment : stare.values()) {
+            scriitor.scrie(eveniment, eveniment.timp - timpAnterior);
+            timpAnterior = eveniment.timp;
+        }
+        long lungimeIntrari = scriitor.lungime - ANTET_SNAPSHOT;
+        ByteBuffer.wrap(scriitor.octeti, 0, ANTET_SNAPSHOT)
+                .putLong(ultimulTimp).putLong(lungime).putLong(numarEvenimente).putLong(lungimeIntrari);
+        long pozitie = lungimeSnapshoturi;
+        try {
+            scrieLa(canalSnapshoturi, scriitor, pozitie);
+        } catch (IOException exception) {
+            // snapshot-ul doar scurteaza reconstruirea; evenimentul e deja salvat, deci se reincearca la urmatorul
+            try {
+                canalSnapshoturi.truncate(pozitie);
+            } catch (IOException ignorat) {
+                // un snapshot incomplet e taiat la urmatoarea deschidere
+            }
+            return;
+        }
+        lungimeSnapshoturi += scriitor.lungime;
+        snapshoturi.add(new Snapshot(ultimulTimp, lungime, numarEvenimente, pozitie + ANTET_SNAPSHOT, lungimeIntrari));
+    }
+
+    private static void scrieLa(FileChannel canal, Scriitor scriitor, long pozitie) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(scriitor.octeti, 0, scriitor.lungime);
+        while (buffer.hasRemaining()) {
+            canal.write(buffer, pozitie + buffer.position());
+        }
+    }
+
+    private static void aplica(Map<String, Eveniment> stare, Eveniment eveniment) {
+        if (eveniment.tip == Tip.STEARSA) {
+            stare.remove(eveniment.idNota);
+        } else {
+            stare.put(eveniment.idNota, eveniment);
+        }
+    }
+
+    private static long sutimi(double nota) {
+        return Double.isNaN(nota) ? NECUNOSCUTA : Math.round(nota * 100);
+    }
+
+    private static double dinSutimi(long sutimi) {
+        return sutimi == NECUNOSCUTA ? Double.NaN : sutimi / 100.0;
+    }
+
+    /**
+     * Codifica un eveniment: tip, diferenta de timp (zigzag varint), id-ul notei, id-urile studentului si temei,
+     * nota si nota initiala in sutimi (varint), ziua predarii (zigzag varint; NECUNOSCUTA daca nota nu are data)
+     */
+    private static final class Scriitor {
+        byte[] octeti = new byte[64];
+        int lungime;
+
+        void scrie(Eveniment eveniment, long deltaTimp) {
+            octet(eveniment.tip.ordinal());
+            varint(zigzag(deltaTimp));
+            text(eveniment.idNota);
+            text(eveniment.idStudent);
+            text(eveniment.idTema);
+            varint(zigzag(sutimi(eveniment.nota)));
+            varint(zigzag(sutimi(eveniment.notaInitiala)));
+            varint(zigzag(eveniment.data == null ? NECUNOSCUTA : eveniment.data.toEpochDay()));
+        }
+
+        private void text(String valoare) {
+            byte[] utf8 = valoare.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            for (byte b : utf8) {
+                octet(b);
+            }
+        }
+
+        private void varint(long valoare) {
+            while ((valoare & ~0x7FL) != 0) {
+                octet((int) ((valoare & 0x7F) | 0x80));
+                valoare >>>= 7;
+            }
+            octet((int) valoare);
+        }
+
+        private void octet(int b) {
+            if (lungime == octeti.length) {
+                octeti = Arrays.copyOf(octeti, octeti.length * 2);
+            }
+            octeti[lungime++] = (byte) b;
+        }
+
+        private static long zigzag(long valoare) {
+            return (valoare << 1) ^ (valoare >> 63);
+        }
+    }
+
+    /**
+     * Decodifica evenimente dintr-un fisier, printr-un buffer; timpul fiecarui eveniment e relativ la cel anterior
+     */
+    private static final class Cititor {
+        private final FileChannel sursa;
+        private final long limita;
+        private final ByteBuffer buffer;
+        private long inceputBuffer;
+        long pozitie;
+        long timp;
+
+        Cititor(FileChannel sursa, long limita, int dimensiuneBuffer) {
+            this.sursa = sursa;
+            this.limita = limita;
+            this.buffer = ByteBuffer.allocate(dimensiuneBuffer);
+            this.buffer.limit(0);
+        }
+
+        void muta(long pozitie, long timp) {
+            this.pozitie = pozitie;
+            this.timp = timp;
+        }
+
+        Eveniment citeste(long pozitie, long timpAnterior) {
+            muta(pozitie, timpAnterior);
+            return urmatorul();
+        }
+
+        Eveniment urmatorul() {
+            int tip = octet();
+            timp += dezigzag(varint());
+            String idNota = text();
+            String idStudent = text();
+            String idTema = text();
+            double nota = dinSutimi(dezigzag(varint()));
+            double notaInitiala = dinSutimi(dezigzag(varint()));
+            long zi = dezigzag(varint());
+            if (tip >= Tip.values().length) {
+                throw new ValidationException("Istoric corupt!");
+            }
+            LocalDate data;
+            try {
+                data = zi == NECUNOSCUTA ? null : LocalDate.ofEpochDay(zi);
+            } catch (DateTimeException exception) {
+                throw new ValidationException("Istoric corupt!");
+            }
+            return new Eveniment(Tip.values()[tip], timp, idNota, idStudent, idTema, nota, notaInitiala, data);
+        }
+
+        private String text() {
+            long n = varint();
+            if (n < 0 || n > Integer.MAX_VALUE) {
+                throw new ValidationException("Istoric corupt!");
+            }
+            if (pozitie + n > limita) {
+                throw new EvenimentIncomplet();
+            }
+            byte[] utf8 = new byte[(int) n];
+            for (int i = 0; i < n; i++) {
+                utf8[i] = octet();
+            }
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+
+        private long varint() {
+            long valoare = 0;
+            for (int deplasare = 0; deplasare < 64; deplasare += 7) {
+                byte b = octet();
+                valoare |= (long) (b & 0x7F) << deplasare;
+                if ((b & 0x80) == 0) {
+                    return valoare;
+                }
+            }
+            throw new ValidationException("Istoric corupt!");
+        }
+
+        private byte octet() {
+            if (pozitie >= limita) {
+                throw new EvenimentIncomplet();
+            }
+            long index = pozitie - inceputBuffer;
+            if (index < 0 || index >= buffer.limit()) {
+                umple();
+                index = 0;
+            }
+            pozitie++;
+            return buffer.get((int) index);
+        }
+
+        private void umple() {
+            buffer.clear();
+            inceputBuffer = pozitie;
+            try {
+                while (buffer.hasRemaining()) {
+                    if (sursa.read(buffer, inceputBuffer + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            buffer.flip();
+            if (!buffer.hasRemaining()) {
+                throw new EvenimentIncomplet();
+            }
+        }
+
+        private static long dezigzag(long valoare) {
+            return (valoare >>> 1) ^ -(valoare & 1);
+        }
+    }
+
+    /**
+     * Sfarsitul datelor in mijlocul unui eveniment (ex. oprire in timpul scrierii)
+     */
+    private static final class EvenimentIncomplet extends ValidationException {
+        EvenimentIncomplet() {
+            super("Eveniment incomplet!");
+        }
+    }
+}
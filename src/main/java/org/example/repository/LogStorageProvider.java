@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import java.util.Properties;
+
+/**
+ * Backend "log": segmente append-only compactate periodic (StudentLogRepo, ...); cheile dau directoarele
+ */
+public class LogStorageProvider implements StorageProvider {
+
+    @Override
+    public String getNume() {
+        return "log";
+    }
+
+    @Override
+    public Stocare deschide(Properties configurare) {
+        StudentLogRepo studenti = new StudentLogRepo(configurare.getProperty("stocare.studenti", "./fisiere/studenti-log"));
+        TemaLogRepo teme = new TemaLogRepo(configurare.getProperty("stocare.teme", "./fisiere/teme-log"));
+        NotaLogRepo note = new NotaLogRepo(configurare.getProperty("stocare.note", "./fisiere/note-log"));
+        return new Stocare(studenti, teme, note)
+                .inchideLaFinal(studenti)
+                .inchideLaFinal(teme)
+                .inchideLaFinal(note);
+    }
+}
@@ -0,0 +1,434 @@
+package org.example.repository;
+
+import org.example.domain.Nota;
+import org.example.domain.Student;
+import org.example.domain.Tema;
+import org.example.validation.ValidationException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Converteste fisierele repository-urilor din formatul text (StudentFileRepository, ...) in XML (StudentXMLRepo, ...)
+ * si invers, fara a incarca toate datele in memorie
+ * Inregistrarile sunt citite in loturi, fiecare lot e convertit in paralel si scris in ordine;
+ * rezultatul e scris intr-un fisier temporar, recitit si mutat peste destinatie doar daca numarul de inregistrari
+ * si suma de control (suma CRC32 a fiecarei inregistrari in formatul text) coincid cu ale sursei
+ * Formatul text nu are versiuni, nota initiala si id-uri proprii pentru note, deci acestea se pierd la conversia in text
+ */
+public final class MigrareFormat {
+
+    private static final int DIMENSIUNE_BUFFER = 1 << 16;
+    private static final String RADACINA = "inbox";
+
+    private MigrareFormat() {
+    }
+
+    /**
+     * Cum se scrie si se citeste un tip de obiect in cele doua formate
+     * @param <E> - tipul obiectelor
+     */
+    public interface Tip<E> {
+        /**
+         * @return numele elementului XML al unui obiect
+         */
+        String getElement();
+
+        /**
+         * @param linie - linia din fisierul text
+         * @return obiectul
+         */
+        E dinLinie(String linie);
+
+        /**
+         * @param valori - atributele si elementele copil ale elementului XML, dupa nume
+         * @return obiectul
+         */
+        E dinXML(Map<String, String> valori);
+
+        /**
+         * Scrie obiectul ca element XML
+         * @param writer - destinatia
+         * @param entity - obiectul
+         * @throws XMLStreamException daca scrierea esueaza
+         */
+        void scrieXML(XMLStreamWriter writer, E entity) throws XMLStreamException;
+    }
+
+    public static final Tip<Student> STUDENTI = new Tip<>() {
+        @Override
+        public String getElement() {
+            return "student";
+        }
+
+        @Override
+        public Student dinLinie(String linie) {
+            return StudentFileRepository.dinLinie(linie);
+        }
+
+        @Override
+        public Student dinXML(Map<String, String> valori) {
+            Student student = new Student(valori.get("idStudent"), valori.get("nume"),
+                    Integer.parseInt(valori.get("grupa")), valori.get("email"));
+            student.setVersiune(versiune(valori));
+            return student;
+        }
+
+        @Override
+        public void scrieXML(XMLStreamWriter writer, Student entity) throws XMLStreamException {
+            writer.writeStartElement("student");
+            writer.writeAttribute("idStudent", entity.getID());
+            writer.writeAttribute("versiune", Long.toString(entity.getVersiune()));
+            scrieCamp(writer, "nume", entity.getNume());
+            scrieCamp(writer, "grupa", Integer.toString(entity.getGrupa()));
+            scrieCamp(writer, "email", entity.getEmail());
+            writer.writeEndElement();
+        }
+    };
+
+    public static final Tip<Tema> TEME = new Tip<>() {
+        @Override
+        public String getElement() {
+            return "nrTema";
+        }
+
+        @Override
+        public Tema dinLinie(String linie) {
+            return TemaFileRepository.dinLinie(linie);
+        }
+
+        @Override
+        public Tema dinXML(Map<String, String> valori) {
+            Tema tema = new Tema(valori.get("nrTema"), valori.get("descriere"),
+                    Integer.parseInt(valori.get("deadline")), Integer.parseInt(valori.get("primire")));
+            tema.setVersiune(versiune(valori));
+            return tema;
+        }
+
+        @Override
+        public void scrieXML(XMLStreamWriter writer, Tema entity) throws XMLStreamException {
+            writer.writeStartElement("nrTema");
+            writer.writeAttribute("nrTema", entity.getID());
+            writer.writeAttribute("versiune", Long.toString(entity.getVersiune()));
+            scrieCamp(writer, "descriere", entity.getDescriere());
+            scrieCamp(writer, "deadline", Integer.toString(entity.getDeadline()));
+            scrieCamp(writer, "primire", Integer.toString(entity.getPrimire()));
+            writer.writeEndElement();
+        }
+    };
+
+    public static final Tip<Nota> NOTE = new Tip<>() {
+        @Override
+        public String getElement() {
+            return "nota";
+        }
+
+        @Override
+        public Nota dinLinie(String linie) {
+            return NotaFileRepository.dinLinie(linie);
+        }
+
+        @Override
+        public Nota dinXML(Map<String, String> valori) {
+            String idStudent = valori.get("idStudent");
+            String idTema = valori.get("idTema");
+            String id = valori.getOrDefault("id", "");
+            Nota nota = new Nota(id.isEmpty() ? idStudent + "#" + idTema : id, idStudent, idTema,
+                    Double.parseDouble(valori.get("notaProf")), LocalDate.parse(valori.get("dataCurenta")));
+            nota.setVersiune(versiune(valori));
+            String notaInitiala = valori.get("notaInitiala");
+            nota.setNotaInitiala(notaInitiala == null || notaInitiala.isEmpty() ? Double.NaN : Double.parseDouble(notaInitiala));
+            return nota;
+        }
+
+        @Override
+        public void scrieXML(XMLStreamWriter writer, Nota entity) throws XMLStreamException {
+            writer.writeStartElement("nota");
+            writer.writeAttribute("id", entity.getID());
+            writer.writeAttribute("versiune", Long.toString(entity.getVersiune()));
+            if (entity.isNotaInitialaCunoscuta()) {
+                writer.writeAttribute("notaInitiala", Double.toString(entity.getNotaInitiala()));
+            }
+            scrieCamp(writer, "idStudent", entity.getIdStudent());
+            scrieCamp(writer, "idTema", entity.getIdTema());
+            scrieCamp(writer, "notaProf", Double.toString(entity.getNota()));
+            scrieCamp(writer, "dataCurenta", entity.getData().toString());
+            writer.writeEndElement();
+        }
+    };
+
+    /**
+     * Rezultatul unei conversii
+     */
+    public static class Raport {
+        private final long inregistrari;
+        private final long sumaControl;
+        private final long durataNanos;
+
+        Raport(long inregistrari, long sumaControl, long durataNanos) {
+            this.inregistrari = inregistrari;
+            this.sumaControl = sumaControl;
+            this.durataNanos = durataNanos;
+        }
+
+        /**
+         * @return numarul de inregistrari convertite
+         */
+        public long getInregistrari() {
+            return inregistrari;
+        }
+
+        /**
+         * @return suma de control, aceeasi pentru sursa si destinatie
+         */
+        public long getSumaControl() {
+            return sumaControl;
+        }
+
+        /**
+         * @return durata conversiei, in milisecunde
+         */
+        public long getDurataMs() {
+            return durataNanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return inregistrari + " inregistrari, suma de control " + Long.toHexString(sumaControl) + ", " + getDurataMs() + " ms";
+        }
+    }
+
+    /**
+     * Converteste un fisier text in XML
+     * @param tip - tipul obiectelor
+     * @param sursa - fisierul text
+     * @param destinatie - fisierul XML; e suprascris doar daca verificarea reuseste
+     * @param dimensiuneLot - numarul de inregistrari convertite odata
+     * @return raportul conversiei
+     * @throws ValidationException daca fisierele nu pot fi citite sau scrise ori verificarea esueaza
+     */
+    public static <E> Raport textInXML(Tip<E> tip, Path sursa, Path destinatie, int dimensiuneLot) {
+        long inceput = System.nanoTime();
+        Path temporar = temporar(destinatie);
+        Suma scrisa = new Suma();
+        try (BufferedReader reader = Files.newBufferedReader(sursa, StandardCharsets.UTF_8);
+             OutputStream iesire = Files.newOutputStream(temporar)) {
+            XMLStreamWriter writer = XMLOutputFactory.newFactory()
+                    .createXMLStreamWriter(new BufferedWriter(new OutputStreamWriter(iesire, StandardCharsets.UTF_8), DIMENSIUNE_BUFFER));
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement(RADACINA);
+            List<String> linii = new ArrayList<>(dimensiuneLot);
+            String linie;
+            while ((linie = reader.readLine()) != null) {
+                if (!linie.isBlank()) {
+                    linii.add(linie);
+                }
+                if (linii.size() == dimensiuneLot) {
+                    scrieLotXML(tip, linii, writer, scrisa);
+                }
+            }
+            scrieLotXML(tip, linii, writer, scrisa);
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (IOException | XMLStreamException | RuntimeException exception) {
+            stergeTemporar(temporar);
+            throw new ValidationException("Conversia nu a reusit: " + exception.getMessage());
+        }
+        verificaSiMuta(scrisa, sumaXML(tip, temporar, dimensiuneLot), temporar, destinatie);
+        return new Raport(scrisa.inregistrari, scrisa.suma, System.nanoTime() - inceput);
+    }
+
+    /**
+     * Converteste un fisier XML in text
+     * @param tip - tipul obiectelor
+     * @param sursa - fisierul XML
+     * @param destinatie - fisierul text; e suprascris doar daca verificarea reuseste
+     * @param dimensiuneLot - numarul de inregistrari convertite odata
+     * @return raportul conversiei
+     * @throws ValidationException daca fisierele nu pot fi citite sau scrise ori verificarea esueaza
+     */
+    public static <E> Raport xmlInText(Tip<E> tip, Path sursa, Path destinatie, int dimensiuneLot) {
+        long inceput = System.nanoTime();
+        Path temporar = temporar(destinatie);
+        Suma scrisa = new Suma();
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(temporar), StandardCharsets.UTF_8), DIMENSIUNE_BUFFER)) {
+            parcurgeXML(tip, sursa, dimensiuneLot, lot -> {
+                List<String> linii = lot.parallelStream().map(Object::toString).toList();
+                for (String linie : linii) {
+                    writer.write(linie);
+                    writer.newLine();
+                    scrisa.adauga(linie);
+                }
+            });
+        } catch (IOException | XMLStreamException | RuntimeException exception) {
+            stergeTemporar(temporar);
+            throw new ValidationException("Conversia nu a reusit: " + exception.getMessage());
+        }
+        verificaSiMuta(scrisa, sumaText(tip, temporar, dimensiuneLot), temporar, destinatie);
+        return new Raport(scrisa.inregistrari, scrisa.suma, System.nanoTime() - inceput);
+    }
+
+    private static <E> void scrieLotXML(Tip<E> tip, List<String> linii, XMLStreamWriter writer, Suma scrisa)
+            throws XMLStreamException {
+        List<E> entitati = linii.parallelStream().map(tip::dinLinie).toList();
+        for (E entity : entitati) {
+            tip.scrieXML(writer, entity);
+            scrisa.adauga(entity.toString());
+        }
+        linii.clear();
+    }
+
+    private static <E> Suma sumaXML(Tip<E> tip, Path fisier, int dimensiuneLot) {
+        Suma suma = new Suma();
+        try {
+            parcurgeXML(tip, fisier, dimensiuneLot, lot -> lot.forEach(entity -> suma.adauga(entity.toString())));
+        } catch (IOException | XMLStreamException | RuntimeException exception) {
+            stergeTemporar(fisier);
+            throw new ValidationException("Fisierul scris nu poate fi recitit: " + exception.getMessage());
+        }
+        return suma;
+    }
+
+    private static <E> Suma sumaText(Tip<E> tip, Path fisier, int dimensiuneLot) {
+        Suma suma = new Suma();
+        try (BufferedReader reader = Files.newBufferedReader(fisier, StandardCharsets.UTF_8)) {
+            List<String> linii = new ArrayList<>(dimensiuneLot);
+            String linie;
+            while ((linie = reader.readLine()) != null) {
+                linii.add(linie);
+                if (linii.size() == dimensiuneLot) {
+                    linii.parallelStream().map(tip::dinLinie).map(Object::toString).toList().forEach(suma::adauga);
+                    linii.clear();
+                }
+            }
+            linii.parallelStream().map(tip::dinLinie).map(Object::toString).toList().forEach(suma::adauga);
+        } catch (IOException | RuntimeException exception) {
+            stergeTemporar(fisier);
+            throw new ValidationException("Fisierul scris nu poate fi recitit: " + exception.getMessage());
+        }
+        return suma;
+    }
+
+    /**
+     * Citeste obiectele unui fisier XML in loturi; valorile fiecarui element sunt adunate pe firul cititorului,
+     * iar construirea obiectelor unui lot se face in paralel
+     */
+    private static <E> void parcurgeXML(Tip<E> tip, Path fisier, int dimensiuneLot, ConsumatorLot<E> consumator)
+            throws IOException, XMLStreamException {
+        try (InputStream intrare = new BufferedInputStream(Files.newInputStream(fisier), DIMENSIUNE_BUFFER)) {
+            XMLStreamReader reader = XMLInputFactory.newFactory().createXMLStreamReader(intrare);
+            List<Map<String, String>> lot = new ArrayList<>(dimensiuneLot);
+            int adancime = 0;
+            while (reader.hasNext()) {
+                int eveniment = reader.next();
+                if (eveniment == XMLStreamConstants.START_ELEMENT) {
+                    adancime++;
+                    if (adancime == 2 && reader.getLocalName().equals(tip.getElement())) {
+                        lot.add(citesteElement(reader));
+                        adancime--;
+                        if (lot.size() == dimensiuneLot) {
+                            consumator.accepta(lot.parallelStream().map(tip::dinXML).toList());
+                            lot.clear();
+                        }
+                    }
+                } else if (eveniment == XMLStreamConstants.END_ELEMENT) {
+                    adancime--;
+                }
+            }
+            consumator.accepta(lot.parallelStream().map(tip::dinXML).toList());
+            reader.close();
+        }
+    }
+
+    private static Map<String, String> citesteElement(XMLStreamReader reader) throws XMLStreamException {
+        Map<String, String> valori = new HashMap<>();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            valori.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String nume = reader.getLocalName();
+            valori.put(nume, reader.getElementText());
+        }
+        return valori;
+    }
+
+    private static void scrieCamp(XMLStreamWriter writer, String nume, String valoare) throws XMLStreamException {
+        writer.writeStartElement(nume);
+        writer.writeCharacters(valoare);
+        writer.writeEndElement();
+    }
+
+    private static long versiune(Map<String, String> valori) {
+        String versiune = valori.get("versiune");
+        return versiune == null || versiune.isEmpty() ? 0 : Long.parseLong(versiune);
+    }
+
+    private static void verificaSiMuta(Suma scrisa, Suma recitita, Path temporar, Path destinatie) {
+        if (scrisa.inregistrari != recitita.inregistrari || scrisa.suma != recitita.suma) {
+            stergeTemporar(temporar);
+            throw new ValidationException("Verificarea conversiei a esuat: " + scrisa.inregistrari + " inregistrari scrise, "
+                    + recitita.inregistrari + " recitite");
+        }
+        try {
+            Files.move(temporar, destinatie, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException exception) {
+            stergeTemporar(temporar);
+            throw new ValidationException(exception.getMessage());
+        }
+    }
+
+    private static Path temporar(Path destinatie) {
+        return destinatie.resolveSibling(destinatie.getFileName() + ".migrare");
+    }
+
+    private static void stergeTemporar(Path temporar) {
+        try {
+            Files.deleteIfExists(temporar);
+        } catch (IOException ignored) {
+            // fisierul temporar ramas nu afecteaza destinatia
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConsumatorLot<E> {
+        void accepta(List<E> lot) throws IOException;
+    }
+
+    /**
+     * Numarul de inregistrari si suma CRC32 a lor; suma nu depinde de ordinea inregistrarilor
+     */
+    private static final class Suma {
+        long inregistrari;
+        long suma;
+
+        void adauga(String inregistrare) {
+            CRC32 crc = new CRC32();
+            crc.update(inregistrare.getBytes(StandardCharsets.UTF_8));
+            suma += crc.getValue();
+            inregistrari++;
+        }
+    }
+}
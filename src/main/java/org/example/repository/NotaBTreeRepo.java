@@ -0,0 +1,24 @@
+package org.example.repository;
+
+import org.example.domain.Nota;
+
+public class NotaBTreeRepo extends AbstractBTreeRepository<Nota> {
+
+    /**
+     * Class constructor
+     * @param filename - numele fisierului
+     */
+    public NotaBTreeRepo(String filename) {
+        super(filename, 256);
+    }
+
+    /**
+     * Extrage informatia despre nota dintr-un string
+     * @param line - stringul din care ia datele notei
+     * @return nota
+     */
+    @Override
+    public Nota extractEntity(String line) {
+        return NotaFileRepository.dinLinie(line);
+    }
+}
@@ -20,9 +20,21 @@ public class NotaFileRepository extends AbstractFileRepository<String, Nota> {
      */
     @Override
     public Nota extractEntity(String line) {
+        return dinLinie(line);
+    }
+
+    /**
+     * Citeste o nota scrisa in formatul fisierului text (Nota.toString); id-ul este idStudent#idTema
+     * Liniile fara nota data de profesor (scrise inainte ca aceasta sa fie salvata) o lasa necunoscuta
+     * @param line - stringul din care ia datele notei
+     * @return nota
+     */
+    public static Nota dinLinie(String line) {
         String[] words = line.split(",");
         String[] data = words[3].split("-");
         LocalDate date = LocalDate.of(Integer.parseInt(data[0]), Integer.parseInt(data[1]), Integer.parseInt(data[2]));
-        return new Nota(words[0]+"#"+words[1], words[0], words[1], Double.parseDouble(words[2]), date);
+        Nota nota = new Nota(words[0]+"#"+words[1], words[0], words[1], Double.parseDouble(words[2]), date);
+        nota.setNotaInitiala(words.length > 4 ? Double.parseDouble(words[4]) : Double.NaN);
+        return nota;
     }
 }
@@ -0,0 +1,75 @@
+package org.example.repository;
+
+import org.example.domain.Nota;
+import org.example.validation.ValidationException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class NotaJdbcRepo extends AbstractJdbcRepository<Nota> implements AgregariNote {
+
+    /**
+     * Class constructor
+     * @param dataSource - pool-ul de conexiuni
+     */
+    public NotaJdbcRepo(DataSource dataSource) {
+        super(dataSource, "note", "id_student VARCHAR(255), id_tema VARCHAR(255), nota DOUBLE, nota_initiala DOUBLE, data DATE",
+                "id_student", "id_tema", "data");
+    }
+
+    @Override
+    protected Nota citeste(ResultSet resultSet) throws SQLException {
+        Date data = resultSet.getDate(7);
+        Nota nota = new Nota(resultSet.getString(1), resultSet.getString(3), resultSet.getString(4),
+                resultSet.getDouble(5), data == null ? null : data.toLocalDate());
+        double notaInitiala = resultSet.getDouble(6);
+        nota.setNotaInitiala(resultSet.wasNull() ? Double.NaN : notaInitiala);
+        nota.setVersiune(resultSet.getLong(2));
+        return nota;
+    }
+
+    @Override
+    protected void completeaza(PreparedStatement statement, int start, Nota entity) throws SQLException {
+        statement.setString(start, entity.getIdStudent());
+        statement.setString(start + 1, entity.getIdTema());
+        statement.setDouble(start + 2, entity.getNota());
+        if (entity.isNotaInitialaCunoscuta()) {
+            statement.setDouble(start + 3, entity.getNotaInitiala());
+        } else {
+            statement.setNull(start + 3, Types.DOUBLE);
+        }
+        statement.setDate(start + 4, entity.getData() == null ? null : Date.valueOf(entity.getData()));
+    }
+
+    @Override
+    public Map<String, Double> mediiPeStudent() {
+        return medii("id_student");
+    }
+
+    @Override
+    public Map<String, Double> mediiPeTema() {
+        return medii("id_tema");
+    }
+
+    private Map<String, Double> medii(String coloana) {
+        Map<String, Double> medii = new LinkedHashMap<>();
+        try (Connection connection = getDataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT " + coloana + ", AVG(nota) FROM " + getTabel() + " GROUP BY " + coloana + " ORDER BY " + coloana);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                medii.put(resultSet.getString(1), resultSet.getDouble(2));
+            }
+        } catch (SQLException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        return medii;
+    }
+}
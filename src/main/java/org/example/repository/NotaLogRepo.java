@@ -0,0 +1,24 @@
+package org.example.repository;
+
+import org.example.domain.Nota;
+
+public class NotaLogRepo extends AbstractLogRepository<Nota> {
+
+    /**
+     * Class constructor
+     * @param director - directorul cu segmente
+     */
+    public NotaLogRepo(String director) {
+        super(director, 4 * 1024 * 1024, 4);
+    }
+
+    /**
+     * Extrage informatia despre nota dintr-un string
+     * @param line - stringul din care ia datele notei
+     * @return nota
+     */
+    @Override
+    public Nota extractEntity(String line) {
+        return NotaFileRepository.dinLinie(line);
+    }
+}
@@ -20,6 +20,11 @@ public class NotaXMLRepo extends AbstractXMLRepository<String, Nota> {
     @Override
     public Element createElementfromEntity(Document document, Nota entity) {
         Element e = document.createElement("nota");
+        e.setAttribute("id", entity.getID());
+        e.setAttribute("versiune", Long.toString(entity.getVersiune()));
+        if (entity.isNotaInitialaCunoscuta()) {
+            e.setAttribute("notaInitiala", Double.toString(entity.getNotaInitiala()));
+        }
 
         Element idStudent = document.createElement("idStudent");
         idStudent.setTextContent(entity.getIdStudent());
@@ -73,6 +78,10 @@ public class NotaXMLRepo extends AbstractXMLRepository<String, Nota> {
         String[] d = data.split("-");
         LocalDate dat = LocalDate.of(Integer.parseInt(d[0]), Integer.parseInt(d[1]), Integer.parseInt(d[2]));
 
-        return new Nota(id,studentId,temaId,Double.parseDouble(notaProf),dat);
+        Nota nota = new Nota(id,studentId,temaId,Double.parseDouble(notaProf),dat);
+        nota.setVersiune(citesteVersiune(element));
+        String notaInitiala = element.getAttribute("notaInitiala");
+        nota.setNotaInitiala(notaInitiala.isEmpty() ? Double.NaN : Double.parseDouble(notaInitiala));
+        return nota;
         }
 }
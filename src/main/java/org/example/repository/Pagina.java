@@ -0,0 +1,66 @@
+package org.example.repository;
+
+import java.util.List;
+
+/**
+ * O pagina din rezultatul unei interogari
+ * @param <E> - tipul entitatilor
+ */
+public class Pagina<E> {
+
+    /**
+     * Pozitia de la care continua pagina urmatoare; e valabila doar pentru o interogare cu aceeasi ordine
+     * @param <E> - tipul entitatilor
+     */
+    public static class Cursor<E> {
+        private final E ultim;
+        private final Object cheie;
+
+        Cursor(E ultim, Object cheie) {
+            this.ultim = ultim;
+            this.cheie = cheie;
+        }
+
+        E getUltim() {
+            return ultim;
+        }
+
+        Object getCheie() {
+            return cheie;
+        }
+    }
+
+    private final List<E> elemente;
+    private final Cursor<E> urmatoarea;
+
+    /**
+     * Class constructor
+     * @param elemente - obiectele din pagina
+     * @param urmatoarea - cursorul paginii urmatoare sau null daca aceasta e ultima
+     */
+    Pagina(List<E> elemente, Cursor<E> urmatoarea) {
+        this.elemente = List.copyOf(elemente);
+        this.urmatoarea = urmatoarea;
+    }
+
+    /**
+     * @return obiectele din pagina
+     */
+    public List<E> getElemente() {
+        return elemente;
+    }
+
+    /**
+     * @return cursorul pentru pagina urmatoare sau null daca aceasta e ultima pagina
+     */
+    public Cursor<E> getUrmatoarea() {
+        return urmatoarea;
+    }
+
+    /**
+     * @return true daca mai exista cel putin o pagina
+     */
+    public boolean areUrmatoarea() {
+        return urmatoarea != null;
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.repository;
+
+import org.example.validation.ValidationException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Urmareste fisierele repository-urilor XML si le reincarca pe un fir de executie separat
+ * cand sunt modificate din afara aplicatiei (ex. editate manual)
+ * Se aplica doar diferentele, care sunt publicate si ca evenimente de modificare
+ */
+public class ReincarcareAutomata implements Closeable {
+
+    private static final long PAUZA_MS = 50;
+
+    private final WatchService watchService;
+    private final Map<Path, AbstractXMLRepository<?, ?>> repositories = new ConcurrentHashMap<>();
+    private final Set<Path> directoare = ConcurrentHashMap.newKeySet();
+    private final Thread fir;
+    private volatile boolean inchis;
+    private final AtomicLong reincarcari = new AtomicLong();
+
+    /**
+     * Class constructor
+     */
+    public ReincarcareAutomata() {
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        }
+        this.fir = new Thread(this::ruleaza, "reincarcare-automata");
+        this.fir.setDaemon(true);
+        this.fir.start();
+    }
+
+    /**
+     * Incepe urmarirea fisierului unui repository
+     * @param repository - repository-ul
+     */
+    public void inregistreaza(AbstractXMLRepository<?, ?> repository) {
+        Path fisier = Path.of(repository.getFilename()).toAbsolutePath().normalize();
+        Path director = fisier.getParent();
+        repositories.put(fisier, repository);
+        if (directoare.add(director)) {
+            try {
+                director.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            } catch (IOException exception) {
+                throw new ValidationException(exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return numarul de reincarcari care au gasit fisierul modificat
+     */
+    public long getReincarcari() {
+        return reincarcari.get();
+    }
+
+    /**
+     * Opreste urmarirea fisierelor
+     */
+    @Override
+    public void close() {
+        inchis = true;
+        try {
+            watchService.close();
+            fir.join();
+        } catch (IOException exception) {
+            throw new ValidationException(exception.getMessage());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ruleaza() {
+        while (!inchis) {
+            try {
+                Set<AbstractXMLRepository<?, ?>> modificate = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                colecteaza(key, modificate);
+                // un editor salveaza de obicei in mai multi pasi; se asteapta sa termine
+                while ((key = watchService.poll(PAUZA_MS, TimeUnit.MILLISECONDS)) != null) {
+                    colecteaza(key, modificate);
+                }
+                for (AbstractXMLRepository<?, ?> repository : modificate) {
+                    try {
+                        if (repository.reincarcaDacaModificatExtern()) {
+                            reincarcari.incrementAndGet();
+                        }
+                    } catch (RuntimeException exception) {
+                        exception.printStackTrace();
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                return;
+            }
+        }
+    }
+
+    private void colecteaza(WatchKey key, Set<AbstractXMLRepository<?, ?>> modificate) {
+        Path director = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                modificate.addAll(repositories.values());
+                continue;
+            }
+            AbstractXMLRepository<?, ?> repository = repositories.get(director.resolve((Path) event.context()));
+            if (repository != null) {
+                modificate.add(repository);
+            }
+        }
+        key.reset();
+    }
+}
@@ -0,0 +1,407 @@
+package org.example.repository;
+
+import org.example.validation.ValidationException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Repository impartit in mai multe fisiere (shard-uri) dupa hash-ul id-ului
+ * Fiecare shard este incarcat, salvat si blocat independent, deci o modificare rescrie un singur fisier
+ * Numarul de shard-uri si generatia fisierelor sunt retinute intr-un manifest (fisier + ".shards");
+ * generatia 0 foloseste numele Note-0.xml, Note-1.xml, ..., iar generatia g numele Note-g{g}-0.xml, ...
+ * @param <ID> - tipul id-ului
+ * @param <E> - tipul entitatilor
+ * @param <R> - tipul repository-ului folosit pentru un shard
+ */
+public class ShardedRepository<ID, E extends HasID<ID>, R extends CrudRepository<ID, E> & FileRepository<ID, E>>
+        implements CrudRepository<ID, E>, FileRepository<ID, E> {
+
+    private final List<R> shards;
+    private final ReadWriteLock[] locks;
+
+    /**
+     * Class constructor; shard-urile sunt incarcate in paralel
+     * Fara manifest, fisierele sunt cele din generatia 0 si manifestul e creat cu numarul dat
+     * @param filename - numele fisierului de baza, ex. Note.xml devine Note-0.xml, Note-1.xml, ...
+     * @param numarShards - numarul de shard-uri
+     * @param fabrica - creeaza repository-ul unui shard pornind de la numele fisierului lui
+     * @throws ValidationException daca manifestul indica alt numar de shard-uri
+     */
+    public ShardedRepository(String filename, int numarShards, Function<String, R> fabrica) {
+        this(filename, Manifest.citeste(filename, numarShards), fabrica);
+        if (shards.size() != numarShards) {
+            throw new ValidationException("Fisierul " + filename + " are " + shards.size()
+                    + " shard-uri, nu " + numarShards + "; folositi ReshardApplication pentru a le schimba numarul");
+        }
+    }
+
+    private ShardedRepository(String filename, Manifest manifest, Function<String, R> fabrica) {
+        if (manifest.shards <= 0) {
+            throw new ValidationException("Numarul de shard-uri trebuie sa fie pozitiv!");
+        }
+        if (!manifest.exista) {
+            manifest.scrie(filename);
+        }
+        this.shards = IntStream.range(0, manifest.shards)
+                .parallel()
+                .mapToObj(i -> fabrica.apply(numeShard(filename, manifest.generatie, i)))
+                .toList();
+        this.locks = new ReadWriteLock[shards.size()];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * @param filename - numele fisierului de baza
+     * @param index - indexul shard-ului
+     * @return numele fisierului shard-ului
+     */
+    public static String numeShard(String filename, int index) {
+        return cuSufix(filename, "-" + index);
+    }
+
+    /**
+     * @param filename - numele fisierului de baza
+     * @param generatie - generatia fisierelor, din manifest
+     * @param index - indexul shard-ului
+     * @return numele fisierului shard-ului din generatia data
+     */
+    public static String numeShard(String filename, int generatie, int index) {
+        return numeShard(generatie == 0 ? filename : cuSufix(filename, "-g" + generatie), index);
+    }
+
+    private static String cuSufix(String filename, String sufix) {
+        int punct = filename.lastIndexOf('.');
+        if (punct <= filename.lastIndexOf(File.separatorChar) || punct <= filename.lastIndexOf('/')) {
+            return filename + sufix;
+        }
+        return filename.substring(0, punct) + sufix + filename.substring(punct);
+    }
+
+    /**
+     * @return numarul de shard-uri
+     */
+    public int getNumarShards() {
+        return shards.size();
+    }
+
+    /**
+     * @return repository-urile shard-urilor, in ordine
+     */
+    public List<R> getShards() {
+        return shards;
+    }
+
+    @Override
+    public E findOne(ID id) {
+        int index = shard(id);
+        locks[index].readLock().lock();
+        try {
+            return shards.get(index).findOne(id);
+        } finally {
+            locks[index].readLock().unlock();
+        }
+    }
+
+    /**
+     * @return obiectele din toate shard-urile
+     */
+    @Override
+    public Iterable<E> findAll() {
+        List<E> toate = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            locks[i].readLock().lock();
+            try {
+                shards.get(i).findAll().forEach(toate::add);
+            } finally {
+                locks[i].readLock().unlock();
+            }
+        }
+        return toate;
+    }
+
+    /**
+     * Inregistreaza acelasi index in toate shard-urile; indexurile sunt concurente,
+     * deci shard-urile il pot modifica in paralel
+     * @param index - indexul
+     * @return indexul inregistrat
+     */
+    @Override
+    public <I extends Index<ID, E>> I adaugaIndex(I index) {
+        for (int i = 0; i < shards.size(); i++) {
+            locks[i].writeLock().lock();
+            try {
+                shards.get(i).adaugaIndex(index);
+            } finally {
+                locks[i].writeLock().unlock();
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public E save(E entity) {
+        int index = shard(entity.getID());
+        locks[index].writeLock().lock();
+        try {
+            return shards.get(index).save(entity);
+        } finally {
+            locks[index].writeLock().unlock();
+        }
+    }
+
+    /**
+     * Salveaza mai multe obiecte, grupate pe shard-uri, cu o singura scriere per shard
+     * @param entities - obiectele pe care le salveaza
+     * @return obiectele care existau deja
+     */
+    @Override
+    public List<E> saveAll(Iterable<E> entities) {
+        List<List<E>> grupuri = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            grupuri.add(new ArrayList<>());
+        }
+        entities.forEach(e -> grupuri.get(shard(e.getID())).add(e));
+        List<E> existente = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (grupuri.get(i).isEmpty()) {
+                continue;
+            }
+            locks[i].writeLock().lock();
+            try {
+                existente.addAll(shards.get(i).saveAll(grupuri.get(i)));
+            } finally {
+                locks[i].writeLock().unlock();
+            }
+        }
+        return existente;
+    }
+
+    /**
+     * Sterge mai multe obiecte, grupate pe shard-uri, cu o singura scriere per shard
+     * @param ids - id-urile obiectelor
+     * @return obiectele sterse
+     */
+    @Override
+    public List<E> deleteAll(Iterable<ID> ids) {
+        List<List<ID>> grupuri = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            grupuri.add(new ArrayList<>());
+        }
+        ids.forEach(id -> grupuri.get(shard(id)).add(id));
+        List<E> sterse = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (grupuri.get(i).isEmpty()) {
+                continue;
+            }
+            locks[i].writeLock().lock();
+            try {
+                sterse.addAll(shards.get(i).deleteAll(grupuri.get(i)));
+            } finally {
+                locks[i].writeLock().unlock();
+            }
+        }
+        return sterse;
+    }
+
+    @Override
+    public E delete(ID id) {
+        int index = shard(id);
+        locks[index].writeLock().lock();
+        try {
+            return shards.get(index).delete(id);
+        } finally {
+            locks[index].writeLock().unlock();
+        }
+    }
+
+    /**
+     * Modifica mai multe obiecte, grupate pe shard-uri, cu o singura scriere per shard
+     * @param entities - noile obiecte
+     * @return obiectele nemodificate
+     */
+    @Override
+    public List<E> updateAll(Iterable<E> entities) {
+        List<List<E>> grupuri = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            grupuri.add(new ArrayList<>());
+        }
+        entities.forEach(e -> grupuri.get(shard(e.getID())).add(e));
+        List<E> nemodificate = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (grupuri.get(i).isEmpty()) {
+                continue;
+            }
+            locks[i].writeLock().lock();
+            try {
+                nemodificate.addAll(shards.get(i).updateAll(grupuri.get(i)));
+            } finally {
+                locks[i].writeLock().unlock();
+            }
+        }
+        return nemodificate;
+    }
+
+    @Override
+    public E update(E entity) {
+        int index = shard(entity.getID());
+        locks[index].writeLock().lock();
+        try {
+            return shards.get(index).update(entity);
+        } finally {
+            locks[index].writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reincarca toate shard-urile, in paralel
+     */
+    @Override
+    public void loadFromFile() {
+        IntStream.range(0, shards.size()).parallel().forEach(i -> {
+            locks[i].writeLock().lock();
+            try {
+                shards.get(i).loadFromFile();
+            } finally {
+                locks[i].writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Scrie un obiect nou in shard-ul lui
+     * @param entity - obiectul pe care il scrie
+     */
+    @Override
+    public void saveToFile(E entity) {
+        int index = shard(entity.getID());
+        locks[index].writeLock().lock();
+        try {
+            shards.get(index).saveToFile(entity);
+        } finally {
+            locks[index].writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rescrie toate shard-urile
+     */
+    @Override
+    public void writeToFile() {
+        for (int i = 0; i < shards.size(); i++) {
+            locks[i].writeLock().lock();
+            try {
+                shards.get(i).writeToFile();
+            } finally {
+                locks[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Redistribuie datele de pe un numar de shard-uri pe altul
+     * Shard-urile noi sunt scrise intr-o generatie noua de fisiere, iar manifestul e inlocuit atomic
+     * abia dupa ce toate sunt scrise; o cadere inainte de inlocuire lasa doar generatia veche activa,
+     * iar fisierele generatiei vechi sunt sterse dupa inlocuire
+     * @param filename - numele fisierului de baza
+     * @param numarVechi - numarul actual de shard-uri
+     * @param numarNou - numarul dorit de shard-uri
+     * @param fabrica - creeaza repository-ul unui shard pornind de la numele fisierului lui
+     */
+    public static <ID, E extends HasID<ID>, R extends CrudRepository<ID, E> & FileRepository<ID, E>> void reshard(
+            String filename, int numarVechi, int numarNou, Function<String, R> fabrica) {
+        Manifest vechi = Manifest.citeste(filename, numarVechi);
+        ShardedRepository<ID, E, R> sursa = new ShardedRepository<>(filename, numarVechi, fabrica);
+        Manifest nou = new Manifest(true, vechi.generatie + 1, numarNou);
+        // fisiere ramase de la o redistribuire intrerupta
+        for (int i = 0; i < numarNou; i++) {
+            new File(numeShard(filename, nou.generatie, i)).delete();
+        }
+        ShardedRepository<ID, E, R> destinatie = new ShardedRepository<>(filename, nou, fabrica);
+        destinatie.saveAll(sursa.findAll());
+        nou.scrie(filename);
+        for (int i = 0; i < vechi.shards; i++) {
+            new File(numeShard(filename, vechi.generatie, i)).delete();
+        }
+    }
+
+    private static void muta(Path sursa, Path tinta) throws IOException {
+        try {
+            Files.move(sursa, tinta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException exception) {
+            Files.move(sursa, tinta, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Continutul manifestului: generatia fisierelor si numarul de shard-uri
+     */
+    private static final class Manifest {
+        final boolean exista;
+        final int generatie;
+        final int shards;
+
+        Manifest(boolean exista, int generatie, int shards) {
+            this.exista = exista;
+            this.generatie = generatie;
+            this.shards = shards;
+        }
+
+        /**
+         * @param filename - numele fisierului de baza
+         * @param implicit - numarul de shard-uri cand manifestul nu exista (generatia 0)
+         */
+        static Manifest citeste(String filename, int implicit) {
+            Path fisier = Path.of(filename + ".shards");
+            if (!Files.exists(fisier)) {
+                return new Manifest(false, 0, implicit);
+            }
+            Properties proprietati = new Properties();
+            try (InputStream in = Files.newInputStream(fisier)) {
+                proprietati.load(in);
+                return new Manifest(true, Integer.parseInt(proprietati.getProperty("generatie")),
+                        Integer.parseInt(proprietati.getProperty("shards")));
+            } catch (IOException | RuntimeException exception) {
+                throw new ValidationException("Manifestul " + fisier + " nu poate fi citit: " + exception.getMessage());
+            }
+        }
+
+        /**
+         * Scrie manifestul intr-un fisier temporar si il muta atomic peste cel vechi
+         */
+        void scrie(String filename) {
+            Path fisier = Path.of(filename + ".shards");
+            Path temporar = Path.of(filename + ".shards.tmp");
+            Properties proprietati = new Properties();
+            proprietati.setProperty("generatie", String.valueOf(generatie));
+            proprietati.setProperty("shards", String.valueOf(shards));
+            try {
+                try (OutputStream out = Files.newOutputStream(temporar)) {
+                    proprietati.store(out, null);
+                }
+                muta(temporar, fisier);
+            } catch (IOException exception) {
+                throw new ValidationException(exception.getMessage());
+            }
+        }
+    }
+
+    private int shard(ID id) {
+        return Math.floorMod(id.hashCode(), shards.size());
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.repository;
+
+import org.example.domain.Nota;
+import org.example.domain.Student;
+import org.example.domain.Tema;
+import org.example.validation.ValidationException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Repository-urile deschise de un StorageProvider, impreuna cu resursele care trebuie inchise la final
+ */
+public class Stocare implements Closeable {
+
+    private final CrudRepository<String, Student> studenti;
+    private final CrudRepository<String, Tema> teme;
+    private final CrudRepository<String, Nota> note;
+    private final List<Closeable> resurse = new ArrayList<>();
+
+    /**
+     * Class constructor
+     * @param studenti - repository-ul studentilor
+     * @param teme - repository-ul temelor
+     * @param note - repository-ul notelor
+     */
+    public Stocare(CrudRepository<String, Student> studenti, CrudRepository<String, Tema> teme,
+                   CrudRepository<String, Nota> note) {
+        this.studenti = studenti;
+        this.teme = teme;
+        this.note = note;
+    }
+
+    /**
+     * Deschide backend-ul ales prin cheia "stocare" (implicit "xml")
+     * Cu cheia "stocare.cache" (LRU sau TINY_LFU) repository-urile sunt invelite intr-un CachingRepository
+     * de capacitate "stocare.cache.capacitate" (implicit 10000 de obiecte)
+     * @param configurare - configurarea
+     * @return repository-urile deschise
+     * @throws ValidationException daca politica de cache e necunoscuta
+     */
+    public static Stocare deschide(Properties configurare) {
+        Stocare stocare = StorageProvider.gaseste(configurare.getProperty("stocare", "xml")).deschide(configurare);
+        String cache = configurare.getProperty("stocare.cache", "").trim();
+        if (cache.isEmpty()) {
+            return stocare;
+        }
+        CachingRepository.Politica politica;
+        try {
+            politica = CachingRepository.Politica.valueOf(cache.toUpperCase());
+        } catch (IllegalArgumentException exception) {
+            stocare.close();
+            throw new ValidationException("Politica de cache necunoscuta: " + cache);
+        }
+        return stocare.cuCache(politica, Long.parseLong(configurare.getProperty("stocare.cache.capacitate", "10000")));
+    }
+
+    /**
+     * Inveleste repository-urile intr-un CachingRepository; resursele trec la stocarea intoarsa
+     * @param politica - politica de evictie
+     * @param capacitate - numarul maxim de obiecte din cache-ul fiecarui repository
+     * @return stocarea cu cache
+     */
+    public Stocare cuCache(CachingRepository.Politica politica, long capacitate) {
+        Stocare cuCache = new Stocare(new CachingRepository<>(studenti, politica, capacitate),
+                new CachingRepository<>(teme, politica, capacitate),
+                new CachingRepository<>(note, politica, capacitate));
+        cuCache.resurse.addAll(resurse);
+        resurse.clear();
+        return cuCache;
+    }
+
+    /**
+     * Adauga o resursa inchisa odata cu stocarea; resursele sunt inchise in ordinea inversa adaugarii
+     * @param resursa - resursa
+     * @return aceasta stocare
+     */
+    public Stocare inchideLaFinal(Closeable resursa) {
+        resurse.add(resursa);
+        return this;
+    }
+
+    /**
+     * @return repository-ul studentilor
+     */
+    public CrudRepository<String, Student> getStudenti() {
+        return studenti;
+    }
+
+    /**
+     * @return repository-ul temelor
+     */
+    public CrudRepository<String, Tema> getTeme() {
+        return teme;
+    }
+
+    /**
+     * @return repository-ul notelor
+     */
+    public CrudRepository<String, Nota> getNote() {
+        return note;
+    }
+
+    /**
+     * Inchide resursele backend-ului; o eroare la inchiderea unei resurse e afisata, iar celelalte sunt inchise oricum
+     */
+    @Override
+    public void close() {
+        for (int i = resurse.size() - 1; i >= 0; i--) {
+            try {
+                resurse.get(i).close();
+            } catch (IOException | RuntimeException exception) {
+                System.err.println("Resursa nu a putut fi inchisa: " + exception.getMessage());
+            }
+        }
+        resurse.clear();
+    }
+}
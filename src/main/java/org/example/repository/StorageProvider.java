@@ -0,0 +1,51 @@
+package org.example.repository;
+
+import org.example.validation.ValidationException;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.ServiceLoader;
+
+/**
+ * Backend de stocare pentru studenti, teme si note
+ * Implementarile sunt descoperite prin ServiceLoader (META-INF/services/org.example.repository.StorageProvider)
+ * si alese dupa nume din configurare, deci un backend nou nu necesita modificari in Service sau in aplicatie
+ */
+public interface StorageProvider {
+
+    /**
+     * @return numele backend-ului, folosit in configurare (ex. "xml")
+     */
+    String getNume();
+
+    /**
+     * Deschide repository-urile backend-ului
+     * @param configurare - configurarea; cheile "stocare.studenti", "stocare.teme", "stocare.note"
+     *                    dau fisierele (sau directoarele), iar celelalte chei sunt specifice backend-ului
+     * @return repository-urile deschise
+     */
+    Stocare deschide(Properties configurare);
+
+    /**
+     * @return numele tuturor backend-urilor gasite
+     */
+    static List<String> disponibile() {
+        return ServiceLoader.load(StorageProvider.class).stream()
+                .map(furnizor -> furnizor.get().getNume())
+                .toList();
+    }
+
+    /**
+     * @param nume - numele backend-ului
+     * @return backend-ul cu numele dat
+     * @throws ValidationException daca nu exista niciun backend cu acest nume
+     */
+    static StorageProvider gaseste(String nume) {
+        for (StorageProvider furnizor : ServiceLoader.load(StorageProvider.class)) {
+            if (furnizor.getNume().equalsIgnoreCase(nume)) {
+                return furnizor;
+            }
+        }
+        throw new ValidationException("Backend de stocare necunoscut: " + nume + " (disponibile: " + disponibile() + ")");
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import org.example.domain.Student;
+
+public class StudentBTreeRepo extends AbstractBTreeRepository<Student> {
+
+    /**
+     * Class constructor
+     * @param filename - numele fisierului
+     */
+    public StudentBTreeRepo(String filename) {
+        super(filename, 256);
+    }
+
+    /**
+     * Extrage informatia despre student dintr-un string
+     * @param linie - stringul din care ia datele studentului
+     * @return studentul
+     */
+    @Override
+    public Student extractEntity(String linie) {
+        String[] cuvinte = linie.split(",");
+        return new Student(cuvinte[0], cuvinte[1], Integer.parseInt(cuvinte[2]), cuvinte[3]);
+    }
+}
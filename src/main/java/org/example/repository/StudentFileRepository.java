@@ -19,6 +19,15 @@ public class StudentFileRepository extends AbstractFileRepository<String, Studen
      */
     @Override
     public Student extractEntity(String linie) {
+        return dinLinie(linie);
+    }
+
+    /**
+     * Citeste un student scris in formatul fisierului text (Student.toString)
+     * @param linie - stringul din care ia datele studentului
+     * @return studentul
+     */
+    public static Student dinLinie(String linie) {
         String[] cuvinte = linie.split(",");
         return new Student(cuvinte[0], cuvinte[1], Integer.parseInt(cuvinte[2]), cuvinte[3]);
     }
@@ -0,0 +1,33 @@
+package org.example.repository;
+
+import org.example.domain.Student;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class StudentJdbcRepo extends AbstractJdbcRepository<Student> {
+
+    /**
+     * Class constructor
+     * @param dataSource - pool-ul de conexiuni
+     */
+    public StudentJdbcRepo(DataSource dataSource) {
+        super(dataSource, "studenti", "nume VARCHAR(255), grupa INT, email VARCHAR(255)", "grupa");
+    }
+
+    @Override
+    protected Student citeste(ResultSet resultSet) throws SQLException {
+        Student student = new Student(resultSet.getString(1), resultSet.getString(3), resultSet.getInt(4), resultSet.getString(5));
+        student.setVersiune(resultSet.getLong(2));
+        return student;
+    }
+
+    @Override
+    protected void completeaza(PreparedStatement statement, int start, Student entity) throws SQLException {
+        statement.setString(start, entity.getNume());
+        statement.setInt(start + 1, entity.getGrupa());
+        statement.setString(start + 2, entity.getEmail());
+    }
+}
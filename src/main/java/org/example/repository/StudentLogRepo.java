@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import org.example.domain.Student;
+
+public class StudentLogRepo extends AbstractLogRepository<Student> {
+
+    /**
+     * Class constructor
+     * @param director - directorul cu segmente
+     */
+    public StudentLogRepo(String director) {
+        super(director, 4 * 1024 * 1024, 4);
+    }
+
+    /**
+     * Extrage informatia despre student dintr-un string
+     * @param linie - stringul din care ia datele studentului
+     * @return studentul
+     */
+    @Override
+    public Student extractEntity(String linie) {
+        String[] cuvinte = linie.split(",");
+        return new Student(cuvinte[0], cuvinte[1], Integer.parseInt(cuvinte[2]), cuvinte[3]);
+    }
+}
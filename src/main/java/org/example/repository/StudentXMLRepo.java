@@ -34,13 +34,16 @@ public class StudentXMLRepo extends AbstractXMLRepository<String, Student> {
                 .item(0)
                 .getTextContent();
 
-        return new Student(studentId, nume, Integer.parseInt(grupa), email);
+        Student student = new Student(studentId, nume, Integer.parseInt(grupa), email);
+        student.setVersiune(citesteVersiune(element));
+        return student;
     }
 
     @Override
     public Element createElementfromEntity(Document document, Student entity) {
         Element e = document.createElement("student");
         e.setAttribute("idStudent", entity.getID());
+        e.setAttribute("versiune", Long.toString(entity.getVersiune()));
 
         Element nume = document.createElement("nume");
         nume.setTextContent(entity.getNume());
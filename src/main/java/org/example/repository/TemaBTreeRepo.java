@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import org.example.domain.Tema;
+
+public class TemaBTreeRepo extends AbstractBTreeRepository<Tema> {
+
+    /**
+     * Class constructor
+     * @param filename - numele fisierului
+     */
+    public TemaBTreeRepo(String filename) {
+        super(filename, 256);
+    }
+
+    /**
+     * Extrage informatia despre tema dintr-un string
+     * @param linie - stringul din care ia datele temei
+     * @return tema
+     */
+    @Override
+    public Tema extractEntity(String linie) {
+        String[] cuvinte = linie.split(",");
+        return new Tema(cuvinte[0], cuvinte[1], Integer.parseInt(cuvinte[2]), Integer.parseInt(cuvinte[3]));
+    }
+}
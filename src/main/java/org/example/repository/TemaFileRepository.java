@@ -19,6 +19,15 @@ public class TemaFileRepository extends AbstractFileRepository<String, Tema> {
      */
     @Override
     public Tema extractEntity(String linie) {
+        return dinLinie(linie);
+    }
+
+    /**
+     * Citeste o tema scrisa in formatul fisierului text (Tema.toString)
+     * @param linie - stringul din care ia datele temei
+     * @return tema
+     */
+    public static Tema dinLinie(String linie) {
         String[] cuvinte = linie.split(",");
         return new Tema(cuvinte[0], cuvinte[1], Integer.parseInt(cuvinte[2]), Integer.parseInt(cuvinte[3]));
     }
@@ -0,0 +1,33 @@
+package org.example.repository;
+
+import org.example.domain.Tema;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class TemaJdbcRepo extends AbstractJdbcRepository<Tema> {
+
+    /**
+     * Class constructor
+     * @param dataSource - pool-ul de conexiuni
+     */
+    public TemaJdbcRepo(DataSource dataSource) {
+        super(dataSource, "teme", "descriere VARCHAR(1000), deadline INT, primire INT");
+    }
+
+    @Override
+    protected Tema citeste(ResultSet resultSet) throws SQLException {
+        Tema tema = new Tema(resultSet.getString(1), resultSet.getString(3), resultSet.getInt(4), resultSet.getInt(5));
+        tema.setVersiune(resultSet.getLong(2));
+        return tema;
+    }
+
+    @Override
+    protected void completeaza(PreparedStatement statement, int start, Tema entity) throws SQLException {
+        statement.setString(start, entity.getDescriere());
+        statement.setInt(start + 1, entity.getDeadline());
+        statement.setInt(start + 2, entity.getPrimire());
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import org.example.domain.Tema;
+
+public class TemaLogRepo extends AbstractLogRepository<Tema> {
+
+    /**
+     * Class constructor
+     * @param director - directorul cu segmente
+     */
+    public TemaLogRepo(String director) {
+        super(director, 4 * 1024 * 1024, 4);
+    }
+
+    /**
+     * Extrage informatia despre tema dintr-un string
+     * @param linie - stringul din care ia datele temei
+     * @return tema
+     */
+    @Override
+    public Tema extractEntity(String linie) {
+        String[] cuvinte = linie.split(",");
+        return new Tema(cuvinte[0], cuvinte[1], Integer.parseInt(cuvinte[2]), Integer.parseInt(cuvinte[3]));
+    }
+}
@@ -34,7 +34,9 @@ public class TemaXMLRepo extends AbstractXMLRepository<String, Tema> {
                 .item(0)
                 .getTextContent();
 
-        return new Tema(nrTema, descriere, Integer.parseInt(deadline), Integer.parseInt(primire));
+        Tema tema = new Tema(nrTema, descriere, Integer.parseInt(deadline), Integer.parseInt(primire));
+        tema.setVersiune(citesteVersiune(element));
+        return tema;
     }
 
     /**
@@ -47,6 +49,7 @@ public class TemaXMLRepo extends AbstractXMLRepository<String, Tema> {
     public Element createElementfromEntity(Document document, Tema entity) {
         Element e = document.createElement("nrTema");
         e.setAttribute("nrTema", entity.getID());
+        e.setAttribute("versiune", Long.toString(entity.getVersiune()));
 
         Element descriere = document.createElement("descriere");
         descriere.setTextContent(entity.getDescriere());
@@ -0,0 +1,33 @@
+package org.example.repository;
+
+import java.util.Properties;
+
+/**
+ * Backend "text": StudentFileRepository, TemaFileRepository, NotaFileRepository (o linie per obiect)
+ * Cu "stocare.shards" mai mare decat 1 fiecare fisier e impartit intr-un ShardedRepository cu atatea shard-uri
+ */
+public class TextStorageProvider implements StorageProvider {
+
+    @Override
+    public String getNume() {
+        return "text";
+    }
+
+    @Override
+    public Stocare deschide(Properties configurare) {
+        String fisierStudenti = configurare.getProperty("stocare.studenti", "./fisiere/Studenti.txt");
+        String fisierTeme = configurare.getProperty("stocare.teme", "./fisiere/Teme.txt");
+        String fisierNote = configurare.getProperty("stocare.note", "./fisiere/Note.txt");
+        int numarShards = Integer.parseInt(configurare.getProperty("stocare.shards", "1"));
+        if (numarShards > 1) {
+            return new Stocare(
+                    new ShardedRepository<>(fisierStudenti, numarShards, StudentFileRepository::new),
+                    new ShardedRepository<>(fisierTeme, numarShards, TemaFileRepository::new),
+                    new ShardedRepository<>(fisierNote, numarShards, NotaFileRepository::new));
+        }
+        return new Stocare(
+                new StudentFileRepository(fisierStudenti),
+                new TemaFileRepository(fisierTeme),
+                new NotaFileRepository(fisierNote));
+    }
+}
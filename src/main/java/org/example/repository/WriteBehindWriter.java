@@ -0,0 +1,225 @@
+package org.example.repository;
+
+import org.example.validation.ValidationException;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Scrie fisierele repository-urilor pe un fir de executie separat
+ * Rescrierile succesive ale aceluiasi fisier sunt unite intr-una singura, iar numarul de modificari
+ * nescrise este marginit: cand scriitorul ramane in urma, cel care modifica asteapta
+ * O rescriere esuata ramane programata si este reincercata; esecurile sunt numarate si afisate
+ */
+public class WriteBehindWriter implements Closeable {
+
+    private final int capacitate;
+    private final Semaphore locuriLibere;
+    private final LinkedBlockingQueue<Object> coada = new LinkedBlockingQueue<>();
+    private final Map<Object, Scriere> inAsteptare = new ConcurrentHashMap<>();
+    private final Thread scriitor;
+    private final ReadWriteLock inchidere = new ReentrantReadWriteLock();
+    private volatile boolean inchis;
+
+    private final AtomicLong scrieri = new AtomicLong();
+    private final AtomicLong modificariCoalescate = new AtomicLong();
+    private final AtomicLong esecuri = new AtomicLong();
+    private volatile RuntimeException ultimaEroare;
+
+    /**
+     * Class constructor
+     * @param capacitate - numarul maxim de modificari acceptate si inca nescrise pe disc
+     */
+    public WriteBehindWriter(int capacitate) {
+        this.capacitate = capacitate;
+        this.locuriLibere = new Semaphore(capacitate);
+        this.scriitor = new Thread(this::ruleaza, "write-behind");
+        this.scriitor.setDaemon(true);
+        this.scriitor.start();
+    }
+
+    /**
+     * Programeaza rescrierea unui fisier; daca rescrierea lui e deja programata, cele doua se unesc
+     * Blocheaza daca sunt deja prea multe modificari nescrise; dupa close rescrierea se face imediat
+     * Verificarea inchiderii si punerea in coada se fac sub acelasi lock pe care close il ia exclusiv,
+     * deci o rescriere acceptata ajunge sigur in golirea finala
+     * @param fisier - cheia dupa care se unesc rescrierile (de obicei repository-ul)
+     * @param actiune - rescrierea propriu-zisa
+     */
+    public void programeaza(Object fisier, Runnable actiune) {
+        inchidere.readLock().lock();
+        try {
+            if (inchis) {
+                actiune.run();
+                return;
+            }
+            locuriLibere.acquireUninterruptibly();
+            inAsteptare.compute(fisier, (cheie, scriere) -> {
+                if (scriere == null) {
+                    scriere = new Scriere(actiune);
+                    coada.add(cheie);
+                } else {
+                    modificariCoalescate.incrementAndGet();
+                }
+                scriere.modificari++;
+                return scriere;
+            });
+        } finally {
+            inchidere.readLock().unlock();
+        }
+    }
+
+    /**
+     * Opreste scriitorul dupa ce acesta scrie toate modificarile ramase
+     * @throws ValidationException daca unele fisiere nu au putut fi scrise
+     */
+    @Override
+    public void close() {
+        inchidere.writeLock().lock();
+        try {
+            inchis = true;
+        } finally {
+            inchidere.writeLock().unlock();
+        }
+        try {
+            scriitor.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        List<String> erori = new ArrayList<>();
+        for (Object fisier : inAsteptare.keySet()) {
+            Scriere scriere = inAsteptare.remove(fisier);
+            if (scriere != null) {
+                try {
+                    scriere.actiune.run();
+                    scrieri.incrementAndGet();
+                } catch (RuntimeException exception) {
+                    esecuri.incrementAndGet();
+                    ultimaEroare = exception;
+                    erori.add(exception.getMessage());
+                } finally {
+                    locuriLibere.release(scriere.modificari);
+                }
+            }
+        }
+        if (!erori.isEmpty()) {
+            throw new ValidationException("Modificari nescrise pe disc: " + erori);
+        }
+    }
+
+    /**
+     * @return vechimea in milisecunde a celei mai vechi modificari nescrise, 0 daca nu exista
+     */
+    public long getIntarziereMs() {
+        long acum = System.nanoTime();
+        long maxim = 0;
+        for (Scriere scriere : inAsteptare.values()) {
+            maxim = Math.max(maxim, acum - scriere.primaModificare);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(maxim);
+    }
+
+    /**
+     * @return numarul de modificari acceptate si inca nescrise pe disc
+     */
+    public int getModificariNescrise() {
+        return capacitate - locuriLibere.availablePermits();
+    }
+
+    /**
+     * @return numarul de rescrieri de fisiere efectuate
+     */
+    public long getScrieri() {
+        return scrieri.get();
+    }
+
+    /**
+     * @return numarul de modificari care nu au necesitat o rescriere proprie
+     */
+    public long getModificariCoalescate() {
+        return modificariCoalescate.get();
+    }
+
+    /**
+     * @return numarul de rescrieri esuate (fiecare reincercare esuata e numarata)
+     */
+    public long getEsecuri() {
+        return esecuri.get();
+    }
+
+    /**
+     * @return eroarea ultimei rescrieri esuate sau null daca nu a esuat niciuna
+     */
+    public RuntimeException getUltimaEroare() {
+        return ultimaEroare;
+    }
+
+    private void ruleaza() {
+        while (true) {
+            Object fisier;
+            try {
+                fisier = coada.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                fisier = null;
+            }
+            if (fisier == null) {
+                if (inchis && coada.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            // scoaterea se face inainte de scriere, ca modificarile venite in timpul ei sa programeze alta scriere
+            Scriere scriere = inAsteptare.remove(fisier);
+            try {
+                scriere.actiune.run();
+                scrieri.incrementAndGet();
+            } catch (RuntimeException exception) {
+                esecuri.incrementAndGet();
+                ultimaEroare = exception;
+                System.err.println("Rescriere esuata, va fi reincercata: " + exception.getMessage());
+                reprogrameaza(fisier, scriere.actiune);
+            } finally {
+                locuriLibere.release(scriere.modificari);
+            }
+        }
+    }
+
+    /**
+     * Pune inapoi o rescriere esuata, daca intre timp nu s-a programat alta rescriere a fisierului
+     * Locurile ei sunt eliberate, ca un disc care nu isi revine sa nu blocheze modificarile si inchiderea
+     */
+    private void reprogrameaza(Object fisier, Runnable actiune) {
+        if (!inchis) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException exception) {
+                // reincercarea se face mai devreme
+            }
+        }
+        inAsteptare.computeIfAbsent(fisier, cheie -> {
+            if (!inchis) {
+                coada.add(cheie);
+            }
+            return new Scriere(actiune);
+        });
+    }
+
+    private static final class Scriere {
+        final Runnable actiune;
+        final long primaModificare = System.nanoTime();
+        int modificari;
+
+        Scriere(Runnable actiune) {
+            this.actiune = actiune;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.repository;
+
+import org.example.domain.Nota;
+import org.example.domain.Student;
+import org.example.domain.Tema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Backend "xml": StudentXMLRepo, TemaXMLRepo, NotaXMLRepo
+ * Cu "stocare.shards" mai mare decat 1 fiecare fisier e impartit intr-un ShardedRepository cu atatea shard-uri
+ * Chei proprii: "xml.partajat" (mai multe procese pe aceleasi fisiere, scriere sincrona sub lock),
+ * "xml.writeBehind" (numarul maxim de modificari nescrise, 0 pentru scriere sincrona),
+ * "xml.reincarcare" (reincarca fisierele modificate de alte procese)
+ */
+public class XMLStorageProvider implements StorageProvider {
+
+    @Override
+    public String getNume() {
+        return "xml";
+    }
+
+    @Override
+    public Stocare deschide(Properties configurare) {
+        String fisierStudenti = configurare.getProperty("stocare.studenti", "./fisiere/Studenti.xml");
+        String fisierTeme = configurare.getProperty("stocare.teme", "./fisiere/Teme.xml");
+        String fisierNote = configurare.getProperty("stocare.note", "./fisiere/Note.xml");
+        int numarShards = Integer.parseInt(configurare.getProperty("stocare.shards", "1"));
+        List<AbstractXMLRepository<?, ?>> fisiere = new ArrayList<>();
+        Stocare stocare;
+        if (numarShards > 1) {
+            ShardedRepository<String, Student, StudentXMLRepo> studenti =
+                    new ShardedRepository<>(fisierStudenti, numarShards, StudentXMLRepo::new);
+            ShardedRepository<String, Tema, TemaXMLRepo> teme =
+                    new ShardedRepository<>(fisierTeme, numarShards, TemaXMLRepo::new);
+            ShardedRepository<String, Nota, NotaXMLRepo> note =
+                    new ShardedRepository<>(fisierNote, numarShards, NotaXMLRepo::new);
+            fisiere.addAll(studenti.getShards());
+            fisiere.addAll(teme.getShards());
+            fisiere.addAll(note.getShards());
+            stocare = new Stocare(studenti, teme, note);
+        } else {
+            StudentXMLRepo studenti = new StudentXMLRepo(fisierStudenti);
+            TemaXMLRepo teme = new TemaXMLRepo(fisierTeme);
+            NotaXMLRepo note = new NotaXMLRepo(fisierNote);
+            fisiere.addAll(List.of(studenti, teme, note));
+            stocare = new Stocare(studenti, teme, note);
+        }
+        int writeBehind = Integer.parseInt(configurare.getProperty("xml.writeBehind", "0"));
+        if (Boolean.parseBoolean(configurare.getProperty("xml.partajat", "false"))) {
+            fisiere.forEach(AbstractXMLRepository::activeazaAccesPartajat);
+        } else if (writeBehind > 0) {
+            WriteBehindWriter writer = new WriteBehindWriter(writeBehind);
+            fisiere.forEach(fisier -> fisier.setWriteBehind(writer));
+            stocare.inchideLaFinal(writer);
+        }
+        if (Boolean.parseBoolean(configurare.getProperty("xml.reincarcare", "false"))) {
+            ReincarcareAutomata reincarcare = new ReincarcareAutomata();
+            fisiere.forEach(reincarcare::inregistreaza);
+            stocare.inchideLaFinal(reincarcare);
+        }
+        return stocare;
+    }
+}
@@ -0,0 +1,223 @@
+package org.example.service;
+
+import org.example.domain.Nota;
+import org.example.domain.Student;
+import org.example.domain.Tema;
+import org.example.repository.CrudRepository;
+import org.example.validation.ValidationException;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta catalogul complet (note x studenti x teme) intr-un fisier CSV sau XML, optional comprimat gzip
+ * Notele sunt parcurse direct din repository, iar studentul si tema fiecarei note sunt cautate dupa id,
+ * deci memoria folosita nu depinde de numarul de randuri; o nota fara student sau tema e scrisa cu campurile goale
+ */
+public class ExportCatalog {
+
+    private static final int DIMENSIUNE_BUFFER = 1 << 16;
+    private static final String[] COLOANE = {"idNota", "idStudent", "nume", "grupa", "email",
+            "idTema", "descriere", "deadline", "data", "notaInitiala", "nota"};
+
+    /**
+     * Formatul fisierului exportat
+     */
+    public enum Format {
+        CSV, XML
+    }
+
+    /**
+     * Rezultatul unui export
+     */
+    public static class Raport {
+        private final long randuri;
+        private final long octeti;
+        private final long durataNanos;
+
+        Raport(long randuri, long octeti, long durataNanos) {
+            this.randuri = randuri;
+            this.octeti = octeti;
+            this.durataNanos = durataNanos;
+        }
+
+        /**
+         * @return numarul de note exportate
+         */
+        public long getRanduri() {
+            return randuri;
+        }
+
+        /**
+         * @return dimensiunea fisierului scris, in octeti
+         */
+        public long getOcteti() {
+            return octeti;
+        }
+
+        /**
+         * @return viteza de scriere, in MB/s
+         */
+        public double getMBPeSecunda() {
+            return durataNanos == 0 ? 0 : octeti / (1024.0 * 1024.0) / (durataNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d randuri, %d octeti in %.3f s (%.2f MB/s)",
+                    randuri, octeti, durataNanos / 1e9, getMBPeSecunda());
+        }
+    }
+
+    private final CrudRepository<String, Student> studenti;
+    private final CrudRepository<String, Tema> teme;
+    private final CrudRepository<String, Nota> note;
+
+    /**
+     * Class constructor
+     * @param studenti - repository-ul studentilor
+     * @param teme - repository-ul temelor
+     * @param note - repository-ul notelor
+     */
+    public ExportCatalog(CrudRepository<String, Student> studenti, CrudRepository<String, Tema> teme,
+                         CrudRepository<String, Nota> note) {
+        this.studenti = studenti;
+        this.teme = teme;
+        this.note = note;
+    }
+
+    /**
+     * Exporta catalogul
+     * @param fisier - fisierul in care se scrie; e suprascris daca exista
+     * @param format - CSV sau XML
+     * @param gzip - daca fisierul e comprimat
+     * @return raportul exportului
+     * @throws ValidationException daca fisierul nu poate fi scris
+     */
+    public Raport exporta(Path fisier, Format format, boolean gzip) {
+        long inceput = System.nanoTime();
+        long randuri;
+        NumaratorOcteti numarator;
+        try (FileChannel canal = FileChannel.open(fisier, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            numarator = new NumaratorOcteti(Channels.newOutputStream(canal));
+            OutputStream iesire = gzip ? new GZIPOutputStream(numarator, DIMENSIUNE_BUFFER) : numarator;
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(iesire, StandardCharsets.UTF_8), DIMENSIUNE_BUFFER)) {
+                randuri = format == Format.CSV ? scrieCSV(writer) : scrieXML(writer);
+            }
+        } catch (IOException | XMLStreamException exception) {
+            throw new ValidationException("Exportul nu a putut fi scris: " + exception.getMessage());
+        }
+        return new Raport(randuri, numarator.octeti, System.nanoTime() - inceput);
+    }
+
+    private long scrieCSV(Writer writer) throws IOException {
+        writer.write(String.join(",", COLOANE));
+        writer.write('\n');
+        String[] valori = new String[COLOANE.length];
+        long randuri = 0;
+        for (Nota nota : note.findAll()) {
+            completeaza(valori, nota);
+            for (int i = 0; i < valori.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                scrieCampCSV(writer, valori[i]);
+            }
+            writer.write('\n');
+            randuri++;
+        }
+        return randuri;
+    }
+
+    private long scrieXML(Writer writer) throws XMLStreamException {
+        XMLStreamWriter xml = XMLOutputFactory.newFactory().createXMLStreamWriter(writer);
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeStartElement("catalog");
+        String[] valori = new String[COLOANE.length];
+        long randuri = 0;
+        for (Nota nota : note.findAll()) {
+            completeaza(valori, nota);
+            xml.writeStartElement("nota");
+            for (int i = 0; i < valori.length; i++) {
+                xml.writeAttribute(COLOANE[i], valori[i]);
+            }
+            xml.writeEndElement();
+            randuri++;
+        }
+        xml.writeEndElement();
+        xml.writeEndDocument();
+        xml.close();
+        return randuri;
+    }
+
+    private void completeaza(String[] valori, Nota nota) {
+        Student student = studenti.findOne(nota.getIdStudent());
+        Tema tema = teme.findOne(nota.getIdTema());
+        valori[0] = nota.getID();
+        valori[1] = nota.getIdStudent();
+        valori[2] = student == null ? "" : student.getNume();
+        valori[3] = student == null ? "" : String.valueOf(student.getGrupa());
+        valori[4] = student == null ? "" : student.getEmail();
+        valori[5] = nota.getIdTema();
+        valori[6] = tema == null ? "" : tema.getDescriere();
+        valori[7] = tema == null ? "" : String.valueOf(tema.getDeadline());
+        valori[8] = nota.getData() == null ? "" : nota.getData().toString();
+        valori[9] = nota.isNotaInitialaCunoscuta() ? String.valueOf(nota.getNotaInitiala()) : "";
+        valori[10] = String.valueOf(nota.getNota());
+    }
+
+    private static void scrieCampCSV(Writer writer, String valoare) throws IOException {
+        if (valoare == null) {
+            return;
+        }
+        boolean ghilimele = false;
+        for (int i = 0; i < valoare.length() && !ghilimele; i++) {
+            char c = valoare.charAt(i);
+            ghilimele = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!ghilimele) {
+            writer.write(valoare);
+            return;
+        }
+        writer.write('"');
+        writer.write(valoare.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Numara octetii scrisi efectiv in fisier, dupa comprimare
+     */
+    private static final class NumaratorOcteti extends FilterOutputStream {
+        long octeti;
+
+        NumaratorOcteti(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            octeti++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            octeti += len;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package org.example.service;
+
+import org.example.validation.ValidationException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scrie feedback-ul notelor in fisierele studentilor (director/nume.txt) pe un fir de executie separat
+ * Inregistrarile sunt scrise in loturi, iar fisierele raman deschise intre loturi,
+ * cel mult maxFisiereDeschise odata; cel mai putin folosit e inchis primul
+ * O inregistrare care nu poate fi scrisa este numarata si sarita, fara sa opreasca scriitorul
+ */
+public class FeedbackWriter implements Closeable {
+
+    /**
+     * Feedback-ul unei note
+     */
+    public static class Feedback {
+        private final String numeStudent;
+        private final String idTema;
+        private final double nota;
+        private final int saptamanaPredare;
+        private final int deadline;
+        private final String text;
+
+        /**
+         * Class constructor
+         * @param numeStudent - numele studentului
+         * @param idTema - id-ul temei
+         * @param nota - nota finala
+         * @param saptamanaPredare - saptamana in care a fost predata tema
+         * @param deadline - deadline-ul temei
+         * @param text - feedback-ul
+         */
+        public Feedback(String numeStudent, String idTema, double nota, int saptamanaPredare, int deadline, String text) {
+            this.numeStudent = numeStudent;
+            this.idTema = idTema;
+            this.nota = nota;
+            this.saptamanaPredare = saptamanaPredare;
+            this.deadline = deadline;
+            this.text = text;
+        }
+    }
+
+    private final Path director;
+    private final BlockingQueue<Feedback> coada;
+    private final int dimensiuneLot;
+    private final LinkedHashMap<String, BufferedWriter> deschise;
+    private final Thread scriitor;
+    private volatile boolean inchis;
+
+    private final AtomicLong scrise = new AtomicLong();
+    private final AtomicLong loturi = new AtomicLong();
+    private final AtomicLong esuate = new AtomicLong();
+
+    /**
+     * Class constructor
+     * @param director - directorul fisierelor de feedback
+     * @param capacitateCoada - numarul maxim de inregistrari nescrise; peste el, adauga asteapta
+     * @param maxFisiereDeschise - numarul maxim de fisiere tinute deschise
+     * @param dimensiuneLot - numarul maxim de inregistrari scrise intr-un lot
+     */
+    public FeedbackWriter(String director, int capacitateCoada, int maxFisiereDeschise, int dimensiuneLot) {
+        this.director = Path.of(director);
+        this.coada = new ArrayBlockingQueue<>(capacitateCoada);
+        this.dimensiuneLot = dimensiuneLot;
+        this.deschise = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BufferedWriter> eldest) {
+                if (size() <= maxFisiereDeschise) {
+                    return false;
+                }
+                inchide(eldest.getValue());
+                return true;
+            }
+        };
+        this.scriitor = new Thread(this::ruleaza, "feedback-writer");
+        this.scriitor.setDaemon(true);
+        this.scriitor.start();
+    }
+
+    /**
+     * Pune in coada feedback-ul unei note
+     * @param feedback - feedback-ul
+     * @throws ValidationException daca scriitorul a fost inchis
+     */
+    public void adauga(Feedback feedback) {
+        if (inchis) {
+            throw new ValidationException("Scriitorul de feedback a fost inchis!");
+        }
+        try {
+            coada.put(feedback);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new ValidationException("Feedback-ul nu a putut fi salvat!");
+        }
+    }
+
+    /**
+     * Scrie inregistrarile ramase si inchide toate fisierele
+     */
+    @Override
+    public void close() {
+        inchis = true;
+        try {
+            scriitor.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (deschise) {
+            deschise.values().forEach(this::inchide);
+            deschise.clear();
+        }
+    }
+
+    /**
+     * @return numarul de inregistrari scrise
+     */
+    public long getScrise() {
+        return scrise.get();
+    }
+
+    /**
+     * @return numarul de loturi scrise
+     */
+    public long getLoturi() {
+        return loturi.get();
+    }
+
+    /**
+     * @return numarul de inregistrari care nu au putut fi scrise
+     */
+    public long getEsuate() {
+        return esuate.get();
+    }
+
+    /**
+     * @param numeStudent - numele studentului
+     * @return numele fisierului de feedback, in care caracterele ce nu pot aparea intr-un nume de fisier
+     * (separatori, '?', ':' ...) sunt inlocuite cu '_'
+     */
+    static String numeFisier(String numeStudent) {
+        String nume = numeStudent.replaceAll("[^\\p{L}\\p{N} ._-]", "_");
+        if (nume.isBlank() || nume.startsWith(".")) {
+            nume = "_" + nume;
+        }
+        return nume + ".txt";
+    }
+
+    /**
+     * @return numarul de fisiere deschise in acest moment
+     */
+    public int getFisiereDeschise() {
+        synchronized (deschise) {
+            return deschise.size();
+        }
+    }
+
+    private void ruleaza() {
+        List<Feedback> lot = new ArrayList<>(dimensiuneLot);
+        while (true) {
+            Feedback primul;
+            try {
+                primul = coada.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException exception) {
+                primul = null;
+            }
+            if (primul == null) {
+                if (inchis && coada.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            lot.add(primul);
+            coada.drainTo(lot, dimensiuneLot - 1);
+            try {
+                scrieLot(lot);
+            } catch (RuntimeException exception) {
+                // scriitorul nu trebuie sa se opreasca, altfel coada plina ar bloca adaugarea notelor
+                exception.printStackTrace();
+            }
+            lot.clear();
+        }
+    }
+
+    private void scrieLot(List<Feedback> lot) {
+        Set<String> atinse = new HashSet<>();
+        synchronized (deschise) {
+            for (Feedback feedback : lot) {
+                try {
+                    String fisier = numeFisier(feedback.numeStudent);
+                    BufferedWriter writer = deschide(fisier);
+                    writer.write("\nTema: " + feedback.idTema);
+                    writer.write("\nNota: " + feedback.nota);
+                    writer.write("\nPredata in saptamana: " + feedback.saptamanaPredare);
+                    writer.write("\nDeadline: " + feedback.deadline);
+                    writer.write("\nFeedback: " + feedback.text);
+                    writer.newLine();
+                    atinse.add(fisier);
+                    scrise.incrementAndGet();
+                } catch (IOException | RuntimeException exception) {
+                    esuate.incrementAndGet();
+                    System.err.println("Feedback-ul pentru " + feedback.numeStudent + " nu a putut fi scris: " + exception.getMessage());
+                }
+            }
+            // fisierele inchise intre timp de LRU au fost deja golite la inchidere
+            for (String fisier : atinse) {
+                BufferedWriter writer = deschise.get(fisier);
+                if (writer != null) {
+                    try {
+                        writer.flush();
+                    } catch (IOException exception) {
+                        exception.printStackTrace();
+                    }
+                }
+            }
+        }
+        loturi.incrementAndGet();
+    }
+
+    private BufferedWriter deschide(String fisier) throws IOException {
+        BufferedWriter writer = deschise.get(fisier);
+        if (writer == null) {
+            writer = new BufferedWriter(new FileWriter(director.resolve(fisier).toFile(), true));
+            deschise.put(fisier, writer);
+        }
+        return writer;
+    }
+
+    private void inchide(BufferedWriter writer) {
+        try {
+            writer.close();
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.service;
+
+import org.example.domain.Nota;
+import org.example.domain.Tema;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Alege politica de penalizare a unei note: cea a temei, daca exista, altfel cea globala
+ */
+public class MotorPenalizari {
+
+    private volatile PoliticaPenalizare globala = PoliticaPenalizare.implicita();
+    private final Map<String, PoliticaPenalizare> peTema = new ConcurrentHashMap<>();
+
+    /**
+     * @param politica - politica aplicata temelor fara politica proprie
+     */
+    public void setPoliticaGlobala(PoliticaPenalizare politica) {
+        this.globala = politica;
+    }
+
+    /**
+     * @param idTema - id-ul temei
+     * @param politica - politica temei sau null pentru a folosi politica globala
+     */
+    public void setPoliticaTema(String idTema, PoliticaPenalizare politica) {
+        if (politica == null) {
+            peTema.remove(idTema);
+        } else {
+            peTema.put(idTema, politica);
+        }
+    }
+
+    /**
+     * @param idTema - id-ul temei
+     * @return politica folosita pentru tema
+     */
+    public PoliticaPenalizare politica(String idTema) {
+        return peTema.getOrDefault(idTema, globala);
+    }
+
+    /**
+     * Calculeaza nota finala pornind de la nota data de profesor
+     * @param nota - nota
+     * @param tema - tema notei
+     * @param saptamanaPredare - saptamana in care a fost predata tema
+     * @return nota finala
+     * @throws org.example.validation.ValidationException daca politica temei respinge intarzierea
+     */
+    public double aplica(Nota nota, Tema tema, int saptamanaPredare) {
+        return politica(tema.getID()).aplica(nota.getNotaInitiala(), saptamanaPredare - tema.getDeadline());
+    }
+}
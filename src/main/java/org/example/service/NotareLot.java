@@ -0,0 +1,97 @@
+package org.example.service;
+
+import org.example.domain.Nota;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Un lot de note adaugate impreuna (ex. o tema corectata pentru toti studentii)
+ */
+public class NotareLot {
+
+    /**
+     * Rezultatul adaugarii unei note din lot
+     */
+    public static class Rezultat {
+        private final Nota nota;
+        private final double notaFinala;
+        private final String eroare;
+
+        Rezultat(Nota nota, double notaFinala, String eroare) {
+            this.nota = nota;
+            this.notaFinala = notaFinala;
+            this.eroare = eroare;
+        }
+
+        /**
+         * @return nota din lot
+         */
+        public Nota getNota() {
+            return nota;
+        }
+
+        /**
+         * @return nota dupa aplicarea penalizarilor (doar daca nota a fost adaugata)
+         */
+        public double getNotaFinala() {
+            return notaFinala;
+        }
+
+        /**
+         * @return motivul pentru care nota nu a fost adaugata sau null
+         */
+        public String getEroare() {
+            return eroare;
+        }
+
+        /**
+         * @return true daca nota a fost adaugata
+         */
+        public boolean isReusit() {
+            return eroare == null;
+        }
+
+        @Override
+        public String toString() {
+            return nota.getID() + ": " + (isReusit() ? notaFinala : eroare);
+        }
+    }
+
+    private final List<Nota> note = new ArrayList<>();
+    private final List<String> feedback = new ArrayList<>();
+
+    /**
+     * Adauga o nota in lot
+     * @param nota - nota
+     * @param feedback - feedback-ul notei
+     * @return acest lot
+     */
+    public NotareLot adauga(Nota nota, String feedback) {
+        this.note.add(nota);
+        this.feedback.add(feedback);
+        return this;
+    }
+
+    /**
+     * @return notele din lot, in ordinea adaugarii
+     */
+    public List<Nota> getNote() {
+        return note;
+    }
+
+    /**
+     * @param index - pozitia notei in lot
+     * @return feedback-ul notei
+     */
+    public String getFeedback(int index) {
+        return feedback.get(index);
+    }
+
+    /**
+     * @return numarul de note din lot
+     */
+    public int dimensiune() {
+        return note.size();
+    }
+}
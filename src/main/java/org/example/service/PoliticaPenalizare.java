@@ -0,0 +1,125 @@
+package org.example.service;
+
+import org.example.validation.ValidationException;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Politica de penalizare a temelor predate dupa deadline
+ * Se defineste prin trepte "saptamani de intarziere: puncte scazute" (ex. "1:2.5,2:5");
+ * o intarziere fara treapta proprie primeste penalizarea treptei anterioare, iar o intarziere mai mare
+ * decat ultima treapta e respinsa. Treptele sunt compilate intr-un tablou indexat dupa intarziere,
+ * deci evaluarea unei note e un singur acces in tablou
+ */
+public final class PoliticaPenalizare {
+
+    private final double[] penalizari;
+
+    private PoliticaPenalizare(double[] penalizari) {
+        this.penalizari = penalizari;
+    }
+
+    /**
+     * @return politica folosita pana acum: -2.5 puncte pentru o saptamana, respinsa dupa aceea
+     */
+    public static PoliticaPenalizare implicita() {
+        return noua().saptamana(1, 2.5).compileaza();
+    }
+
+    /**
+     * @return o definitie noua, fara trepte (nicio intarziere acceptata)
+     */
+    public static Definitie noua() {
+        return new Definitie();
+    }
+
+    /**
+     * Citeste o politica scrisa ca "saptamani:puncte,saptamani:puncte" (ex. "1:2.5,2:5")
+     * @param text - politica; textul vid inseamna ca nicio intarziere nu e acceptata
+     * @return politica compilata
+     * @throws ValidationException daca textul nu e corect
+     */
+    public static PoliticaPenalizare parse(String text) {
+        Definitie definitie = noua();
+        if (text == null || text.isBlank()) {
+            return definitie.compileaza();
+        }
+        try {
+            for (String treapta : text.split(",")) {
+                String[] parti = treapta.trim().split(":");
+                definitie.saptamana(Integer.parseInt(parti[0].trim()), Double.parseDouble(parti[1].trim()));
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException exception) {
+            throw new ValidationException("Politica de penalizare incorecta: " + text);
+        }
+        return definitie.compileaza();
+    }
+
+    /**
+     * Calculeaza nota finala
+     * @param notaInitiala - nota data de profesor
+     * @param intarziere - saptamani de intarziere (0 sau negativ daca tema a fost predata la timp)
+     * @return nota dupa penalizare, cel putin 0
+     * @throws ValidationException daca intarzierea e prea mare
+     */
+    public double aplica(double notaInitiala, int intarziere) {
+        if (intarziere <= 0) {
+            return notaInitiala;
+        }
+        if (intarziere >= penalizari.length) {
+            throw new ValidationException("Studentul nu mai poate preda aceasta tema!");
+        }
+        return Math.max(0, notaInitiala - penalizari[intarziere]);
+    }
+
+    /**
+     * @return politica in formatul acceptat de parse
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i < penalizari.length; i++) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(i).append(':').append(penalizari[i]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Treptele unei politici, inainte de compilare
+     */
+    public static final class Definitie {
+        private final TreeMap<Integer, Double> trepte = new TreeMap<>();
+
+        private Definitie() {
+        }
+
+        /**
+         * @param intarziere - numarul de saptamani de intarziere, cel putin 1
+         * @param puncte - punctele scazute
+         * @return aceasta definitie
+         */
+        public Definitie saptamana(int intarziere, double puncte) {
+            if (intarziere < 1 || puncte < 0) {
+                throw new ValidationException("Treapta de penalizare incorecta!");
+            }
+            trepte.put(intarziere, puncte);
+            return this;
+        }
+
+        /**
+         * @return politica compilata
+         */
+        public PoliticaPenalizare compileaza() {
+            int maxim = trepte.isEmpty() ? 0 : trepte.lastKey();
+            double[] penalizari = new double[maxim + 1];
+            for (int i = 1; i <= maxim; i++) {
+                penalizari[i] = trepte.floorEntry(i) == null ? 0 : trepte.floorEntry(i).getValue();
+            }
+            return new PoliticaPenalizare(Arrays.copyOf(penalizari, penalizari.length));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.service;
+
+/**
+ * Ce se intampla cu notele unui student sau ale unei teme la stergerea acestora
+ */
+public enum PoliticaStergere {
+    /**
+     * Stergerea e refuzata daca exista note care refera obiectul
+     */
+    RESTRICT,
+    /**
+     * Notele care refera obiectul sunt sterse odata cu el
+     */
+    CASCADE
+}
@@ -4,34 +4,72 @@ import org.example.curent.Curent;
 import org.example.domain.Nota;
 import org.example.domain.Student;
 import org.example.domain.Tema;
-import org.example.repository.NotaXMLRepo;
-import org.example.repository.StudentXMLRepo;
-import org.example.repository.TemaXMLRepo;
+import org.example.repository.IndexMultiplu;
+import org.example.repository.IndexOrdonat;
+import org.example.repository.IndexText;
+import org.example.repository.IndexUnic;
+import org.example.repository.IstoricNote;
+import org.example.repository.Interogare;
+import org.example.repository.AgregariNote;
+import org.example.repository.CrudRepository;
+import org.example.repository.Pagina;
+import org.example.validation.ContextNota;
 import org.example.validation.NotaValidator;
+import org.example.validation.RaportIntegritate;
+import org.example.validation.Reguli;
 import org.example.validation.StudentValidator;
 import org.example.validation.TemaValidator;
 import org.example.validation.ValidationException;
+import org.example.validation.VerificatorIntegritate;
 
+import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDate;
-
-import static java.time.temporal.ChronoUnit.DAYS;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * Clasa Service
  */
 public class Service {
-    //private StudentFileRepository studentFileRepository;
-    private StudentXMLRepo studentFileRepository;
+    private CrudRepository<String, Student> studentFileRepository;
     private StudentValidator studentValidator;
-    //private TemaFileRepository temaFileRepository;
-    private TemaXMLRepo temaFileRepository;
+    private CrudRepository<String, Tema> temaFileRepository;
     private TemaValidator temaValidator;
-    //private NotaFileRepository notaFileRepository;
-    private NotaXMLRepo notaFileRepository;
+    private CrudRepository<String, Nota> notaFileRepository;
     private NotaValidator notaValidator;
+    private FeedbackWriter feedbackWriter;
+    private IstoricNote istoricNote;
+    private final IndexMultiplu<String, String, Nota> noteDupaStudent;
+    private final IndexMultiplu<String, String, Nota> noteDupaTema;
+    private final IndexOrdonat<String, String, Nota> noteDupaId;
+    private final IndexOrdonat<Long, String, Nota> noteDupaData;
+    private final IndexOrdonat<String, String, Student> studentiDupaNume;
+    private final IndexText<String, Student> numeStudenti;
+    private final IndexMultiplu<Integer, String, Student> studentiDupaGrupa;
+    private final IndexUnic<String, String, Student> studentiDupaEmail;
+    private PoliticaStergere politicaStergere = PoliticaStergere.CASCADE;
+    private final MotorPenalizari motorPenalizari = new MotorPenalizari();
 
     /**
      * Class Constructor
+     * Repository-urile pot fi oricare dintre backend-uri (XML, text, B+tree, log); vezi StorageProvider
      *
      * @param studentFileRepository - repository student
      * @param studentValidator      - validator student
@@ -40,8 +78,7 @@ public class Service {
      * @param notaFileRepository    - repository nota
      * @param notaValidator         - validator nota
      */
-    //public Service(StudentFileRepository studentFileRepository, StudentValidator studentValidator, TemaFileRepository temaFileRepository, TemaValidator temaValidator, NotaFileRepository notaFileRepository, NotaValidator notaValidator) {
-    public Service(StudentXMLRepo studentFileRepository, StudentValidator studentValidator, TemaXMLRepo temaFileRepository, TemaValidator temaValidator, NotaXMLRepo notaFileRepository, NotaValidator notaValidator) {
+    public Service(CrudRepository<String, Student> studentFileRepository, StudentValidator studentValidator, CrudRepository<String, Tema> temaFileRepository, TemaValidator temaValidator, CrudRepository<String, Nota> notaFileRepository, NotaValidator notaValidator) {
 
         this.studentFileRepository = studentFileRepository;
         this.studentValidator = studentValidator;
@@ -49,6 +86,33 @@ public class Service {
         this.temaValidator = temaValidator;
         this.notaFileRepository = notaFileRepository;
         this.notaValidator = notaValidator;
+        this.noteDupaStudent = notaFileRepository.adaugaIndex(new IndexMultiplu<>(Nota::getIdStudent));
+        this.noteDupaTema = notaFileRepository.adaugaIndex(new IndexMultiplu<>(Nota::getIdTema));
+        this.noteDupaId = notaFileRepository.adaugaIndex(new IndexOrdonat<>(Nota::getID));
+        this.noteDupaData = notaFileRepository.adaugaIndex(new IndexOrdonat<>(nota -> nota.getData() == null ? null : nota.getData().toEpochDay()));
+        this.studentiDupaNume = studentFileRepository.adaugaIndex(new IndexOrdonat<>(Student::getNume));
+        this.numeStudenti = studentFileRepository.adaugaIndex(new IndexText<>(Student::getNume));
+        this.studentiDupaGrupa = studentFileRepository.adaugaIndex(new IndexMultiplu<>(Student::getGrupa));
+        this.studentiDupaEmail = studentFileRepository.adaugaIndex(new IndexUnic<>(
+                s -> StudentValidator.normalizeazaEmail(s.getEmail()), "Emailul este deja folosit de alt student!"));
+    }
+
+    /**
+     * Alege ce se intampla cu notele la stergerea unui student sau a unei teme (implicit CASCADE)
+     *
+     * @param politicaStergere - RESTRICT sau CASCADE
+     */
+    public void setPoliticaStergere(PoliticaStergere politicaStergere) {
+        this.politicaStergere = politicaStergere;
+    }
+
+    /**
+     * Activeaza scrierea feedback-ului notelor in fisierele studentilor
+     *
+     * @param feedbackWriter - scriitorul de feedback sau null pentru a nu salva feedback-ul
+     */
+    public void setFeedbackWriter(FeedbackWriter feedbackWriter) {
+        this.feedbackWriter = feedbackWriter;
     }
 
     /**
@@ -56,22 +120,26 @@ public class Service {
      *
      * @param student - studentul pe care il adauga
      * @return null daca studentul a fost adaugat cu succes sau studentul din memorie daca acesta exista deja
+     * @throws ValidationException daca emailul e deja folosit de alt student
      */
     public Student addStudent(Student student) {
         studentValidator.validate(student);
-        return studentFileRepository.save(student);
+        return cuEmailRezervat(student, () -> studentFileRepository.save(student));
     }
 
     /**
-     * Sterge un student
+     * Sterge un student si, dupa politica de stergere, notele lui
      *
      * @param id - id-ul studentului
      * @return studentul daca acesta a fost sters sau null daca studentul nu exista
+     * @throws ValidationException daca studentul are note si politica este RESTRICT
      */
     public Student deleteStudent(String id) {
-        if (id == null || id.equals("")) {
-            throw new ValidationException("Id-ul nu poate fi null!");
+        Reguli.verificaId(id);
+        if (studentFileRepository.findOne(id) == null) {
+            return null;
         }
+        stergeNote(noteDupaStudent.cauta(id), "Studentul are note si nu poate fi sters!");
         return studentFileRepository.delete(id);
     }
 
@@ -82,21 +150,57 @@ public class Service {
      * @return studentul daca acesta exista sau null altfel
      */
     public Student findStudent(String id) {
-        if (id == null || id.equals("")) {
-            throw new ValidationException("Id-ul nu poate fi null!");
-        }
+        Reguli.verificaId(id);
         return studentFileRepository.findOne(id);
     }
 
+    /**
+     * Cauta un student dupa email
+     *
+     * @param email - emailul (majusculele si spatiile de la capete nu conteaza)
+     * @return studentul daca acesta exista sau null altfel
+     */
+    public Student findStudentDupaEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw new ValidationException("Emailul nu poate fi vid!");
+        }
+        String id = studentiDupaEmail.cauta(StudentValidator.normalizeazaEmail(email));
+        return id == null ? null : studentFileRepository.findOne(id);
+    }
+
     /**
      * Modifica un student
      *
      * @param student - noul student
      * @return noul student daca s-a facut modificarea sau null daca acesta nu exista
+     * @throws ValidationException daca emailul e deja folosit de alt student
      */
     public Student updateStudent(Student student) {
         studentValidator.validate(student);
-        return studentFileRepository.update(student);
+        return cuEmailRezervat(student, () -> studentFileRepository.update(student));
+    }
+
+    /**
+     * Rezerva emailul studentului in index inainte de modificare, ca doi studenti sa nu poata primi acelasi email
+     *
+     * @param student    - studentul salvat sau modificat
+     * @param modificare - salvarea sau modificarea
+     * @return rezultatul modificarii
+     */
+    private Student cuEmailRezervat(Student student, Supplier<Student> modificare) {
+        boolean rezervat = studentiDupaEmail.rezerva(student);
+        try {
+            Student respins = modificare.get();
+            if (respins != null && rezervat) {
+                studentiDupaEmail.elibereaza(student);
+            }
+            return respins;
+        } catch (RuntimeException exception) {
+            if (rezervat) {
+                studentiDupaEmail.elibereaza(student);
+            }
+            throw exception;
+        }
     }
 
     /**
@@ -106,6 +210,180 @@ public class Service {
         return studentFileRepository.findAll();
     }
 
+    /**
+     * Returneaza o pagina de studenti, in ordinea numelor
+     *
+     * @param cursor     - cursorul paginii anterioare sau null pentru prima pagina
+     * @param dimensiune - numarul maxim de studenti din pagina
+     * @return pagina de studenti
+     */
+    public Pagina<Student> getStudenti(Pagina.Cursor<Student> cursor, int dimensiune) {
+        return new Interogare<String, Student>()
+                .ordonataDupa(studentiDupaNume, false)
+                .dupa(cursor)
+                .limita(dimensiune)
+                .executa(studentFileRepository);
+    }
+
+    /**
+     * Cauta studentii dupa nume, fara diferente de majuscule si diacritice
+     * Intai vin cei al caror nume incepe cu textul dat, apoi cei al caror nume doar il contine
+     *
+     * @param text - prefixul sau o parte din nume
+     * @param k    - numarul maxim de rezultate
+     * @return studentii gasiti
+     */
+    public List<Student> cautaStudentiDupaNume(String text, int k) {
+        if (text == null || text.isEmpty()) {
+            throw new ValidationException("Textul cautat nu poate fi vid!");
+        }
+        LinkedHashSet<String> ids = new LinkedHashSet<>(numeStudenti.cautaPrefix(text, k));
+        if (ids.size() < k) {
+            ids.addAll(numeStudenti.cautaSubsir(text, k));
+        }
+        List<Student> studenti = new ArrayList<>();
+        for (String id : ids) {
+            Student student = studentFileRepository.findOne(id);
+            if (student != null && studenti.size() < k) {
+                studenti.add(student);
+            }
+        }
+        return studenti;
+    }
+
+    /**
+     * Returneaza studentii unei grupe, in ordinea numelor
+     *
+     * @param grupa - grupa
+     * @return studentii din grupa
+     */
+    public List<Student> getStudentiGrupa(int grupa) {
+        List<Student> studenti = new ArrayList<>();
+        for (String id : studentiDupaGrupa.cauta(grupa)) {
+            Student student = studentFileRepository.findOne(id);
+            if (student != null && student.getGrupa() == grupa) {
+                studenti.add(student);
+            }
+        }
+        studenti.sort(Comparator.comparing(Student::getNume).thenComparing(Student::getID));
+        return studenti;
+    }
+
+    /**
+     * Returneaza catalogul unei grupe: fiecare student, in ordinea numelor, cu notele lui
+     * Studentii vin din indexul de grupe, iar notele din indexul notelor pe student,
+     * deci costul depinde doar de marimea grupei
+     *
+     * @param grupa - grupa
+     * @return studentii grupei si notele fiecaruia, ordonate dupa tema
+     */
+    public Map<Student, List<Nota>> getCatalogGrupa(int grupa) {
+        Map<Student, List<Nota>> catalog = new LinkedHashMap<>();
+        for (Student student : getStudentiGrupa(grupa)) {
+            List<Nota> note = new ArrayList<>();
+            for (String idNota : noteDupaStudent.cauta(student.getID())) {
+                Nota nota = notaFileRepository.findOne(idNota);
+                if (nota != null) {
+                    note.add(nota);
+                }
+            }
+            note.sort(Comparator.comparing(Nota::getIdTema));
+            catalog.put(student, note);
+        }
+        return catalog;
+    }
+
+    /**
+     * Calculeaza media notelor fiecarui student
+     * Daca backend-ul stie sa agrege (ex. baza de date), calculul se face acolo; altfel se parcurg notele
+     *
+     * @return media fiecarui student, dupa id, in ordinea id-urilor
+     */
+    public Map<String, Double> getMediiStudenti() {
+        if (notaFileRepository instanceof AgregariNote agregari) {
+            return agregari.mediiPeStudent();
+        }
+        return medii(Nota::getIdStudent);
+    }
+
+    /**
+     * Calculeaza media notelor fiecarei teme
+     * Daca backend-ul stie sa agrege (ex. baza de date), calculul se face acolo; altfel se parcurg notele
+     *
+     * @return media fiecarei teme, dupa id, in ordinea id-urilor
+     */
+    public Map<String, Double> getMediiTeme() {
+        if (notaFileRepository instanceof AgregariNote agregari) {
+            return agregari.mediiPeTema();
+        }
+        return medii(Nota::getIdTema);
+    }
+
+    private Map<String, Double> medii(Function<Nota, String> cheie) {
+        return StreamSupport.stream(notaFileRepository.findAll().spliterator(), false)
+                .collect(Collectors.groupingBy(cheie, TreeMap::new, Collectors.averagingDouble(Nota::getNota)));
+    }
+
+    /**
+     * @return politicile de penalizare a intarzierilor, globala si pe teme
+     */
+    public MotorPenalizari getMotorPenalizari() {
+        return motorPenalizari;
+    }
+
+    /**
+     * Incepe pastrarea istoricului notelor: fiecare adaugare, modificare (ex. penalizare) si stergere
+     * devine un eveniment; notele existente care lipsesc din istoric sunt adaugate acum
+     *
+     * @param istoricNote - istoricul
+     */
+    public void setIstoricNote(IstoricNote istoricNote) {
+        this.istoricNote = notaFileRepository.adaugaIndex(istoricNote);
+    }
+
+    /**
+     * Returneaza toate schimbarile unei note (ex. pentru contestatii)
+     *
+     * @param id - id-ul notei
+     * @return evenimentele notei, in ordine
+     * @throws ValidationException daca istoricul nu este activat
+     */
+    public List<IstoricNote.Eveniment> getIstoricNota(String id) {
+        Reguli.verificaId(id);
+        return istoric().istoric(id);
+    }
+
+    /**
+     * Returneaza o nota asa cum era la un moment dat
+     *
+     * @param id     - id-ul notei
+     * @param moment - momentul
+     * @return nota de atunci sau null daca nota nu exista atunci
+     * @throws ValidationException daca istoricul nu este activat
+     */
+    public Nota getNotaLa(String id, Instant moment) {
+        Reguli.verificaId(id);
+        return istoric().notaLa(id, moment);
+    }
+
+    /**
+     * Returneaza toate notele asa cum erau la un moment dat
+     *
+     * @param moment - momentul
+     * @return notele de atunci, dupa id
+     * @throws ValidationException daca istoricul nu este activat
+     */
+    public Map<String, Nota> getNoteLa(Instant moment) {
+        return istoric().stareLa(moment);
+    }
+
+    private IstoricNote istoric() {
+        if (istoricNote == null) {
+            throw new ValidationException("Istoricul notelor nu este activat!");
+        }
+        return istoricNote;
+    }
+
     /**
      * Adauga o tema noua
      *
@@ -118,15 +396,18 @@ public class Service {
     }
 
     /**
-     * Sterge o tema
+     * Sterge o tema si, dupa politica de stergere, notele ei
      *
      * @param nrTema - nr-ul temei
      * @return tema daca aceasta a fost stearsa sau null daca tema nu exista
+     * @throws ValidationException daca tema are note si politica este RESTRICT
      */
     public Tema deleteTema(String nrTema) {
-        if (nrTema == null || nrTema.equals("")) {
-            throw new ValidationException("Id-ul nu poate fi null!");
+        Reguli.verificaId(nrTema);
+        if (temaFileRepository.findOne(nrTema) == null) {
+            return null;
         }
+        stergeNote(noteDupaTema.cauta(nrTema), "Tema are note si nu poate fi stearsa!");
         return temaFileRepository.delete(nrTema);
     }
 
@@ -137,9 +418,7 @@ public class Service {
      * @return tema sau null daca aceasta nu exista
      */
     public Tema findTema(String id) {
-        if (id == null || id.equals("")) {
-            throw new ValidationException("Id-ul nu poate fi null!");
-        }
+        Reguli.verificaId(id);
         return temaFileRepository.findOne(id);
     }
 
@@ -165,37 +444,149 @@ public class Service {
      * Adauga o nota
      *
      * @param nota     - nota
-     * @param feedback - feedback-ul notei
-     * @return null daca nota a fost adaugata sau nota daca aceasta exista deja
+     * @param feedback - feedback-ul notei; e pus in coada doar daca nota a fost salvata
+     * @return nota finala, dupa penalizare
+     * @throws ValidationException daca nota nu e valida sau exista deja
      */
     public double addNota(Nota nota, String feedback) {
-        notaValidator.validate(nota);
-        Student student = studentFileRepository.findOne(nota.getIdStudent());
-        Tema tema = temaFileRepository.findOne(nota.getIdTema());
-        int predare = calculeazaSPredare(nota.getData());
-        if (predare != tema.getDeadline()) {
-            int difference = predare - tema.getDeadline();
-            if (difference == 1) {
-                nota.setNota(nota.getNota() - 2.5);
-            } else if (difference > 1) {
-                throw new ValidationException("Studentul nu mai poate preda aceasta tema!");
-            }
+        ContextNota context = notaValidator.valideaza(nota);
+        Student student = context.getStudent();
+        Tema tema = context.getTema();
+        int predare = context.getSaptamanaPredare();
+        aplicaPenalizare(nota, tema, predare);
+        if (notaFileRepository.save(nota) != null) {
+            throw new ValidationException("Nota exista deja!");
+        }
+        if (feedbackWriter != null) {
+            feedbackWriter.adauga(new FeedbackWriter.Feedback(student.getNume(), tema.getID(), nota.getNota(), predare, tema.getDeadline(), feedback));
         }
-        notaFileRepository.save(nota);
-//        String filename = "../fisiere/" + student.getNume() + ".txt";
-//        try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(filename, true))) {
-//            bufferedWriter.write("\nTema: " + tema.getID());
-//            bufferedWriter.write("\nNota: " + nota.getNota());
-//            bufferedWriter.write("\nPredata in saptamana: " + predare);
-//            bufferedWriter.write("\nDeadline: " + tema.getDeadline());
-//            bufferedWriter.write("\nFeedback: " + feedback);
-//            bufferedWriter.newLine();
-//        } catch (IOException exception) {
-//            throw new ValidationException(exception.getMessage());
-//        }
         return nota.getNota();
     }
 
+    /**
+     * Adauga un lot de note cu o singura scriere in fisier
+     * Fiecare student si fiecare tema sunt cautate o singura data, notele sunt validate si penalizate in paralel,
+     * iar o nota invalida nu impiedica adaugarea celorlalte
+     *
+     * @param lot - notele si feedback-ul lor
+     * @return rezultatul fiecarei note, in ordinea din lot
+     */
+    public List<NotareLot.Rezultat> addNote(NotareLot lot) {
+        List<Nota> note = lot.getNote();
+        Map<String, Student> studenti = new HashMap<>();
+        Map<String, Tema> teme = new HashMap<>();
+        for (Nota nota : note) {
+            if (nota.getIdStudent() != null && !studenti.containsKey(nota.getIdStudent())) {
+                studenti.put(nota.getIdStudent(), studentFileRepository.findOne(nota.getIdStudent()));
+            }
+            if (nota.getIdTema() != null && !teme.containsKey(nota.getIdTema())) {
+                teme.put(nota.getIdTema(), temaFileRepository.findOne(nota.getIdTema()));
+            }
+        }
+        LocalDate startDate = Curent.getStartDate();
+        NotareLot.Rezultat[] rezultate = new NotareLot.Rezultat[note.size()];
+        int[] predari = new int[note.size()];
+        IntStream.range(0, note.size()).parallel().forEach(i -> {
+            Nota nota = note.get(i);
+            try {
+                Reguli.verificaId(nota.getID());
+                ContextNota context = notaValidator.valideaza(nota, studenti.get(nota.getIdStudent()), teme.get(nota.getIdTema()), startDate);
+                predari[i] = context.getSaptamanaPredare();
+                aplicaPenalizare(nota, context.getTema(), predari[i]);
+                rezultate[i] = new NotareLot.Rezultat(nota, nota.getNota(), null);
+            } catch (ValidationException exception) {
+                rezultate[i] = new NotareLot.Rezultat(nota, 0, exception.getMessage());
+            }
+        });
+
+        List<Nota> valide = new ArrayList<>();
+        for (NotareLot.Rezultat rezultat : rezultate) {
+            if (rezultat.isReusit()) {
+                valide.add(rezultat.getNota());
+            }
+        }
+        Set<Nota> existente = Collections.newSetFromMap(new IdentityHashMap<>());
+        existente.addAll(notaFileRepository.saveAll(valide));
+        for (int i = 0; i < rezultate.length; i++) {
+            Nota nota = note.get(i);
+            if (!rezultate[i].isReusit()) {
+                continue;
+            }
+            if (existente.contains(nota)) {
+                rezultate[i] = new NotareLot.Rezultat(nota, 0, "Nota exista deja!");
+            } else if (feedbackWriter != null) {
+                Tema tema = teme.get(nota.getIdTema());
+                feedbackWriter.adauga(new FeedbackWriter.Feedback(studenti.get(nota.getIdStudent()).getNume(), tema.getID(),
+                        nota.getNota(), predari[i], tema.getDeadline(), lot.getFeedback(i)));
+            }
+        }
+        return Arrays.asList(rezultate);
+    }
+
+    /**
+     * Aplica penalizarea pentru intarziere, dupa politica temei (implicit -2.5 puncte pentru o saptamana,
+     * peste o saptamana tema nu mai e primita)
+     *
+     * @param nota    - nota, modificata pe loc
+     * @param tema    - tema notei
+     * @param predare - saptamana predarii
+     * @throws ValidationException daca politica respinge intarzierea
+     */
+    private void aplicaPenalizare(Nota nota, Tema tema, int predare) {
+        nota.setNota(motorPenalizari.aplica(nota, tema, predare));
+    }
+
+    /**
+     * Recalculeaza toate notele cu politicile de penalizare actuale, pornind de la nota data de profesor
+     * Notele sunt parcurse in paralel, iar cele schimbate sunt salvate cu o singura scriere in fisier;
+     * notele pe care noua politica le-ar respinge raman neschimbate si sunt raportate
+     *
+     * @return rezultatul pentru fiecare nota schimbata sau respinsa
+     */
+    public List<NotareLot.Rezultat> reaplicaPenalizari() {
+        Map<String, Tema> teme = new HashMap<>();
+        temaFileRepository.findAll().forEach(tema -> teme.put(tema.getID(), tema));
+        LocalDate startDate = Curent.getStartDate();
+        List<NotareLot.Rezultat> rezultate = StreamSupport.stream(notaFileRepository.findAll().spliterator(), true)
+                .map(nota -> {
+                    Tema tema = teme.get(nota.getIdTema());
+                    // fara nota data de profesor, nota finala nu poate fi recalculata
+                    if (tema == null || nota.getData() == null || !nota.isNotaInitialaCunoscuta()) {
+                        return null;
+                    }
+                    try {
+                        double notaFinala = motorPenalizari.aplica(nota, tema, Curent.getSaptamana(startDate, nota.getData()));
+                        if (notaFinala == nota.getNota()) {
+                            return null;
+                        }
+                        Nota noua = new Nota(nota.getID(), nota.getIdStudent(), nota.getIdTema(), nota.getNotaInitiala(), nota.getData());
+                        noua.setNota(notaFinala);
+                        noua.setVersiune(nota.getVersiune());
+                        return new NotareLot.Rezultat(noua, notaFinala, null);
+                    } catch (ValidationException exception) {
+                        return new NotareLot.Rezultat(nota, nota.getNota(), exception.getMessage());
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        List<Nota> modificate = new ArrayList<>();
+        for (NotareLot.Rezultat rezultat : rezultate) {
+            if (rezultat.isReusit()) {
+                modificate.add(rezultat.getNota());
+            }
+        }
+        Set<Nota> nemodificate = Collections.newSetFromMap(new IdentityHashMap<>());
+        nemodificate.addAll(notaFileRepository.updateAll(modificate));
+        for (int i = 0; i < rezultate.size(); i++) {
+            Nota nota = rezultate.get(i).getNota();
+            if (nemodificate.contains(nota)) {
+                rezultate.set(i, new NotareLot.Rezultat(nota, 0, "Nota a fost modificata intre timp!"));
+            }
+        }
+        return rezultate;
+    }
+
     /**
      * Sterge o nota
      *
@@ -203,9 +594,7 @@ public class Service {
      * @return nota daca aceasta a fost stearsa sau null daca nota nu exista
      */
     public Nota deleteNota(String id) {
-        if (id == null || id.equals("")) {
-            throw new ValidationException("Id-ul nu poate fi null!");
-        }
+        Reguli.verificaId(id);
         return notaFileRepository.delete(id);
     }
 
@@ -216,9 +605,7 @@ public class Service {
      * @return nota sau null daca aceasta nu exista
      */
     public Nota findNota(String id) {
-        if (id == null || id.equals("")) {
-            throw new ValidationException("Id-ul nu poate fi null!");
-        }
+        Reguli.verificaId(id);
         return notaFileRepository.findOne(id);
     }
 
@@ -229,11 +616,81 @@ public class Service {
         return notaFileRepository.findAll();
     }
 
+    /**
+     * Returneaza o pagina de note, in ordinea id-urilor
+     *
+     * @param cursor     - cursorul paginii anterioare sau null pentru prima pagina
+     * @param dimensiune - numarul maxim de note din pagina
+     * @return pagina de note
+     */
+    public Pagina<Nota> getNote(Pagina.Cursor<Nota> cursor, int dimensiune) {
+        return new Interogare<String, Nota>()
+                .ordonataDupa(noteDupaId, false)
+                .dupa(cursor)
+                .limita(dimensiune)
+                .executa(notaFileRepository);
+    }
+
+    /**
+     * Returneaza o pagina din notele unui student, in ordinea id-urilor
+     *
+     * @param idStudent  - id-ul studentului
+     * @param cursor     - cursorul paginii anterioare sau null pentru prima pagina
+     * @param dimensiune - numarul maxim de note din pagina
+     * @return pagina de note
+     */
+    public Pagina<Nota> getNoteStudent(String idStudent, Pagina.Cursor<Nota> cursor, int dimensiune) {
+        return new Interogare<String, Nota>()
+                .egal(noteDupaStudent, idStudent)
+                .dupa(cursor)
+                .limita(dimensiune)
+                .executa(notaFileRepository);
+    }
+
+    /**
+     * Returneaza notele predate intre doua date, eventual doar ale unui student si/sau ale unei teme
+     * Notele sunt cautate in indexul dupa data (O(log n + k)), iar studentul si tema sunt aplicate ca filtre
+     *
+     * @param de        - prima zi (inclusiv)
+     * @param pana      - ultima zi (inclusiv)
+     * @param idStudent - id-ul studentului sau null pentru toti studentii
+     * @param idTema    - id-ul temei sau null pentru toate temele
+     * @return notele gasite, in ordinea datei predarii
+     */
+    public List<Nota> getNoteInterval(LocalDate de, LocalDate pana, String idStudent, String idTema) {
+        if (de == null || pana == null) {
+            throw new ValidationException("Intervalul trebuie sa aiba ambele capete!");
+        }
+        Interogare<String, Nota> interogare = new Interogare<String, Nota>()
+                .interval(noteDupaData, de.toEpochDay(), pana.toEpochDay())
+                .ordonataDupa(noteDupaData, false);
+        if (idStudent != null) {
+            interogare.filtru(nota -> idStudent.equals(nota.getIdStudent()));
+        }
+        if (idTema != null) {
+            interogare.filtru(nota -> idTema.equals(nota.getIdTema()));
+        }
+        return interogare.executa(notaFileRepository).getElemente();
+    }
+
+    /**
+     * Returneaza notele predate intr-o saptamana a semestrului (aceeasi numerotare ca la calculul penalizarilor)
+     *
+     * @param saptamana - saptamana
+     * @return notele predate in saptamana respectiva, in ordinea datei predarii
+     */
+    public List<Nota> getNoteSaptamana(int saptamana) {
+        LocalDate startDate = Curent.getStartDate();
+        // saptamana W contine zilele d cu 7(W-1) < d <= 7W de la inceputul semestrului
+        return getNoteInterval(startDate.plusDays(7L * (saptamana - 1) + 1), startDate.plusDays(7L * saptamana), null, null);
+    }
+
     /**
      * Prelungeste deadline-ul unei teme
      *
      * @param nrTema   - nr-ul temei
      * @param deadline - noul deadline
+     * @throws org.example.validation.ConflictVersiuneException daca tema a fost modificata intre timp
      */
     public void prelungireDeadline(String nrTema, int deadline) {
         int diff = Curent.getCurrentWeek();
@@ -242,23 +699,55 @@ public class Service {
             throw new ValidationException("Tema inexistenta!");
         }
         if (tema.getDeadline() >= diff) {
-            tema.setDeadline(deadline);
-            temaFileRepository.writeToFile();
+            Tema temaNoua = new Tema(tema.getID(), tema.getDescriere(), deadline, tema.getPrimire());
+            temaNoua.setVersiune(tema.getVersiune());
+            temaFileRepository.update(temaNoua);
         } else {
             throw new ValidationException("Nu se mai poate prelungi deadline-ul!");
         }
     }
 
     /**
-     * Calculeaza saptamana de predare
+     * Verifica in paralel toti studentii, toate temele si toate notele cu validatorii lor
+     * si cauta id-urile duplicate pierdute la incarcarea fisierelor
      *
-     * @param predare - data predarii unei teme
-     * @return saptamana in care a fost predata tema
+     * @return raportul verificarii
      */
-    private int calculeazaSPredare(LocalDate predare) {
-        LocalDate startDate = Curent.getStartDate();
-        long days = DAYS.between(startDate, predare);
-        double saptamanaPredare = Math.ceil((double) days / 7);
-        return (int) saptamanaPredare;
+    public RaportIntegritate verificaIntegritate() {
+        return new VerificatorIntegritate()
+                .adauga("studenti", studentFileRepository, studentValidator)
+                .adauga("teme", temaFileRepository, temaValidator)
+                .adauga("note", notaFileRepository, notaValidator)
+                .verifica();
+    }
+
+    /**
+     * Exporta catalogul complet (note cu studentii si temele lor) fara a-l construi in memorie
+     *
+     * @param fisier - fisierul in care se scrie
+     * @param format - CSV sau XML
+     * @param gzip   - daca fisierul e comprimat
+     * @return raportul exportului, cu viteza de scriere
+     */
+    public ExportCatalog.Raport exportaCatalog(String fisier, ExportCatalog.Format format, boolean gzip) {
+        return new ExportCatalog(studentFileRepository, temaFileRepository, notaFileRepository)
+                .exporta(Path.of(fisier), format, gzip);
+    }
+
+    /**
+     * Aplica politica de stergere notelor care refera un student sau o tema
+     * Notele sunt gasite prin index, iar cele sterse in cascada sunt scrise in fisier o singura data
+     *
+     * @param idNote - id-urile notelor
+     * @param mesaj  - mesajul erorii pentru RESTRICT
+     */
+    private void stergeNote(Set<String> idNote, String mesaj) {
+        if (idNote.isEmpty()) {
+            return;
+        }
+        if (politicaStergere == PoliticaStergere.RESTRICT) {
+            throw new ValidationException(mesaj);
+        }
+        notaFileRepository.deleteAll(idNote);
     }
 }
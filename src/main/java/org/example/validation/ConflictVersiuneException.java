@@ -0,0 +1,11 @@
+package org.example.validation;
+
+public class ConflictVersiuneException extends ValidationException {
+    /**
+     * Exceptie pentru modificarea unui obiect pe baza unei versiuni vechi
+     * @param exception - mesajul exceptiei
+     */
+    public ConflictVersiuneException(String exception){
+        super(exception);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.validation;
+
+import org.example.curent.Curent;
+import org.example.domain.Nota;
+import org.example.domain.Student;
+import org.example.domain.Tema;
+
+import java.time.LocalDate;
+
+/**
+ * Rezultatul validarii unei note: studentul si tema gasite si saptamana predarii,
+ * ca service-ul sa nu le mai caute sau calculeze inca o data
+ */
+public class ContextNota {
+    private final Nota nota;
+    private final Student student;
+    private final Tema tema;
+    private final LocalDate startDate;
+
+    /**
+     * Class constructor
+     * @param nota - nota validata
+     * @param student - studentul notei sau null daca nu exista
+     * @param tema - tema notei sau null daca nu exista
+     * @param startDate - data inceperii semestrului sau null pentru a fi citita doar daca e nevoie de saptamana predarii
+     */
+    public ContextNota(Nota nota, Student student, Tema tema, LocalDate startDate) {
+        this.nota = nota;
+        this.student = student;
+        this.tema = tema;
+        this.startDate = startDate;
+    }
+
+    /**
+     * @return nota validata
+     */
+    public Nota getNota() {
+        return nota;
+    }
+
+    /**
+     * @return studentul notei sau null daca nu exista
+     */
+    public Student getStudent() {
+        return student;
+    }
+
+    /**
+     * @return tema notei sau null daca nu exista
+     */
+    public Tema getTema() {
+        return tema;
+    }
+
+    /**
+     * @return saptamana in care a fost predata tema
+     */
+    public int getSaptamanaPredare() {
+        return Curent.getSaptamana(startDate == null ? Curent.getStartDate() : startDate, nota.getData());
+    }
+}
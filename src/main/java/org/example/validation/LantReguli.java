@@ -0,0 +1,55 @@
+package org.example.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lant de reguli de validare aplicate in ordine; validarea se opreste la prima regula incalcata
+ * Lantul e imutabil: regulile sunt copiate o singura data intr-o lista imutabila, la construire
+ * @param <T> - tipul obiectului validat
+ */
+public final class LantReguli<T> implements Validator<T> {
+
+    private final List<Validator<? super T>> reguli;
+
+    private LantReguli(List<Validator<? super T>> reguli) {
+        this.reguli = reguli;
+    }
+
+    /**
+     * Construieste un lant de reguli
+     * @param reguli - regulile, in ordinea in care sunt verificate
+     * @return lantul
+     */
+    @SafeVarargs
+    public static <T> LantReguli<T> de(Validator<? super T>... reguli) {
+        // elementele sunt copiate unul cate unul: tabloul varargs nu iese din metoda
+        List<Validator<? super T>> lista = new ArrayList<>(reguli.length);
+        for (Validator<? super T> regula : reguli) {
+            lista.add(regula);
+        }
+        return new LantReguli<>(List.<Validator<? super T>>copyOf(lista));
+    }
+
+    /**
+     * @param regula - regula adaugata la sfarsit
+     * @return un lant nou, cu regula adaugata
+     */
+    public LantReguli<T> si(Validator<? super T> regula) {
+        List<Validator<? super T>> noi = new ArrayList<>(reguli);
+        noi.add(regula);
+        return new LantReguli<>(List.<Validator<? super T>>copyOf(noi));
+    }
+
+    /**
+     * Aplica regulile in ordine
+     * @param entity - obiectul validat
+     * @throws ValidationException la prima regula incalcata
+     */
+    @Override
+    public void validate(T entity) throws ValidationException {
+        for (Validator<? super T> regula : reguli) {
+            regula.validate(entity);
+        }
+    }
+}
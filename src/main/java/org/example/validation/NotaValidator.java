@@ -1,21 +1,29 @@
 package org.example.validation;
 
 
+import org.example.curent.Curent;
 import org.example.domain.Nota;
 import org.example.domain.Student;
 import org.example.domain.Tema;
 import org.example.repository.*;
 
+import java.time.LocalDate;
+
 public class NotaValidator implements Validator<Nota> {
-    private StudentXMLRepo studentFileRepository;
-    private TemaXMLRepo temaFileRepository;
+    private CrudRepository<String, Student> studentFileRepository;
+    private CrudRepository<String, Tema> temaFileRepository;
+    private final LantReguli<ContextNota> reguli = LantReguli.de(
+            Reguli.conditie(c -> c.getStudent() != null, "Studentul nu exista!"),
+            Reguli.conditie(c -> c.getTema() != null, "Tema nu exista!"),
+            Reguli.conditie(c -> c.getNota().getNota() <= 10.00 && c.getNota().getNota() >= 0.00, "Valoarea notei nu este corecta!"),
+            Reguli.conditie(c -> c.getNota().getData() != null, "Data predarii lipseste!"));
 
     /**
      * Class constructor
      * @param studentFileRepository - repository student
      * @param temaFileRepository - repository tema
      */
-    public NotaValidator(StudentXMLRepo studentFileRepository, TemaXMLRepo temaFileRepository) {
+    public NotaValidator(CrudRepository<String, Student> studentFileRepository, CrudRepository<String, Tema> temaFileRepository) {
         this.studentFileRepository = studentFileRepository;
         this.temaFileRepository = temaFileRepository;
     }
@@ -27,17 +35,39 @@ public class NotaValidator implements Validator<Nota> {
      */
     @Override
     public void validate(Nota nota) throws ValidationException {
-        Student student = studentFileRepository.findOne(nota.getIdStudent());
-        if (student== null){
-            throw new ValidationException("Studentul nu exista!");
-        }
-        Tema tema = temaFileRepository.findOne(nota.getIdTema());
-        if(tema == null){
-            throw new ValidationException("Tema nu exista!");
-        }
-        double notaC = nota.getNota();
-        if(notaC > 10.00 || notaC < 0.00){
-            throw new ValidationException("Valoarea notei nu este corecta!");
-        }
+        reguli.validate(context(nota, null));
+    }
+
+    /**
+     * Valideaza o nota si pastreaza ce s-a cautat pentru validare
+     * @param nota - nota pe care o valideaza
+     * @return studentul, tema si saptamana predarii notei
+     * @throws ValidationException daca nota nu e valida
+     */
+    public ContextNota valideaza(Nota nota) throws ValidationException {
+        ContextNota context = context(nota, Curent.getStartDate());
+        reguli.validate(context);
+        return context;
+    }
+
+    /**
+     * Valideaza o nota pentru care studentul si tema au fost deja cautate (ex. o singura data pentru un lot de note)
+     * @param nota - nota pe care o valideaza
+     * @param student - studentul notei sau null daca nu exista
+     * @param tema - tema notei sau null daca nu exista
+     * @param startDate - data inceperii semestrului
+     * @return studentul, tema si saptamana predarii notei
+     * @throws ValidationException daca nota nu e valida
+     */
+    public ContextNota valideaza(Nota nota, Student student, Tema tema, LocalDate startDate) throws ValidationException {
+        ContextNota context = new ContextNota(nota, student, tema, startDate);
+        reguli.validate(context);
+        return context;
+    }
+
+    private ContextNota context(Nota nota, LocalDate startDate) {
+        Student student = nota.getIdStudent() == null ? null : studentFileRepository.findOne(nota.getIdStudent());
+        Tema tema = nota.getIdTema() == null ? null : temaFileRepository.findOne(nota.getIdTema());
+        return new ContextNota(nota, student, tema, startDate);
     }
 }
@@ -0,0 +1,137 @@
+package org.example.validation;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rezultatul verificarii integritatii datelor: cate obiecte au fost verificate si ce probleme s-au gasit
+ */
+public class RaportIntegritate {
+
+    /**
+     * O problema gasita la verificare
+     */
+    public static class Problema {
+
+        /**
+         * Tipul problemei
+         */
+        public enum Tip {
+            /**
+             * Obiectul nu trece de validator (ex. nota in afara intervalului, student sau tema inexistente)
+             */
+            INVALID,
+            /**
+             * Id-ul aparea de mai multe ori in fisier; doar prima aparitie a fost incarcata
+             */
+            DUPLICAT
+        }
+
+        private final String colectie;
+        private final Object id;
+        private final Tip tip;
+        private final String mesaj;
+
+        /**
+         * Class constructor
+         * @param colectie - numele colectiei (ex. note)
+         * @param id - id-ul obiectului
+         * @param tip - tipul problemei
+         * @param mesaj - descrierea problemei
+         */
+        public Problema(String colectie, Object id, Tip tip, String mesaj) {
+            this.colectie = colectie;
+            this.id = id;
+            this.tip = tip;
+            this.mesaj = mesaj;
+        }
+
+        /**
+         * @return numele colectiei
+         */
+        public String getColectie() {
+            return colectie;
+        }
+
+        /**
+         * @return id-ul obiectului
+         */
+        public Object getId() {
+            return id;
+        }
+
+        /**
+         * @return tipul problemei
+         */
+        public Tip getTip() {
+            return tip;
+        }
+
+        /**
+         * @return descrierea problemei
+         */
+        public String getMesaj() {
+            return mesaj;
+        }
+
+        @Override
+        public String toString() {
+            return colectie + " " + id + ": " + tip + " - " + mesaj;
+        }
+    }
+
+    private final Map<String, Long> verificate;
+    private final List<Problema> probleme;
+    private final long durataMs;
+
+    /**
+     * Class constructor
+     * @param verificate - numarul de obiecte verificate, pe colectii
+     * @param probleme - problemele gasite
+     * @param durataMs - durata verificarii in milisecunde
+     */
+    public RaportIntegritate(Map<String, Long> verificate, List<Problema> probleme, long durataMs) {
+        this.verificate = Collections.unmodifiableMap(new LinkedHashMap<>(verificate));
+        this.probleme = List.copyOf(probleme);
+        this.durataMs = durataMs;
+    }
+
+    /**
+     * @return true daca nu s-a gasit nicio problema
+     */
+    public boolean esteConsistent() {
+        return probleme.isEmpty();
+    }
+
+    /**
+     * @return numarul de obiecte verificate, pe colectii
+     */
+    public Map<String, Long> getVerificate() {
+        return verificate;
+    }
+
+    /**
+     * @return problemele gasite
+     */
+    public List<Problema> getProbleme() {
+        return probleme;
+    }
+
+    /**
+     * @return durata verificarii in milisecunde
+     */
+    public long getDurataMs() {
+        return durataMs;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("Verificare integritate (" + durataMs + " ms): ");
+        verificate.forEach((colectie, numar) -> text.append(colectie).append("=").append(numar).append(" "));
+        text.append("probleme=").append(probleme.size());
+        probleme.forEach(problema -> text.append("\n").append(problema));
+        return text.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.validation;
+
+import java.util.function.Predicate;
+
+/**
+ * Reguli de validare folosite de validatori si de service
+ */
+public final class Reguli {
+
+    private Reguli() {
+    }
+
+    /**
+     * @param conditie - conditia pe care obiectul trebuie sa o indeplineasca
+     * @param mesaj - mesajul erorii daca obiectul nu indeplineste conditia
+     * @return regula
+     */
+    public static <T> Validator<T> conditie(Predicate<T> conditie, String mesaj) {
+        return entity -> {
+            if (!conditie.test(entity)) {
+                throw new ValidationException(mesaj);
+            }
+        };
+    }
+
+    /**
+     * Verifica un id primit pentru cautare sau stergere
+     * @param id - id-ul
+     * @throws ValidationException daca id-ul e null sau vid
+     */
+    public static void verificaId(String id) {
+        if (id == null || id.isEmpty()) {
+            throw new ValidationException("Id-ul nu poate fi null!");
+        }
+    }
+}
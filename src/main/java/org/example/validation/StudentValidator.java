@@ -2,8 +2,18 @@ package org.example.validation;
 
 import org.example.domain.Student;
 
+import java.util.Locale;
+
 public class StudentValidator implements Validator<Student> {
 
+    /**
+     * @param email - emailul
+     * @return emailul fara spatii la capete si cu litere mici sau null daca emailul e null
+     */
+    public static String normalizeazaEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Valideaza un student
      * @param entity - studentul pe care il valideaza
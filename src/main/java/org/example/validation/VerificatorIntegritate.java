@@ -0,0 +1,111 @@
+package org.example.validation;
+
+import org.example.repository.AbstractCrudRepository;
+import org.example.repository.CrudRepository;
+import org.example.repository.HasID;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Verifica toate obiectele din mai multe repository-uri cu validatorii lor, in paralel pe un ForkJoinPool
+ * Pe langa regulile validatorilor (care pentru note includ existenta studentului si a temei),
+ * raporteaza si id-urile duplicate pierdute la incarcarea fisierelor
+ */
+public class VerificatorIntegritate {
+
+    private final ForkJoinPool pool;
+    private final List<Colectie<?>> colectii = new ArrayList<>();
+
+    /**
+     * Class constructor; foloseste pool-ul comun
+     */
+    public VerificatorIntegritate() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Class constructor
+     * @param pool - pool-ul pe care ruleaza verificarea
+     */
+    public VerificatorIntegritate(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Adauga o colectie de verificat
+     * @param nume - numele colectiei, folosit in raport
+     * @param repository - repository-ul colectiei
+     * @param validator - validatorul aplicat fiecarui obiect
+     * @return acest verificator
+     */
+    public <ID, E extends HasID<ID>> VerificatorIntegritate adauga(String nume, CrudRepository<ID, E> repository, Validator<E> validator) {
+        colectii.add(new Colectie<>(nume, repository, validator));
+        return this;
+    }
+
+    /**
+     * Verifica toate colectiile
+     * @return raportul verificarii
+     */
+    public RaportIntegritate verifica() {
+        long start = System.nanoTime();
+        Map<String, Long> verificate = new LinkedHashMap<>();
+        List<RaportIntegritate.Problema> probleme = new ArrayList<>();
+        for (Colectie<?> colectie : colectii) {
+            LongAdder numar = new LongAdder();
+            probleme.addAll(pool.submit(() -> colectie.verifica(numar)).join());
+            verificate.put(colectie.nume, numar.sum());
+            probleme.addAll(colectie.duplicate());
+        }
+        return new RaportIntegritate(verificate, probleme, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static final class Colectie<E extends HasID<?>> {
+        final String nume;
+        final CrudRepository<?, E> repository;
+        final Validator<E> validator;
+
+        Colectie(String nume, CrudRepository<?, E> repository, Validator<E> validator) {
+            this.nume = nume;
+            this.repository = repository;
+            this.validator = validator;
+        }
+
+        List<RaportIntegritate.Problema> verifica(LongAdder numar) {
+            // stream-ul paralel ruleaza pe pool-ul din care e pornit
+            return StreamSupport.stream(repository.findAll().spliterator(), true)
+                    .unordered()
+                    .map(entity -> {
+                        numar.increment();
+                        try {
+                            validator.validate(entity);
+                            return null;
+                        } catch (ValidationException exception) {
+                            return new RaportIntegritate.Problema(nume, entity.getID(),
+                                    RaportIntegritate.Problema.Tip.INVALID, exception.getMessage());
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+
+        List<RaportIntegritate.Problema> duplicate() {
+            List<RaportIntegritate.Problema> probleme = new ArrayList<>();
+            if (repository instanceof AbstractCrudRepository<?, ?> abstractRepository) {
+                for (Object id : abstractRepository.getDuplicateLaIncarcare()) {
+                    probleme.add(new RaportIntegritate.Problema(nume, id,
+                            RaportIntegritate.Problema.Tip.DUPLICAT, "Id duplicat in fisier"));
+                }
+            }
+            return probleme;
+        }
+    }
+}
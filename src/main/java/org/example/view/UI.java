@@ -3,16 +3,24 @@ package org.example.view;
 import org.example.domain.Nota;
 import org.example.domain.Student;
 import org.example.domain.Tema;
+import org.example.repository.IstoricNote;
+import org.example.repository.Pagina;
+import org.example.service.ExportCatalog;
 import org.example.service.Service;
 import org.example.validation.ValidationException;
 import java.time.LocalDate;
 import java.util.InputMismatchException;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Function;
 
 /**
  * Interfata utilizator de tip consola
  */
 public class UI {
+    private static final int DIMENSIUNE_PAGINA = 20;
+
     private Service service;
 
     /**
@@ -35,6 +43,8 @@ public class UI {
                 System.out.println("1.Comenzi student");
                 System.out.println("2.Comenzi teme");
                 System.out.println("3.Comenzi note");
+                System.out.println("4.Verificare integritate date");
+                System.out.println("5.Export catalog");
                 Scanner scanner = new Scanner(System.in);
                 System.out.print("Introduceti comanda: ");
                 int comanda = scanner.nextInt();
@@ -47,6 +57,10 @@ public class UI {
                     meniuTeme();
                 } else if (comanda == 3) {
                     meniuNote();
+                } else if (comanda == 4) {
+                    System.out.println(service.verificaIntegritate());
+                } else if (comanda == 5) {
+                    exportCatalog();
                 } else {
                     System.out.println("Comanda invalida!");
                 }
@@ -60,6 +74,26 @@ public class UI {
         }
     }
 
+    /**
+     * Exporta catalogul complet intr-un fisier CSV sau XML
+     */
+    private void exportCatalog() {
+        Scanner scanner = new Scanner(System.in);
+        System.out.print("Introduceti fisierul: ");
+        String fisier = scanner.nextLine();
+        System.out.print("Introduceti formatul (CSV/XML): ");
+        ExportCatalog.Format format;
+        try {
+            format = ExportCatalog.Format.valueOf(scanner.nextLine().trim().toUpperCase());
+        } catch (IllegalArgumentException exception) {
+            System.out.println("Format necunoscut!");
+            return;
+        }
+        System.out.print("Comprimare gzip (da/nu): ");
+        boolean gzip = scanner.nextLine().trim().equalsIgnoreCase("da");
+        System.out.println("Export terminat: " + service.exportaCatalog(fisier, format, gzip));
+    }
+
     /**
      * Afiseaza meniul de comenzi asupra studentilor
      */
@@ -71,6 +105,8 @@ public class UI {
             System.out.println("3.Cautare student");
             System.out.println("4.Modificare student");
             System.out.println("5.Afisare lista studenti");
+            System.out.println("6.Cautare student dupa nume");
+            System.out.println("7.Catalogul unei grupe");
             Scanner scanner = new Scanner(System.in);
             System.out.print("Introduceti comanda: ");
             int comanda = scanner.nextInt();
@@ -86,6 +122,10 @@ public class UI {
                 updateStudent();
             } else if (comanda == 5) {
                 afisareStudenti();
+            } else if (comanda == 6) {
+                cautareStudentDupaNume();
+            } else if (comanda == 7) {
+                afisareCatalogGrupa();
             } else {
                 System.out.println("Comanda invalida!");
             }
@@ -149,6 +189,38 @@ public class UI {
         }
     }
 
+    /**
+     * Cauta studentii dupa o parte din nume
+     */
+    private void cautareStudentDupaNume() {
+        Scanner scanner = new Scanner(System.in);
+        System.out.print("Introduceti numele sau o parte din nume: ");
+        String text = scanner.nextLine().trim();
+        List<Student> studenti = service.cautaStudentiDupaNume(text, DIMENSIUNE_PAGINA);
+        if (studenti.isEmpty()) {
+            System.out.println("Nu exista studenti cu acest nume!");
+        } else {
+            studenti.forEach(System.out::println);
+        }
+    }
+
+    /**
+     * Afiseaza studentii unei grupe si notele lor
+     */
+    private void afisareCatalogGrupa() {
+        Scanner scanner = new Scanner(System.in);
+        System.out.print("Introduceti grupa: ");
+        int grupa = scanner.nextInt();
+        Map<Student, List<Nota>> catalog = service.getCatalogGrupa(grupa);
+        if (catalog.isEmpty()) {
+            System.out.println("Grupa nu are studenti!");
+        }
+        catalog.forEach((student, note) -> {
+            System.out.println(student);
+            note.forEach(nota -> System.out.println("    " + nota));
+        });
+    }
+
     /**
      * Modifica datele unui student
      */
@@ -156,6 +228,7 @@ public class UI {
         Scanner scanner = new Scanner(System.in);
         System.out.print("Introduceti id-ul studentului pe care doriti sa il modificati: ");
         String id = scanner.next();
+        Student existent = service.findStudent(id);
         System.out.println("Introduceti datele noi");
         System.out.print("Introduceti numele: ");
         scanner.nextLine();
@@ -165,6 +238,9 @@ public class UI {
         System.out.print("Introduceti email: ");
         String email = scanner.next();
         Student student = new Student(id, nume, grupa, email);
+        if (existent != null) {
+            student.setVersiune(existent.getVersiune());
+        }
         Student student1 = service.updateStudent(student);
         if (student1 == null) {
             System.out.print("Studentul nu exista!");
@@ -174,13 +250,30 @@ public class UI {
     }
 
     /**
-     * Afiseaza lista studentilor
+     * Afiseaza lista studentilor, pagina cu pagina
      */
     private void afisareStudenti() {
-        Iterable<Student> all = service.getAllStudenti();
-        all.forEach(student ->
-                System.out.println(student)
-        );
+        this.<Student>afisarePaginata(cursor -> service.getStudenti(cursor, DIMENSIUNE_PAGINA));
+    }
+
+    /**
+     * Afiseaza pagini succesive cat timp utilizatorul cere pagina urmatoare
+     * @param pagina - returneaza pagina de dupa cursorul dat (null pentru prima pagina)
+     */
+    private <E> void afisarePaginata(Function<Pagina.Cursor<E>, Pagina<E>> pagina) {
+        Scanner scanner = new Scanner(System.in);
+        Pagina<E> curenta = pagina.apply(null);
+        while (true) {
+            curenta.getElemente().forEach(System.out::println);
+            if (!curenta.areUrmatoarea()) {
+                break;
+            }
+            System.out.print("Pagina urmatoare? (d/n): ");
+            if (!scanner.next().equalsIgnoreCase("d")) {
+                break;
+            }
+            curenta = pagina.apply(curenta.getUrmatoarea());
+        }
     }
 
     /**
@@ -298,6 +391,7 @@ public class UI {
         Scanner scanner = new Scanner(System.in);
         System.out.print("Introduceti id-ul temei pe care doriti sa o modificati: ");
         String id = scanner.next();
+        Tema existenta = service.findTema(id);
         System.out.println("Introduceti datele noi");
         System.out.print("Introduceti descrierea: ");
         scanner.nextLine();
@@ -307,6 +401,9 @@ public class UI {
         System.out.print("Introduceti saptamana primire: ");
         int primire = scanner.nextInt();
         Tema tema = new Tema(id, descriere, deadline, primire);
+        if (existenta != null) {
+            tema.setVersiune(existenta.getVersiune());
+        }
         Tema tema1 = service.updateTema(tema);
         if (tema1 == null) {
             System.out.println("Tema nu exista!");
@@ -336,6 +433,8 @@ public class UI {
             System.out.println("2.Stergere nota");
             System.out.println("3.Cautare nota");
             System.out.println("4.Afisare lista note");
+            System.out.println("5.Afisare notele unui student");
+            System.out.println("6.Istoricul unei note");
             Scanner scanner = new Scanner(System.in);
             System.out.print("Introduceti comanda: ");
             int comanda = scanner.nextInt();
@@ -349,6 +448,10 @@ public class UI {
                 cautareNota();
             } else if (comanda == 4) {
                 afisareNote();
+            } else if (comanda == 5) {
+                afisareNoteStudent();
+            } else if (comanda == 6) {
+                afisareIstoricNota();
             } else {
                 System.out.println("Comanda invalida!");
             }
@@ -420,12 +523,35 @@ public class UI {
     }
 
     /**
-     * Afiseaza toate notele
+     * Afiseaza toate schimbarile unei note
+     */
+    private void afisareIstoricNota() {
+        Scanner scanner = new Scanner(System.in);
+        System.out.print("Introduceti id-ul studentului: ");
+        String idStudent = scanner.next();
+        System.out.print("Introduceti nr-ul temei: ");
+        String nrTema = scanner.next();
+        List<IstoricNote.Eveniment> istoric = service.getIstoricNota(idStudent + "#" + nrTema);
+        if (istoric.isEmpty()) {
+            System.out.println("Nota nu are istoric!");
+        }
+        istoric.forEach(System.out::println);
+    }
+
+    /**
+     * Afiseaza notele, pagina cu pagina
      */
     private void afisareNote() {
-        Iterable<Nota> all = service.getAllNote();
-        all.forEach(nota ->
-                System.out.println(nota)
-        );
+        this.<Nota>afisarePaginata(cursor -> service.getNote(cursor, DIMENSIUNE_PAGINA));
+    }
+
+    /**
+     * Afiseaza notele unui student, pagina cu pagina
+     */
+    private void afisareNoteStudent() {
+        Scanner scanner = new Scanner(System.in);
+        System.out.print("Introduceti id-ul studentului: ");
+        String idStudent = scanner.next();
+        this.<Nota>afisarePaginata(cursor -> service.getNoteStudent(idStudent, cursor, DIMENSIUNE_PAGINA));
     }
 }
@@ -3,14 +3,41 @@ package org.example;
 import org.example.domain.Nota;
 import org.example.domain.Student;
 import org.example.domain.Tema;
+import org.example.repository.CachingRepository;
+import org.example.repository.EvenimentModificare;
+import org.example.repository.IndexOrdonat;
+import org.example.repository.Interogare;
+import org.example.repository.IstoricNote;
+import org.example.repository.MigrareFormat;
+import org.example.repository.NotaFileRepository;
 import org.example.repository.NotaXMLRepo;
+import org.example.repository.Pagina;
+import org.example.repository.ReincarcareAutomata;
+import org.example.repository.ShardedRepository;
+import org.example.repository.Stocare;
+import org.example.repository.StorageProvider;
+import org.example.repository.StudentBTreeRepo;
+import org.example.repository.StudentLogRepo;
 import org.example.repository.StudentXMLRepo;
+import org.example.repository.TemaFileRepository;
 import org.example.repository.TemaXMLRepo;
+import org.example.repository.WriteBehindWriter;
+import org.example.service.ExportCatalog;
+import org.example.service.FeedbackWriter;
+import org.example.service.NotareLot;
+import org.example.service.PoliticaPenalizare;
+import org.example.service.PoliticaStergere;
 import org.example.service.Service;
 import org.example.validation.NotaValidator;
+import org.example.validation.RaportIntegritate;
 import org.example.validation.StudentValidator;
+import org.example.validation.ConflictVersiuneException;
+import org.example.validation.ContextNota;
+import org.example.validation.LantReguli;
+import org.example.validation.Reguli;
 import org.example.validation.TemaValidator;
 import org.example.validation.ValidationException;
+import org.example.validation.VerificatorIntegritate;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,7 +48,9 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -99,7 +128,7 @@ public class AppTest {
     @Test
     public void testAddStudent() {
         Student newStudent1 = new Student("1", "Ana", 931, "ana@gmail.com");
-        Student newStudent2 = new Student("2", "Ana", 931, "ana@gmail.com");
+        Student newStudent2 = new Student("2", "Ana", 931, "ana2@gmail.com");
 
 
         Student stud1 = this.service.addStudent(newStudent1);
@@ -281,4 +310,1028 @@ public class AppTest {
         this.service.deleteTema("1");
         this.service.deleteNota("1");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCachingRepository() {
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        CachingRepository<String, Student> cache =
+                new CachingRepository<>(this.studentFileRepository, CachingRepository.Politica.TINY_LFU, 10);
+
+        assertEquals("Ana", cache.findOne("1").getNume());
+        assertEquals("Ana", cache.findOne("1").getNume());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+
+        cache.delete("1");
+        assertNull(cache.findOne("1"));
+        assertEquals(2, cache.getMisses());
+
+        this.service.addStudent(new Student("2", "Ion", 931, "ion@gmail.com"));
+        assertEquals("Ion", cache.findOne("2").getNume());
+        this.studentFileRepository.update(new Student("2", "Ion Pop", 931, "ion@gmail.com"));
+        assertEquals("Ion Pop", cache.findOne("2").getNume());
+        this.service.deleteStudent("2");
+        assertNull(cache.findOne("2"));
+    }
+
+    @Test
+    public void testBTreeRepository() {
+        String file = "fisiere/studentiTest.db";
+        new File(file).delete();
+        StudentBTreeRepo repo = new StudentBTreeRepo(file);
+        for (int i = 0; i < 2000; i++) {
+            assertNull(repo.save(new Student(String.format("%05d", i), "Student" + i, 931, "s" + i + "@gmail.com")));
+        }
+        assertNotNull(repo.save(new Student("00007", "Ana", 931, "ana@gmail.com")));
+        assertNull(repo.update(new Student("00007", "Ana", 932, "ana@gmail.com")));
+        assertEquals("00042", repo.delete("00042").getID());
+        List<Student> nemodificate = repo.updateAll(List.of(new Student("00008", "Dan", 933, "dan@gmail.com"),
+                new Student("00007", "Ana", 933, "ana@gmail.com"), new Student("99999", "Nou", 931, "nou@gmail.com")));
+        assertEquals(2, nemodificate.size());
+        repo.close();
+
+        repo = new StudentBTreeRepo(file);
+        assertEquals(932, repo.findOne("00007").getGrupa());
+        assertEquals(933, repo.findOne("00008").getGrupa());
+        assertNull(repo.findOne("00042"));
+        int count = 0;
+        String previous = "";
+        for (Student student : repo.findAll()) {
+            assertTrue(student.getID().compareTo(previous) > 0);
+            previous = student.getID();
+            count++;
+        }
+        assertEquals(1999, count);
+        count = 0;
+        for (Student student : repo.findRange("00040", "00049")) {
+            count++;
+        }
+        assertEquals(9, count);
+        repo.close();
+        assertFalse(new File(file + ".jurnal").exists());
+        new File(file).delete();
+    }
+
+    @Test
+    public void testBTreeJournalAndEvents() throws IOException, InterruptedException {
+        String file = "fisiere/studentiJurnalTest.db";
+        new File(file).delete();
+        new File(file + ".jurnal").delete();
+        StudentBTreeRepo repo = new StudentBTreeRepo(file);
+        List<EvenimentModificare<String, Student>> events = new java.util.concurrent.CopyOnWriteArrayList<>();
+        java.util.concurrent.CountDownLatch latch = new java.util.concurrent.CountDownLatch(302);
+        repo.getEvenimente().subscribe(new java.util.concurrent.Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(java.util.concurrent.Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(EvenimentModificare<String, Student> item) {
+                events.add(item);
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        for (int i = 0; i < 300; i++) {
+            repo.save(new Student(String.format("%05d", i), "Student" + i, 931, "s" + i + "@gmail.com"));
+        }
+        repo.update(new Student("00007", "Ana", 932, "ana@gmail.com"));
+        repo.delete("00042");
+        assertTrue(latch.await(5, java.util.concurrent.TimeUnit.SECONDS));
+        assertEquals(EvenimentModificare.Tip.CREAT, events.get(0).getTip());
+        assertEquals(932, events.get(300).getDupa().getGrupa());
+        assertEquals(EvenimentModificare.Tip.STERS, events.get(301).getTip());
+
+        // oprire brusca: paginile scrise pe loc se pierd, jurnalul ramane
+        try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(java.nio.file.Path.of(file),
+                java.nio.file.StandardOpenOption.WRITE)) {
+            channel.truncate(4096);
+        }
+        StudentBTreeRepo recuperat = new StudentBTreeRepo(file);
+        assertEquals(932, recuperat.findOne("00007").getGrupa());
+        assertNull(recuperat.findOne("00042"));
+        int count = 0;
+        for (Student student : recuperat.findAll()) {
+            count++;
+        }
+        assertEquals(299, count);
+        recuperat.close();
+        repo.close();
+        new File(file).delete();
+        new File(file).delete();
+    }
+
+    @Test
+    public void testLogRepository() throws Exception {
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("studentiLog");
+        StudentLogRepo repo = new StudentLogRepo(dir.toString());
+        for (int i = 0; i < 100; i++) {
+            repo.save(new Student("" + i, "Student" + i, 931, "s" + i + "@gmail.com"));
+        }
+        repo.update(new Student("7", "Ana", 932, "ana@gmail.com"));
+        repo.delete("42");
+        repo.writeToFile();
+        repo.delete("43");
+        repo.close();
+
+        repo = new StudentLogRepo(dir.toString());
+        assertEquals(932, repo.findOne("7").getGrupa());
+        assertEquals(1, repo.findOne("7").getVersiune());
+        assertNull(repo.findOne("42"));
+        assertNull(repo.findOne("43"));
+        assertNotNull(repo.findOne("44"));
+        Student ana = repo.findOne("7");
+        ana.setGrupa(934);
+        assertTrue(repo.updateAll(List.of(ana, new Student("8", "Dan", 933, "dan@gmail.com"))).isEmpty());
+        repo.close();
+
+        repo = new StudentLogRepo(dir.toString());
+        assertEquals(934, repo.findOne("7").getGrupa());
+        assertEquals(933, repo.findOne("8").getGrupa());
+        StudentLogRepo redeschis = repo;
+        assertThrows(ConflictVersiuneException.class, () -> redeschis.update(new Student("7", "Ana", 933, "ana@gmail.com")));
+        repo.close();
+    }
+
+    @Test
+    public void testShardedRepository() {
+        String file = "fisiere/studentiShardTest.xml";
+        ShardedRepository<String, Student, StudentXMLRepo> repo = new ShardedRepository<>(file, 4, StudentXMLRepo::new);
+        List<Student> students = new java.util.ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            students.add(new Student("" + i, "Student" + i, 931, "s" + i + "@gmail.com"));
+        }
+        assertTrue(repo.saveAll(students).isEmpty());
+        assertNotNull(repo.save(new Student("3", "Ana", 931, "ana@gmail.com")));
+        assertEquals(1, repo.updateAll(List.of(new Student("3", "Ana", 932, "ana@gmail.com"),
+                new Student("4", "Dan", 932, "dan@gmail.com"), new Student("99", "Nou", 932, "nou@gmail.com"))).size());
+        assertEquals(932, new ShardedRepository<>(file, 4, StudentXMLRepo::new).findOne("3").getGrupa());
+
+        ShardedRepository.reshard(file, 4, 3, StudentXMLRepo::new);
+        assertFalse(new File(ShardedRepository.numeShard(file, 0)).exists());
+        assertThrows(ValidationException.class, () -> new ShardedRepository<>(file, 4, StudentXMLRepo::new));
+        repo = new ShardedRepository<>(file, 3, StudentXMLRepo::new);
+        int count = 0;
+        for (Student student : repo.findAll()) {
+            count++;
+        }
+        assertEquals(40, count);
+        assertEquals("Student7", repo.findOne("7").getNume());
+        stergeFisiere("studentiShardTest");
+
+        java.util.Properties configurare = new java.util.Properties();
+        configurare.setProperty("stocare", "text");
+        configurare.setProperty("stocare.shards", "2");
+        configurare.setProperty("stocare.studenti", "fisiere/studentiShardTest.txt");
+        configurare.setProperty("stocare.teme", "fisiere/temeShardTest.txt");
+        configurare.setProperty("stocare.note", "fisiere/noteShardTest.txt");
+        try (Stocare stocare = Stocare.deschide(configurare)) {
+            assertTrue(stocare.getStudenti() instanceof ShardedRepository);
+            assertTrue(stocare.getStudenti().saveAll(students).isEmpty());
+        }
+        assertTrue(new File("fisiere/studentiShardTest-1.txt").exists());
+        stergeFisiere("studentiShardTest");
+        stergeFisiere("temeShardTest");
+        stergeFisiere("noteShardTest");
+    }
+
+    private static void stergeFisiere(String prefix) {
+        File[] fisiere = new File("fisiere").listFiles((director, nume) -> nume.startsWith(prefix));
+        for (File fisier : fisiere) {
+            fisier.delete();
+        }
+    }
+
+    @Test
+    public void testWriteBehindRetriesAndReportsFailures() throws InterruptedException {
+        WriteBehindWriter writeBehind = new WriteBehindWriter(10);
+        java.util.concurrent.atomic.AtomicInteger incercari = new java.util.concurrent.atomic.AtomicInteger();
+        writeBehind.programeaza("fisier", () -> {
+            if (incercari.incrementAndGet() < 3) {
+                throw new ValidationException("disc plin");
+            }
+        });
+        for (int i = 0; i < 100 && incercari.get() < 3; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(3, incercari.get());
+        assertEquals(2, writeBehind.getEsecuri());
+        assertEquals("disc plin", writeBehind.getUltimaEroare().getMessage());
+        writeBehind.close();
+        java.util.concurrent.atomic.AtomicBoolean scris = new java.util.concurrent.atomic.AtomicBoolean();
+        writeBehind.programeaza("fisier", () -> scris.set(true));
+        assertTrue(scris.get());
+
+        WriteBehindWriter esuat = new WriteBehindWriter(10);
+        esuat.programeaza("fisier", () -> {
+            throw new ValidationException("disc plin");
+        });
+        assertThrows(ValidationException.class, esuat::close);
+    }
+
+    @Test
+    public void testWriteBehind() {
+        WriteBehindWriter writeBehind = new WriteBehindWriter(2);
+        this.studentFileRepository.setWriteBehind(writeBehind);
+        for (int i = 0; i < 20; i++) {
+            this.service.addStudent(new Student("wb" + i, "Ana", 931, "wb" + i + "@gmail.com"));
+        }
+        writeBehind.close();
+        assertEquals(0, writeBehind.getModificariNescrise());
+
+        StudentXMLRepo reloaded = new StudentXMLRepo("fisiere/studentiTest.xml");
+        for (int i = 0; i < 20; i++) {
+            assertNotNull(reloaded.findOne("wb" + i));
+            this.service.deleteStudent("wb" + i);
+        }
+    }
+
+    @Test
+    public void testChangeEvents() throws InterruptedException {
+        List<EvenimentModificare<String, Student>> events = new java.util.concurrent.CopyOnWriteArrayList<>();
+        java.util.concurrent.CountDownLatch latch = new java.util.concurrent.CountDownLatch(3);
+        this.studentFileRepository.getEvenimente().subscribe(new java.util.concurrent.Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(java.util.concurrent.Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(EvenimentModificare<String, Student> item) {
+                events.add(item);
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        this.studentFileRepository.update(new Student("1", "Ana", 932, "ana@gmail.com"));
+        this.service.deleteStudent("1");
+
+        assertTrue(latch.await(5, java.util.concurrent.TimeUnit.SECONDS));
+        assertEquals(EvenimentModificare.Tip.CREAT, events.get(0).getTip());
+        assertEquals(931, events.get(1).getInainte().getGrupa());
+        assertEquals(932, events.get(1).getDupa().getGrupa());
+        assertEquals(EvenimentModificare.Tip.STERS, events.get(2).getTip());
+        assertTrue(events.get(0).getSecventa() < events.get(2).getSecventa());
+    }
+
+    @Test
+    public void testConcurrentChangesKeepIndexOrder() throws InterruptedException {
+        String file = "fisiere/ordineTest.xml";
+        new File(file).delete();
+        StudentXMLRepo repo = new StudentXMLRepo(file);
+        WriteBehindWriter writeBehind = new WriteBehindWriter(1000);
+        repo.setWriteBehind(writeBehind);
+        java.util.Set<String> prezenti = java.util.concurrent.ConcurrentHashMap.newKeySet();
+        repo.adaugaIndex(new org.example.repository.Index<String, Student>() {
+            @Override
+            public void adauga(Student entity) {
+                prezenti.add(entity.getID());
+            }
+
+            @Override
+            public void sterge(Student entity) {
+                prezenti.remove(entity.getID());
+            }
+        });
+
+        List<Thread> fire = new java.util.ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            fire.add(new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    String id = Integer.toString(i % 3);
+                    if (repo.save(new Student(id, "Ana", 931, id + "@gmail.com")) != null) {
+                        repo.delete(id);
+                    }
+                }
+            }));
+        }
+        fire.forEach(Thread::start);
+        for (Thread fir : fire) {
+            fir.join();
+        }
+        writeBehind.close();
+        for (int i = 0; i < 3; i++) {
+            String id = Integer.toString(i);
+            assertEquals(repo.findOne(id) != null, prezenti.contains(id));
+        }
+        new File(file).delete();
+    }
+
+    @Test
+    public void testFeedbackWriter() throws IOException {
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("feedback");
+        FeedbackWriter feedbackWriter = new FeedbackWriter(dir.toString(), 100, 1, 16);
+        this.service.setFeedbackWriter(feedbackWriter);
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        this.service.addStudent(new Student("2", "Ion", 931, "ion@gmail.com"));
+        this.service.addTema(new Tema("1", "s", 5, 4));
+        this.service.addNota(new Nota("1#1", "1", "1", 9, LocalDate.now()), "bine");
+        this.service.addNota(new Nota("2#1", "2", "1", 7, LocalDate.now()), "ok");
+        assertThrows(ValidationException.class,
+                () -> this.service.addNota(new Nota("2#1", "2", "1", 10, LocalDate.now()), "duplicat"));
+        feedbackWriter.adauga(new FeedbackWriter.Feedback("../a/b?", "1", 5, 4, 4, "nume ciudat"));
+        feedbackWriter.close();
+
+        assertEquals(3, feedbackWriter.getScrise());
+        assertEquals(0, feedbackWriter.getEsuate());
+        assertEquals(0, feedbackWriter.getFisiereDeschise());
+        assertTrue(java.nio.file.Files.readString(dir.resolve("Ana.txt")).contains("Feedback: bine"));
+        assertTrue(java.nio.file.Files.readString(dir.resolve("Ion.txt")).contains("Nota: 7.0"));
+        assertFalse(java.nio.file.Files.readString(dir.resolve("Ion.txt")).contains("duplicat"));
+        assertTrue(java.nio.file.Files.readString(dir.resolve("_.._a_b_.txt")).contains("nume ciudat"));
+        assertEquals(7.0, this.service.findNota("2#1").getNota());
+
+        this.service.deleteNota("1#1");
+        this.service.deleteNota("2#1");
+        this.service.deleteStudent("1");
+        this.service.deleteStudent("2");
+        this.service.deleteTema("1");
+    }
+
+    @Test
+    public void testExternalModificationReload() throws InterruptedException {
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        StudentXMLRepo other = new StudentXMLRepo("fisiere/studentiTest.xml");
+        assertFalse(this.studentFileRepository.reincarcaDacaModificatExtern());
+
+        ReincarcareAutomata reincarcare = new ReincarcareAutomata();
+        reincarcare.inregistreaza(this.studentFileRepository);
+        Thread.sleep(50);
+        other.save(new Student("2", "Ion", 932, "ion@gmail.com"));
+        other.delete("1");
+
+        long limit = System.currentTimeMillis() + 15000;
+        while ((this.studentFileRepository.findOne("2") == null || this.studentFileRepository.findOne("1") != null)
+                && System.currentTimeMillis() < limit) {
+            Thread.sleep(50);
+        }
+        reincarcare.close();
+        assertNotNull(this.studentFileRepository.findOne("2"));
+        assertNull(this.studentFileRepository.findOne("1"));
+        this.service.deleteStudent("2");
+    }
+
+    @Test
+    public void testReloadKeepsMemoryOnParseErrorAndPendingWrites() throws Exception {
+        String file = "fisiere/reincarcareTest.xml";
+        new File(file).delete();
+        StudentXMLRepo repo = new StudentXMLRepo(file);
+        repo.save(new Student("1", "Ana", 931, "ana@gmail.com"));
+
+        WriteBehindWriter writeBehind = new WriteBehindWriter(10);
+        java.util.concurrent.CountDownLatch blocare = new java.util.concurrent.CountDownLatch(1);
+        writeBehind.programeaza(new Object(), () -> {
+            try {
+                blocare.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        repo.setWriteBehind(writeBehind);
+        repo.save(new Student("2", "Ion", 932, "ion@gmail.com"));
+        repo.delete("1");
+
+        StudentXMLRepo other = new StudentXMLRepo(file);
+        other.save(new Student("3", "Dan", 933, "dan@gmail.com"));
+        assertTrue(repo.reincarcaDacaModificatExtern());
+        assertNotNull(repo.findOne("2"));
+        assertNull(repo.findOne("1"));
+        assertNotNull(repo.findOne("3"));
+
+        blocare.countDown();
+        writeBehind.close();
+        StudentXMLRepo reloaded = new StudentXMLRepo(file);
+        assertNotNull(reloaded.findOne("2"));
+        assertNull(reloaded.findOne("1"));
+
+        java.nio.file.Files.writeString(java.nio.file.Path.of(file), "<inbox><student idStudent=\"2\">");
+        assertThrows(ValidationException.class, repo::reincarcaDacaModificatExtern);
+        assertNotNull(repo.findOne("2"));
+        assertNotNull(repo.findOne("3"));
+        // la pornire un fisier invalid opreste deschiderea si ramane neatins
+        assertThrows(ValidationException.class, () -> new StudentXMLRepo(file));
+        assertEquals("<inbox><student idStudent=\"2\">", java.nio.file.Files.readString(java.nio.file.Path.of(file)));
+        new File(file).delete();
+    }
+
+    @Test
+    public void testOptimisticUpdate() {
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        Student first = new Student("1", "Ana", 932, "ana@gmail.com");
+        Student second = new Student("1", "Ana", 933, "ana@gmail.com");
+
+        assertNull(this.service.updateStudent(first));
+        assertEquals(1, first.getVersiune());
+        assertThrows(ConflictVersiuneException.class, () -> this.service.updateStudent(second));
+        assertEquals(932, this.service.findStudent("1").getGrupa());
+
+        StudentXMLRepo reloaded = new StudentXMLRepo("fisiere/studentiTest.xml");
+        assertEquals(1, reloaded.findOne("1").getVersiune());
+        assertEquals(932, reloaded.findOne("1").getGrupa());
+        this.service.deleteStudent("1");
+    }
+
+    @Test
+    public void testCascadingDelete() {
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        this.service.addStudent(new Student("2", "Ion", 931, "ion@gmail.com"));
+        this.service.addTema(new Tema("1", "s", 5, 4));
+        this.service.addNota(new Nota("1", "1", "1", 8, LocalDate.now()), "ok");
+        this.service.addNota(new Nota("2", "2", "1", 9, LocalDate.now()), "ok");
+
+        this.service.setPoliticaStergere(PoliticaStergere.RESTRICT);
+        assertThrows(ValidationException.class, () -> this.service.deleteStudent("1"));
+        assertNotNull(this.service.findStudent("1"));
+
+        this.service.setPoliticaStergere(PoliticaStergere.CASCADE);
+        assertNotNull(this.service.deleteStudent("1"));
+        assertNull(this.service.findNota("1"));
+        assertNotNull(this.service.findNota("2"));
+        assertNull(new NotaXMLRepo("fisiere/noteTest.xml").findOne("1"));
+
+        assertNotNull(this.service.deleteTema("1"));
+        assertNull(this.service.findNota("2"));
+        assertFalse(this.service.getAllNote().iterator().hasNext());
+        this.service.deleteStudent("2");
+    }
+
+    @Test
+    public void testIntegrityVerification() throws IOException {
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        this.service.addTema(new Tema("1", "s", 5, 4));
+        this.service.addNota(new Nota("1", "1", "1", 8, LocalDate.now()), "ok");
+        this.service.addStudent(new Student("2", "Ion", 931, "ion@gmail.com"));
+        assertTrue(this.service.verificaIntegritate().esteConsistent());
+
+        File fisier = new File("fisiere/noteIntegritate.txt");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fisier))) {
+            writer.write("1,1,8.0,2018-10-10\n1,1,9.0,2018-10-10\n9,1,8.0,2018-10-10\n2,1,12.0,2018-10-10\n");
+        }
+        NotaFileRepository note = new NotaFileRepository(fisier.getPath());
+        RaportIntegritate raport = new VerificatorIntegritate()
+                .adauga("note", note, this.notaValidator)
+                .verifica();
+        fisier.delete();
+
+        assertFalse(raport.esteConsistent());
+        assertEquals(3L, raport.getVerificate().get("note"));
+        assertEquals(3, raport.getProbleme().size());
+        assertTrue(raport.getProbleme().stream().anyMatch(p ->
+                p.getTip() == RaportIntegritate.Problema.Tip.DUPLICAT && p.getId().equals("1#1")));
+        assertTrue(raport.getProbleme().stream().anyMatch(p -> p.getId().equals("9#1")));
+        assertTrue(raport.getProbleme().stream().anyMatch(p -> p.getId().equals("2#1")));
+
+        TemaFileRepository teme = new TemaFileRepository("fisiere/temeIntegritate.txt");
+        teme.save(new Tema("7", null, 5, 4));
+        raport = new VerificatorIntegritate().adauga("teme", teme, new TemaValidator()).verifica();
+        new File("fisiere/temeIntegritate.txt").delete();
+        assertEquals("Descriere invalida!", raport.getProbleme().get(0).getMesaj());
+        this.service.deleteStudent("1");
+        this.service.deleteStudent("2");
+        this.service.deleteTema("1");
+    }
+
+    @Test
+    public void testQueryPaging() {
+        this.studentFileRepository.saveAll(List.of(
+                new Student("1", "Dan", 931, "dan@gmail.com"),
+                new Student("2", "Ana", 932, "ana@gmail.com"),
+                new Student("3", "Ion", 931, "ion@gmail.com"),
+                new Student("4", "Bia", 933, "bia@gmail.com"),
+                new Student("5", "Ana", 931, "ana2@gmail.com")));
+
+        Pagina<Student> pagina = this.service.getStudenti(null, 2);
+        assertEquals(List.of("2", "5"), pagina.getElemente().stream().map(Student::getID).toList());
+        pagina = this.service.getStudenti(pagina.getUrmatoarea(), 2);
+        assertEquals(List.of("Bia", "Dan"), pagina.getElemente().stream().map(Student::getNume).toList());
+        pagina = this.service.getStudenti(pagina.getUrmatoarea(), 2);
+        assertEquals(List.of("Ion"), pagina.getElemente().stream().map(Student::getNume).toList());
+        assertFalse(pagina.areUrmatoarea());
+
+        Pagina<Student> grupa = this.studentFileRepository.interogheaza(new Interogare<String, Student>()
+                .filtru(s -> s.getGrupa() == 931)
+                .ordonataDupa(Comparator.comparing(Student::getNume).reversed())
+                .deplasament(1)
+                .limita(1));
+        assertEquals("Dan", grupa.getElemente().get(0).getNume());
+        assertTrue(grupa.areUrmatoarea());
+        grupa = this.studentFileRepository.interogheaza(new Interogare<String, Student>()
+                .filtru(s -> s.getGrupa() == 931)
+                .ordonataDupa(Comparator.comparing(Student::getNume).reversed())
+                .dupa(grupa.getUrmatoarea()));
+        assertEquals(List.of("5"), grupa.getElemente().stream().map(Student::getID).toList());
+
+        IndexOrdonat<Integer, String, Student> dupaGrupa =
+                this.studentFileRepository.adaugaIndex(new IndexOrdonat<>(Student::getGrupa));
+        Pagina<Student> descrescator = this.studentFileRepository.interogheaza(new Interogare<String, Student>()
+                .ordonataDupa(dupaGrupa, true)
+                .limita(2));
+        assertEquals(List.of("4", "2"), descrescator.getElemente().stream().map(Student::getID).toList());
+
+        for (int i = 1; i <= 5; i++) {
+            this.service.deleteStudent(String.valueOf(i));
+        }
+    }
+
+    @Test
+    public void testNameSearch() {
+        this.studentFileRepository.saveAll(List.of(
+                new Student("1", "Ștefan Ionescu", 931, "stefan@gmail.com"),
+                new Student("2", "Stela Pop", 932, "stela@gmail.com"),
+                new Student("3", "Andrei Ştefănescu", 931, "andrei@gmail.com"),
+                new Student("4", "Maria Pop", 933, "maria@gmail.com")));
+
+        assertEquals(List.of("1", "2", "3"), this.service.cautaStudentiDupaNume("ste", 10).stream().map(Student::getID).toList());
+        assertEquals(List.of("1"), this.service.cautaStudentiDupaNume("STEFAN", 1).stream().map(Student::getID).toList());
+        assertEquals(List.of("4", "2"), this.service.cautaStudentiDupaNume("pop", 10).stream().map(Student::getID).toList());
+        assertEquals(List.of("4", "2"), this.service.cautaStudentiDupaNume("op", 10).stream().map(Student::getID).toList());
+
+        Student redenumit = new Student("4", "Maria Stan", 933, "maria@gmail.com");
+        this.service.updateStudent(redenumit);
+        assertEquals(List.of("2"), this.service.cautaStudentiDupaNume("pop", 10).stream().map(Student::getID).toList());
+        this.service.deleteStudent("2");
+        assertTrue(this.service.cautaStudentiDupaNume("pop", 10).isEmpty());
+
+        for (int i = 1; i <= 4; i++) {
+            this.service.deleteStudent(String.valueOf(i));
+        }
+    }
+
+    @Test
+    public void testGroupGradebook() {
+        this.service.addStudent(new Student("1", "Ion", 225, "ion@gmail.com"));
+        this.service.addStudent(new Student("2", "Ana", 225, "ana@gmail.com"));
+        this.service.addStudent(new Student("3", "Dan", 226, "dan@gmail.com"));
+        this.service.addTema(new Tema("1", "s", 5, 4));
+        this.service.addNota(new Nota("1#1", "1", "1", 8, LocalDate.now()), "ok");
+
+        assertEquals(List.of("2", "1"), this.service.getStudentiGrupa(225).stream().map(Student::getID).toList());
+        Map<Student, List<Nota>> catalog = this.service.getCatalogGrupa(225);
+        assertEquals(2, catalog.size());
+        assertEquals(List.of(0, 1), catalog.values().stream().map(List::size).toList());
+
+        Student mutat = new Student("3", "Dan", 225, "dan@gmail.com");
+        this.service.updateStudent(mutat);
+        assertEquals(3, this.service.getStudentiGrupa(225).size());
+        assertTrue(this.service.getStudentiGrupa(226).isEmpty());
+
+        this.service.deleteStudent("1");
+        this.service.deleteStudent("2");
+        this.service.deleteStudent("3");
+        this.service.deleteTema("1");
+    }
+
+    @Test
+    public void testGradeWithoutDateIsNotIndexedByDate() {
+        File fisier = new File("fisiere/noteFaraDataTest.txt");
+        fisier.delete();
+        NotaFileRepository note = new NotaFileRepository(fisier.getPath());
+        note.save(new Nota("1#1", "1", "1", 8, null));
+        Service service = new Service(this.studentFileRepository, this.studentValidator, this.temaFileRepository,
+                this.temaValidator, note, this.notaValidator);
+        note.save(new Nota("1#2", "1", "2", 9, null));
+        note.save(new Nota("1#3", "1", "3", 7, LocalDate.now()));
+
+        assertEquals(List.of("1#3"), service.getNoteInterval(LocalDate.MIN, LocalDate.MAX, null, null)
+                .stream().map(Nota::getID).toList());
+        assertNotNull(note.delete("1#2"));
+        fisier.delete();
+    }
+
+    @Test
+    public void testDateRangeQuery() {
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        this.service.addStudent(new Student("2", "Ion", 931, "ion@gmail.com"));
+        LocalDate azi = LocalDate.now();
+        this.notaFileRepository.saveAll(List.of(
+                new Nota("1#1", "1", "1", 8, azi.minusDays(10)),
+                new Nota("1#2", "1", "2", 9, azi),
+                new Nota("2#1", "2", "1", 7, azi.minusDays(3)),
+                new Nota("2#2", "2", "2", 6, azi.plusDays(8))));
+
+        assertEquals(List.of("2#1", "1#2"), this.service.getNoteInterval(azi.minusDays(5), azi, null, null)
+                .stream().map(Nota::getID).toList());
+        assertEquals(List.of("1#1", "2#1"), this.service.getNoteInterval(azi.minusDays(30), azi.plusDays(30), null, "1")
+                .stream().map(Nota::getID).toList());
+        assertEquals(List.of("1#2", "2#2"), this.service.getNoteInterval(azi.minusDays(30), azi.plusDays(30), null, "2")
+                .stream().map(Nota::getID).toList());
+        assertEquals(List.of("2#2"), this.service.getNoteInterval(azi.plusDays(1), azi.plusDays(30), "2", null)
+                .stream().map(Nota::getID).toList());
+        assertEquals(List.of("2#1", "1#2"), this.service.getNoteSaptamana(0).stream().map(Nota::getID).toList());
+        assertEquals(List.of("2#2"), this.service.getNoteSaptamana(2).stream().map(Nota::getID).toList());
+
+        this.service.deleteStudent("1");
+        this.service.deleteStudent("2");
+    }
+
+    @Test
+    public void testUniqueEmail() {
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        assertThrows(ValidationException.class,
+                () -> this.service.addStudent(new Student("2", "Ion", 931, " ANA@gmail.com ")));
+        assertNull(this.service.findStudent("2"));
+        assertEquals("1", this.service.findStudentDupaEmail("Ana@Gmail.com").getID());
+
+        this.service.addStudent(new Student("2", "Ion", 931, "ion@gmail.com"));
+        assertThrows(ValidationException.class,
+                () -> this.service.updateStudent(new Student("2", "Ion", 931, "ana@gmail.com")));
+        assertNull(this.service.updateStudent(new Student("1", "Ana", 931, "ana.noua@gmail.com")));
+        assertNull(this.service.findStudentDupaEmail("ana@gmail.com"));
+        assertNull(this.service.updateStudent(new Student("2", "Ion", 931, "ana@gmail.com")));
+        assertEquals("2", this.service.findStudentDupaEmail("ana@gmail.com").getID());
+
+        List<Student> respinsi = this.studentFileRepository.saveAll(List.of(
+                new Student("3", "Dan", 931, "dan@gmail.com"),
+                new Student("1", "Ana", 931, "alta@gmail.com")));
+        assertEquals(List.of("1"), respinsi.stream().map(Student::getID).toList());
+        assertThrows(ValidationException.class,
+                () -> this.service.addStudent(new Student("4", "Dan", 931, "DAN@gmail.com")));
+        assertEquals("3", this.service.findStudentDupaEmail("dan@gmail.com").getID());
+        assertNull(this.service.findStudentDupaEmail("alta@gmail.com"));
+
+        this.service.deleteStudent("3");
+        assertNull(this.service.findStudentDupaEmail("dan@gmail.com"));
+
+        // un student cu emailul altuia, ca in datele vechi din fisier, preia emailul cand titularul e sters
+        assertNull(this.studentFileRepository.save(new Student("5", "Eva", 931, "ana@gmail.com")));
+        assertEquals("2", this.service.findStudentDupaEmail("ana@gmail.com").getID());
+        this.service.deleteStudent("2");
+        assertEquals("5", this.service.findStudentDupaEmail("ana@gmail.com").getID());
+        assertThrows(ValidationException.class,
+                () -> this.service.addStudent(new Student("6", "Dan", 931, "ana@gmail.com")));
+        this.service.deleteStudent("5");
+        assertNull(this.service.findStudentDupaEmail("ana@gmail.com"));
+        this.service.deleteStudent("1");
+        this.service.deleteStudent("2");
+    }
+
+    @Test
+    public void testBatchGrading() {
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        this.service.addStudent(new Student("2", "Ion", 931, "ion@gmail.com"));
+        this.service.addTema(new Tema("1", "s", 1, 1));
+        LocalDate azi = LocalDate.now();
+
+        List<NotareLot.Rezultat> rezultate = this.service.addNote(new NotareLot()
+                .adauga(new Nota("1#1", "1", "1", 9, azi), "ok")
+                .adauga(new Nota("2#1", "2", "1", 8, azi.plusDays(8)), "intarziere")
+                .adauga(new Nota("3#1", "3", "1", 7, azi), "student inexistent")
+                .adauga(new Nota("1#1", "1", "1", 6, azi), "duplicat")
+                .adauga(new Nota("2#2", "2", "1", 11, azi), "nota prea mare"));
+
+        assertEquals(5, rezultate.size());
+        assertTrue(rezultate.get(0).isReusit());
+        assertEquals(9, rezultate.get(0).getNotaFinala());
+        assertEquals(5.5, rezultate.get(1).getNotaFinala());
+        assertEquals("Studentul nu exista!", rezultate.get(2).getEroare());
+        assertEquals("Nota exista deja!", rezultate.get(3).getEroare());
+        assertFalse(rezultate.get(4).isReusit());
+
+        NotaXMLRepo reloaded = new NotaXMLRepo("fisiere/noteTest.xml");
+        assertEquals(9, reloaded.findOne("1#1").getNota());
+        assertEquals(5.5, reloaded.findOne("2#1").getNota());
+        assertNull(reloaded.findOne("3#1"));
+
+        this.service.deleteStudent("1");
+        this.service.deleteStudent("2");
+        this.service.deleteTema("1");
+    }
+
+    @Test
+    public void testValidationContext() {
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        this.service.addTema(new Tema("1", "s", 2, 1));
+        Nota nota = new Nota("1#1", "1", "1", 9, LocalDate.now().plusDays(8));
+
+        ContextNota context = this.notaValidator.valideaza(nota);
+        assertEquals("Ana", context.getStudent().getNume());
+        assertEquals("1", context.getTema().getID());
+        assertEquals(2, context.getSaptamanaPredare());
+
+        Nota faraTema = new Nota("1#9", "1", "9", 11, LocalDate.now());
+        ValidationException eroare = assertThrows(ValidationException.class, () -> this.notaValidator.valideaza(faraTema));
+        assertEquals("Tema nu exista!", eroare.getMessage());
+
+        int[] apelate = new int[1];
+        LantReguli<String> lant = LantReguli.<String>de(Reguli.conditie(s -> !s.isEmpty(), "vid"))
+                .si(Reguli.conditie(s -> s.length() < 3, "prea lung"))
+                .si(s -> apelate[0]++);
+        assertEquals("prea lung", assertThrows(ValidationException.class, () -> lant.validate("abcd")).getMessage());
+        assertEquals(0, apelate[0]);
+        lant.validate("ab");
+        assertEquals(1, apelate[0]);
+        assertThrows(ValidationException.class, () -> this.service.findNota(""));
+
+        this.service.deleteStudent("1");
+        this.service.deleteTema("1");
+    }
+
+    @Test
+    public void testPenaltyPolicies() {
+        PoliticaPenalizare politica = PoliticaPenalizare.parse("1:1, 3:4");
+        assertEquals("1:1.0,2:1.0,3:4.0", politica.toString());
+        assertEquals(9, politica.aplica(9, 0));
+        assertEquals(8, politica.aplica(9, 2));
+        assertEquals(0, politica.aplica(3, 3));
+        assertThrows(ValidationException.class, () -> politica.aplica(9, 4));
+        assertThrows(ValidationException.class, () -> PoliticaPenalizare.parse("1-2"));
+
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        this.service.addTema(new Tema("1", "s", 1, 1));
+        LocalDate azi = LocalDate.now();
+        this.service.addNota(new Nota("1#1", "1", "1", 9, azi), "ok");
+        this.service.addNota(new Nota("1#2", "1", "1", 8, azi.plusDays(8)), "intarziere");
+        assertEquals(5.5, this.service.findNota("1#2").getNota());
+
+        this.service.getMotorPenalizari().setPoliticaTema("1", PoliticaPenalizare.parse("1:1,2:3"));
+        List<NotareLot.Rezultat> rezultate = this.service.reaplicaPenalizari();
+        assertEquals(1, rezultate.size());
+        assertEquals(7, rezultate.get(0).getNotaFinala());
+
+        this.service.getMotorPenalizari().setPoliticaTema("1", PoliticaPenalizare.parse(""));
+        rezultate = this.service.reaplicaPenalizari();
+        assertEquals(1, rezultate.size());
+        assertFalse(rezultate.get(0).isReusit());
+
+        NotaXMLRepo reloaded = new NotaXMLRepo("fisiere/noteTest.xml");
+        assertEquals(9, reloaded.findOne("1#1").getNota());
+        assertEquals(7, reloaded.findOne("1#2").getNota());
+        assertEquals(8, reloaded.findOne("1#2").getNotaInitiala());
+
+        this.service.getMotorPenalizari().setPoliticaTema("1", null);
+        this.service.deleteStudent("1");
+        this.service.deleteTema("1");
+    }
+
+    @Test
+    public void testInitialGradePersistedInEveryFormat() throws IOException {
+        java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("notaInitiala");
+        String text = dir.resolve("note.txt").toString();
+        NotaFileRepository repo = new NotaFileRepository(text);
+        Nota intarziata = new Nota("1#1", "1", "1", 9, LocalDate.of(2018, 10, 10));
+        intarziata.setNota(6.5);
+        repo.save(intarziata);
+        java.nio.file.Files.writeString(java.nio.file.Path.of(text), "1,2,6.5,2018-10-10\n", java.nio.file.StandardOpenOption.APPEND);
+
+        NotaFileRepository reloaded = new NotaFileRepository(text);
+        assertEquals(9, reloaded.findOne("1#1").getNotaInitiala());
+        assertEquals(6.5, reloaded.findOne("1#1").getNota());
+        assertFalse(reloaded.findOne("1#2").isNotaInitialaCunoscuta());
+
+        NotaXMLRepo xml = new NotaXMLRepo(dir.resolve("note.xml").toString());
+        xml.save(reloaded.findOne("1#2"));
+        NotaXMLRepo xmlReloaded = new NotaXMLRepo(dir.resolve("note.xml").toString());
+        assertFalse(xmlReloaded.findOne("1#2").isNotaInitialaCunoscuta());
+        assertEquals(6.5, xmlReloaded.findOne("1#2").getNota());
+
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        this.service.addTema(new Tema("1", "s", 1, 1));
+        this.service.addNota(new Nota("1#1", "1", "1", 8, LocalDate.now().plusDays(8)), "intarziere");
+        Nota legacy = this.service.findNota("1#1");
+        legacy.setNotaInitiala(Double.NaN);
+        this.notaFileRepository.update(legacy);
+        assertTrue(this.service.reaplicaPenalizari().isEmpty());
+        assertEquals(5.5, this.service.findNota("1#1").getNota());
+
+        this.service.deleteStudent("1");
+        this.service.deleteTema("1");
+    }
+
+    @Test
+    public void testCatalogExport() throws IOException {
+        this.service.addStudent(new Student("1", "Pop, Ana", 931, "ana@gmail.com"));
+        this.service.addTema(new Tema("1", "tema \"grea\"", 1, 1));
+        LocalDate azi = LocalDate.now();
+        this.service.addNota(new Nota("1#1", "1", "1", 9, azi), "ok");
+
+        ExportCatalog.Raport csv = this.service.exportaCatalog("fisiere/catalogTest.csv", ExportCatalog.Format.CSV, false);
+        assertEquals(1, csv.getRanduri());
+        List<String> linii = java.nio.file.Files.readAllLines(java.nio.file.Path.of("fisiere/catalogTest.csv"));
+        assertEquals(2, linii.size());
+        assertEquals("1#1,1,\"Pop, Ana\",931,ana@gmail.com,1,\"tema \"\"grea\"\"\",1," + azi + ",9.0,9.0", linii.get(1));
+        assertEquals(java.nio.file.Files.size(java.nio.file.Path.of("fisiere/catalogTest.csv")), csv.getOcteti());
+
+        ExportCatalog.Raport xml = this.service.exportaCatalog("fisiere/catalogTest.xml.gz", ExportCatalog.Format.XML, true);
+        assertEquals(1, xml.getRanduri());
+        try (var intrare = new java.util.zip.GZIPInputStream(new java.io.FileInputStream("fisiere/catalogTest.xml.gz"))) {
+            String continut = new String(intrare.readAllBytes(), java.nio.charset.StandardCharsets.UTF_8);
+            assertTrue(continut.contains("nume=\"Pop, Ana\""));
+            assertTrue(continut.contains("descriere=\"tema &quot;grea&quot;\""));
+        }
+
+        new File("fisiere/catalogTest.csv").delete();
+        new File("fisiere/catalogTest.xml.gz").delete();
+        this.service.deleteStudent("1");
+        this.service.deleteTema("1");
+    }
+
+    @Test
+    public void testFormatMigration() throws IOException {
+        java.nio.file.Path text = java.nio.file.Path.of("fisiere/migrareTest.txt");
+        java.nio.file.Path xml = java.nio.file.Path.of("fisiere/migrareTest.xml");
+        java.nio.file.Path inapoi = java.nio.file.Path.of("fisiere/migrareInapoiTest.txt");
+        List<String> linii = List.of("1,1,9.5,2018-10-07", "1,2,10.0,2018-10-14", "2,3,7.0,2018-10-28");
+        java.nio.file.Files.write(text, linii);
+
+        MigrareFormat.Raport raport = MigrareFormat.textInXML(MigrareFormat.NOTE, text, xml, 2);
+        assertEquals(3, raport.getInregistrari());
+        NotaXMLRepo note = new NotaXMLRepo(xml.toString());
+        assertEquals(9.5, note.findOne("1#1").getNota());
+        assertEquals(LocalDate.of(2018, 10, 28), note.findOne("2#3").getData());
+
+        MigrareFormat.Raport invers = MigrareFormat.xmlInText(MigrareFormat.NOTE, xml, inapoi, 2);
+        assertEquals(raport.getSumaControl(), invers.getSumaControl());
+        assertEquals(linii, java.nio.file.Files.readAllLines(inapoi));
+
+        java.nio.file.Files.writeString(xml, "<inbox><student idStudent=\"1\"><nume>Pop, Ana</nume>"
+                + "<grupa>931</grupa><email>a</email></student></inbox>");
+        assertThrows(ValidationException.class, () -> MigrareFormat.xmlInText(MigrareFormat.STUDENTI, xml, inapoi, 2));
+        assertEquals(linii, java.nio.file.Files.readAllLines(inapoi));
+
+        java.nio.file.Files.delete(text);
+        java.nio.file.Files.delete(xml);
+        java.nio.file.Files.delete(inapoi);
+    }
+
+    @Test
+    public void testStorageProviders() throws IOException {
+        assertTrue(StorageProvider.disponibile().containsAll(List.of("xml", "text", "btree", "log")));
+        assertThrows(ValidationException.class, () -> StorageProvider.gaseste("inexistent"));
+
+        for (String backend : List.of("text", "btree")) {
+            java.util.Properties configurare = new java.util.Properties();
+            configurare.setProperty("stocare", backend);
+            configurare.setProperty("stocare.studenti", "fisiere/studentiSpiTest." + backend);
+            configurare.setProperty("stocare.teme", "fisiere/temeSpiTest." + backend);
+            configurare.setProperty("stocare.note", "fisiere/noteSpiTest." + backend);
+            configurare.setProperty("stocare.cache", backend.equals("text") ? "tiny_lfu" : "");
+            try (Stocare stocare = Stocare.deschide(configurare)) {
+                assertEquals(backend.equals("text"), stocare.getStudenti() instanceof CachingRepository);
+                Service service = new Service(stocare.getStudenti(), new StudentValidator(), stocare.getTeme(), new TemaValidator(),
+                        stocare.getNote(), new NotaValidator(stocare.getStudenti(), stocare.getTeme()));
+                service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+                service.addStudent(new Student("2", "Ion", 932, "ion@gmail.com"));
+                assertThrows(ValidationException.class, () -> service.addStudent(new Student("3", "Dan", 931, " ANA@gmail.com")));
+                service.addTema(new Tema("1", "s", 1, 1));
+                service.addNota(new Nota("1#1", "1", "1", 9, LocalDate.now()), "ok");
+
+                assertEquals("1", service.findStudentDupaEmail("Ana@Gmail.com").getID());
+                assertEquals(List.of("Ana"), service.getStudentiGrupa(931).stream().map(Student::getNume).toList());
+                assertEquals(1, service.getNoteStudent("1", null, 10).getElemente().size());
+                service.deleteStudent("1");
+                assertNull(service.findNota("1#1"));
+            }
+            for (String fisier : List.of("studenti", "teme", "note")) {
+                java.nio.file.Files.deleteIfExists(java.nio.file.Path.of("fisiere/" + fisier + "SpiTest." + backend));
+            }
+        }
+    }
+
+    @Test
+    public void testH2Backend() throws IOException {
+        java.util.Properties configurare = new java.util.Properties();
+        configurare.setProperty("stocare", "h2");
+        configurare.setProperty("h2.url", "jdbc:h2:./fisiere/catalogTest");
+        try (Stocare stocare = Stocare.deschide(configurare)) {
+            Service service = new Service(stocare.getStudenti(), new StudentValidator(), stocare.getTeme(), new TemaValidator(),
+                    stocare.getNote(), new NotaValidator(stocare.getStudenti(), stocare.getTeme()));
+            service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+            service.addStudent(new Student("2", "Ion", 931, "ion@gmail.com"));
+            service.addTema(new Tema("1", "s", 1, 1));
+            service.addTema(new Tema("2", "t", 1, 1));
+            List<NotareLot.Rezultat> rezultate = service.addNote(new NotareLot()
+                    .adauga(new Nota("1#1", "1", "1", 9, LocalDate.now()), "ok")
+                    .adauga(new Nota("1#2", "1", "2", 7, LocalDate.now()), "ok")
+                    .adauga(new Nota("2#1", "2", "1", 6, LocalDate.now()), "ok")
+                    .adauga(new Nota("2#1", "2", "1", 5, LocalDate.now()), "duplicat"));
+            assertEquals("Nota exista deja!", rezultate.get(3).getEroare());
+            assertEquals(Map.of("1", 8.0, "2", 6.0), service.getMediiStudenti());
+            assertEquals(Map.of("1", 7.5, "2", 7.0), service.getMediiTeme());
+
+            Student ana = service.findStudent("1");
+            Student veche = service.findStudent("1");
+            ana.setNume("Ana Maria");
+            assertNull(service.updateStudent(ana));
+            veche.setNume("Ana Pop");
+            assertThrows(ConflictVersiuneException.class, () -> service.updateStudent(veche));
+            assertEquals(List.of("Ana Maria", "Ion"), service.getStudentiGrupa(931).stream().map(Student::getNume).toList());
+        }
+        try (Stocare stocare = Stocare.deschide(configurare)) {
+            assertEquals("Ana Maria", stocare.getStudenti().findOne("1").getNume());
+            assertEquals(3, stocare.getNote().deleteAll(List.of("1#1", "1#2", "2#1", "9#9")).size());
+            assertEquals(2, stocare.getStudenti().deleteAll(List.of("1", "2")).size());
+            assertEquals(2, stocare.getTeme().deleteAll(List.of("1", "2")).size());
+        }
+        java.nio.file.Files.deleteIfExists(java.nio.file.Path.of("fisiere/catalogTest.mv.db"));
+        java.nio.file.Files.deleteIfExists(java.nio.file.Path.of("fisiere/catalogTest.trace.db"));
+    }
+
+    @Test
+    public void testH2ConcurrentSaveAll() throws Exception {
+        java.util.Properties configurare = new java.util.Properties();
+        configurare.setProperty("stocare", "h2");
+        configurare.setProperty("h2.url", "jdbc:h2:./fisiere/catalogConcurentTest");
+        List<Student> students = new java.util.ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            students.add(new Student("" + i, "Student" + i, 931, "s" + i + "@gmail.com"));
+        }
+        try (Stocare stocare = Stocare.deschide(configurare)) {
+            java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(4);
+            List<java.util.concurrent.Future<List<Student>>> rezultate = new java.util.ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                rezultate.add(executor.submit(() -> stocare.getStudenti().saveAll(students)));
+            }
+            int existente = 0;
+            for (java.util.concurrent.Future<List<Student>> rezultat : rezultate) {
+                existente += rezultat.get().size();
+            }
+            executor.shutdown();
+            assertEquals(3 * students.size(), existente);
+            assertEquals(2, stocare.getStudenti().deleteAll(List.of("0", "199")).size());
+        }
+        java.nio.file.Files.deleteIfExists(java.nio.file.Path.of("fisiere/catalogConcurentTest.mv.db"));
+        java.nio.file.Files.deleteIfExists(java.nio.file.Path.of("fisiere/catalogConcurentTest.trace.db"));
+    }
+
+    @Test
+    public void testGradeHistory() throws IOException {
+        java.nio.file.Path fisier = java.nio.file.Path.of("fisiere/istoricTest.bin");
+        java.nio.file.Path snapshoturi = java.nio.file.Path.of("fisiere/istoricTest.bin.snapshot");
+        java.nio.file.Files.deleteIfExists(fisier);
+        java.nio.file.Files.deleteIfExists(snapshoturi);
+        java.util.concurrent.atomic.AtomicLong ceas = new java.util.concurrent.atomic.AtomicLong(1000);
+        IstoricNote istoric = new IstoricNote(fisier.toString(), 2, ceas::get);
+        this.service.setIstoricNote(istoric);
+        this.service.addStudent(new Student("1", "Ana", 931, "ana@gmail.com"));
+        this.service.addTema(new Tema("1", "s", 1, 1));
+
+        this.service.addNota(new Nota("1#1", "1", "1", 8, LocalDate.now().plusDays(8)), "intarziere");
+        ceas.set(2000);
+        this.service.getMotorPenalizari().setPoliticaTema("1", PoliticaPenalizare.parse("1:1"));
+        this.service.reaplicaPenalizari();
+        ceas.set(3000);
+        this.service.deleteNota("1#1");
+
+        List<IstoricNote.Eveniment> evenimente = this.service.getIstoricNota("1#1");
+        assertEquals(List.of(IstoricNote.Tip.ADAUGATA, IstoricNote.Tip.MODIFICATA, IstoricNote.Tip.STEARSA),
+                evenimente.stream().map(IstoricNote.Eveniment::getTip).toList());
+        assertEquals(5.5, evenimente.get(0).getNota());
+        assertEquals(8, evenimente.get(0).getNotaInitiala());
+        assertEquals(7, evenimente.get(1).getNota());
+        assertEquals(5.5, this.service.getNotaLa("1#1", java.time.Instant.ofEpochMilli(1500)).getNota());
+        assertEquals(7, this.service.getNoteLa(java.time.Instant.ofEpochMilli(2500)).get("1#1").getNota());
+        assertTrue(this.service.getNoteLa(java.time.Instant.ofEpochMilli(3500)).isEmpty());
+        assertTrue(this.service.getNoteLa(java.time.Instant.ofEpochMilli(500)).isEmpty());
+        assertEquals(1, istoric.getNumarSnapshoturi());
+        assertTrue(istoric.getOctetiPeEveniment() < 32);
+        istoric.close();
+
+        java.nio.file.Files.write(fisier, new byte[]{0, 5}, java.nio.file.StandardOpenOption.APPEND);
+        java.nio.file.Files.write(snapshoturi, new byte[]{0, 0, 1}, java.nio.file.StandardOpenOption.APPEND);
+        IstoricNote redeschis = new IstoricNote(fisier.toString(), 2, ceas::get);
+        assertEquals(3, redeschis.getNumarEvenimente());
+        assertEquals(java.time.Instant.ofEpochMilli(2000), redeschis.istoric("1#1").get(1).getMoment());
+        assertEquals(7, redeschis.notaLa("1#1", java.time.Instant.ofEpochMilli(2999)).getNota());
+        assertEquals(istoric.getOcteti(), java.nio.file.Files.size(fisier));
+        assertEquals(1, redeschis.getNumarSnapshoturi());
+        assertEquals(istoric.getOctetiSnapshoturi(), java.nio.file.Files.size(snapshoturi));
+        assertEquals(7, redeschis.stareLa(java.time.Instant.ofEpochMilli(2500)).get("1#1").getNota());
+        assertThrows(ValidationException.class, () -> new IstoricNote(fisier.toString(), 2, ceas::get));
+
+        // o nota fara data e inregistrata o singura data
+        redeschis.adauga(new Nota("2#1", "2", "1", 9, null));
+        redeschis.adauga(new Nota("2#1", "2", "1", 9, null));
+        assertEquals(1, redeschis.istoric("2#1").size());
+        assertNull(redeschis.istoric("2#1").get(0).toNota().getData());
+        redeschis.close();
+
+        // un eveniment complet dar invalid (tip necunoscut) nu e taiat din fisier
+        long dimensiune = java.nio.file.Files.size(fisier);
+        java.nio.file.Files.write(fisier, new byte[]{9, 0, 0, 0, 0, 0, 0, 0}, java.nio.file.StandardOpenOption.APPEND);
+        assertThrows(ValidationException.class, () -> new IstoricNote(fisier.toString(), 2, ceas::get));
+        assertEquals(dimensiune + 8, java.nio.file.Files.size(fisier));
+
+        this.service.getMotorPenalizari().setPoliticaTema("1", null);
+        this.service.deleteStudent("1");
+        this.service.deleteTema("1");
+        java.nio.file.Files.delete(fisier);
+        java.nio.file.Files.delete(snapshoturi);
+    }
+}
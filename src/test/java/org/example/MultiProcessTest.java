@@ -0,0 +1,59 @@
+package org.example;
+
+import org.example.domain.Student;
+import org.example.repository.StudentXMLRepo;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiProcessTest {
+
+    private static final String FILE = "fisiere/studentiMultiProcesTest.xml";
+    private static final int STUDENTI_PER_PROCES = 40;
+
+    /**
+     * Proces separat care adauga studenti in fisierul partajat
+     */
+    public static class Worker {
+        public static void main(String[] args) {
+            StudentXMLRepo repo = new StudentXMLRepo(args[0]);
+            repo.activeazaAccesPartajat();
+            for (int i = 0; i < Integer.parseInt(args[2]); i++) {
+                repo.save(new Student(args[1] + i, "Student" + i, 931, args[1] + i + "@gmail.com"));
+            }
+        }
+    }
+
+    @Test
+    public void testTwoProcessesSameFile() throws Exception {
+        new File(FILE).delete();
+        new File(FILE + ".lock").delete();
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("java.class.path");
+        List<Process> procese = new ArrayList<>();
+        for (String prefix : List.of("a", "b")) {
+            procese.add(new ProcessBuilder(java, "-cp", classpath, Worker.class.getName(),
+                    FILE, prefix, String.valueOf(STUDENTI_PER_PROCES)).inheritIO().start());
+        }
+        for (Process proces : procese) {
+            assertTrue(proces.waitFor(2, TimeUnit.MINUTES));
+            assertEquals(0, proces.exitValue());
+        }
+
+        StudentXMLRepo repo = new StudentXMLRepo(FILE);
+        int count = 0;
+        for (Student student : repo.findAll()) {
+            count++;
+        }
+        assertEquals(2 * STUDENTI_PER_PROCES, count);
+
+        new File(FILE).delete();
+        new File(FILE + ".lock").delete();
+    }
+}